@@ -0,0 +1,118 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {"app.rate-limit.enabled=false", "app.events.poll-interval=5ms"})
+@AutoConfigureMockMvc
+public class ChangeEventIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+  private static final Pattern EVENT = Pattern.compile("event:(\\w+)");
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ChangeEventBuffer buffer;
+  @Autowired private UserService userService;
+  @Autowired private ProjectService projectService;
+
+  @Test
+  public void testStreamOfCommittedChanges() throws Exception {
+    long offset = buffer.getNextOffset();
+    var response = stream(offset);
+
+    var ada = userService.create(User.builder().name("Ada").email("ada@events.org").build());
+    var alan = userService.create(User.builder().name("Alan").email("alan@events.org").build());
+    var project = projectService.create(new Project(0, "Events", "Change stream"));
+    projectService.assignUsersToProject(project.getId(), List.of(ada.getId(), alan.getId()));
+    projectService.unassignUsersFromProject(project.getId(), List.of(ada.getId()));
+    projectService.update(new Project(0, "Events 2", "Change stream"), project.getId());
+    projectService.delete(project.getId());
+
+    var events = awaitEvents(response, 7);
+    assertEquals(
+        List.of(
+            "USER_CREATED",
+            "USER_CREATED",
+            "PROJECT_CREATED",
+            "USERS_ASSIGNED",
+            "USERS_UNASSIGNED",
+            "PROJECT_UPDATED",
+            "PROJECT_DELETED"),
+        events);
+
+    var body = response.getContentAsString();
+    assertTrue(body.contains("id:" + offset + "\n"), body);
+    assertTrue(body.contains("\"userIds\":[" + ada.getId() + "," + alan.getId() + "]"), body);
+    assertTrue(body.contains("\"fields\":[\"name\"]"), body);
+
+    // Resumes after the last event received
+    var resumed =
+        mockMvc
+            .perform(
+                get("/v1/events")
+                    .header(ChangeEventController.LAST_EVENT_ID, offset + 5)
+                    .header(HttpHeaders.AUTHORIZATION, ADMIN))
+            .andExpect(request().asyncStarted())
+            .andReturn()
+            .getResponse();
+    assertEquals(List.of("PROJECT_DELETED"), awaitEvents(resumed, 1));
+  }
+
+  @Test
+  public void testOffsetNotAvailable() throws Exception {
+    mockMvc
+        .perform(
+            get("/v1/events")
+                .param("offset", Long.toString(buffer.getNextOffset() + 1))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isGone());
+  }
+
+  private MockHttpServletResponse stream(long offset) throws Exception {
+    return mockMvc
+        .perform(
+            get("/v1/events")
+                .param("offset", Long.toString(offset))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(request().asyncStarted())
+        .andReturn()
+        .getResponse();
+  }
+
+  private static List<String> awaitEvents(MockHttpServletResponse response, int count)
+      throws Exception {
+    long deadline = System.currentTimeMillis() + 5_000;
+    List<String> events = new ArrayList<>();
+
+    while (System.currentTimeMillis() < deadline) {
+      events.clear();
+      var matcher = EVENT.matcher(response.getContentAsString());
+      while (matcher.find()) events.add(matcher.group(1));
+      if (events.size() >= count) break;
+      Thread.sleep(20);
+    }
+
+    return events;
+  }
+}
@@ -0,0 +1,113 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {"app.rate-limit.enabled=false", "app.changes.settle-time=0s"})
+@AutoConfigureMockMvc
+public class ChangeFeedIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private UserService userService;
+  @Autowired private ProjectService projectService;
+
+  @Test
+  public void testUserChangesSinceToken() throws Exception {
+    var ada = userService.create(User.builder().name("Ada").email("ada@changes.org").build());
+    var alan = userService.create(User.builder().name("Alan").email("alan@changes.org").build());
+    String token = syncAll("/v1/users/changes", null);
+
+    ada.setName("Ada Lovelace");
+    userService.update(ada);
+    userService.delete(alan.getId());
+    var grace = userService.create(User.builder().name("Grace").email("grace@changes.org").build());
+
+    // Changed rows and deletions are paged separately, one of each per sync
+    List<Long> changed = new ArrayList<>();
+    List<Long> removed = new ArrayList<>();
+    JsonNode changes;
+    do {
+      changes = sync("/v1/users/changes", token, 1);
+      changes.get("users").forEach(user -> changed.add(user.get("id").asLong()));
+      changes.get("deleted").forEach(id -> removed.add(id.asLong()));
+      token = changes.get("next").asText();
+    } while (changes.get("has-more").asBoolean());
+
+    assertEquals(List.of(ada.getId(), grace.getId()), changed);
+    assertEquals(List.of(alan.getId()), removed);
+    assertEquals("Ada Lovelace", userService.findById(ada.getId()).getName());
+  }
+
+  @Test
+  public void testProjectChangesSinceToken() throws Exception {
+    var kept = projectService.create(new Project(0, "Changes 1", "Kept"));
+    var deleted = projectService.create(new Project(0, "Changes 2", "Deleted"));
+    String token = syncAll("/v1/projects/changes", null);
+
+    projectService.update(new Project(0, "Changes 1 renamed", null), kept.getId());
+    projectService.delete(deleted.getId());
+
+    var changes = sync("/v1/projects/changes", token, null);
+
+    assertEquals(1, changes.get("projects").size());
+    assertEquals("Changes 1 renamed", changes.get("projects").get(0).get("name").asText());
+    assertEquals(deleted.getId(), changes.get("deleted").get(0).asLong());
+    assertFalse(changes.get("has-more").asBoolean());
+  }
+
+  @Test
+  public void testTokenNotValid() throws Exception {
+    mockMvc
+        .perform(
+            get("/v1/users/changes")
+                .param("since", "not-a-token")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isBadRequest());
+  }
+
+  /** Reads every change, to start from the current state. */
+  private String syncAll(String path, String token) throws Exception {
+    JsonNode changes;
+    do {
+      changes = sync(path, token, 1000);
+      token = changes.get("next").asText();
+    } while (changes.get("has-more").asBoolean());
+
+    return token;
+  }
+
+  private JsonNode sync(String path, String token, Integer limit) throws Exception {
+    var request = get(path).header(HttpHeaders.AUTHORIZATION, ADMIN);
+    if (token != null) request.param("since", token);
+    if (limit != null) request.param("limit", limit.toString());
+
+    var body =
+        mockMvc
+            .perform(request)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    return objectMapper.readTree(body);
+  }
+}
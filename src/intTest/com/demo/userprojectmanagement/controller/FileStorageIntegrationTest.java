@@ -0,0 +1,69 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@ActiveProfiles("file")
+public class FileStorageIntegrationTest {
+  private static final Path DIRECTORY = createDirectory();
+
+  @Autowired private DataSource dataSource;
+  @Autowired private UserService userService;
+
+  @Test
+  public void testFileDatabaseWithTunedSettings() {
+    var ada = userService.create(User.builder().name("Ada").email("ada@file.org").build());
+
+    assertTrue(Files.exists(DIRECTORY.resolve("taskdb.mv.db")));
+    assertEquals("Ada", userService.findById(ada.getId()).getName());
+
+    Map<String, String> settings =
+        new JdbcTemplate(dataSource)
+                .queryForList(
+                    "SELECT DISTINCT SETTING_NAME, SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS"
+                        + " WHERE SETTING_NAME IN ('CACHE_SIZE', 'WRITE_DELAY', 'info.PAGE_SIZE')")
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        row -> (String) row.get("SETTING_NAME"),
+                        row -> (String) row.get("SETTING_VALUE")));
+    assertEquals(
+        Map.of("CACHE_SIZE", "262144", "WRITE_DELAY", "100", "info.PAGE_SIZE", "16384"), settings);
+
+    var pool = (HikariDataSource) dataSource;
+    assertEquals(8, pool.getMaximumPoolSize());
+    assertEquals(8, pool.getMinimumIdle());
+  }
+
+  @DynamicPropertySource
+  static void storage(DynamicPropertyRegistry registry) {
+    registry.add("app.storage.path", () -> DIRECTORY.resolve("taskdb").toString());
+  }
+
+  private static Path createDirectory() {
+    try {
+      return Files.createTempDirectory("file-storage").toAbsolutePath();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,44 +1,189 @@
 package com.demo.userprojectmanagement.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
 import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.UserService;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 public class ProjectControllerIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
 
-    @Autowired private MockMvc mockMvc;
-    @Autowired private ProjectRepository projectRepository;
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ProjectRepository projectRepository;
+  @Autowired private ProjectService projectService;
+  @Autowired private UserService userService;
 
-    @BeforeEach
-    public void setUp() {
-        projectRepository.deleteAll();
-    }
+  @BeforeEach
+  public void setUp() {
+    projectRepository.deleteAll();
+  }
 
-    @Test
-    public void testCreateAndGetProject() throws Exception {
-        String newProjectJson =
-                "{\"name\": \"New Project\", \"description\": \"This is a new project\"}";
+  @Test
+  public void testCreateAndGetProject() throws Exception {
+    String newProjectJson =
+        "{\"name\": \"New Project\", \"description\": \"This is a new project\"}";
 
-        mockMvc
-                .perform(
-                        post("/v1/projects").contentType(MediaType.APPLICATION_JSON).content(newProjectJson))
-                .andExpect(status().isCreated());
+    mockMvc
+        .perform(
+            post("/v1/projects")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newProjectJson)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isCreated());
 
-        List<Project> projects = projectRepository.findAll();
-        assertEquals(1, projects.size());
-        assertEquals("New Project", projects.get(0).getName());
-    }
+    List<Project> projects = projectRepository.findAll();
+    assertEquals(1, projects.size());
+    assertEquals("New Project", projects.get(0).getName());
+  }
+
+  @Test
+  public void testMembersOfSeveralProjects() throws Exception {
+    var users =
+        List.of("Ada", "Alan", "Grace").stream()
+            .map(
+                name ->
+                    userService.create(
+                        User.builder().name(name).email(name + "@members.org").build()))
+            .map(User::getId)
+            .toList();
+    long first = projectService.create(new Project(0, "Members 1", "First")).getId();
+    long second = projectService.create(new Project(0, "Members 2", "Second")).getId();
+
+    mockMvc
+        .perform(
+            put("/v1/projects/{id}/users/assign", first)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + users.get(0) + "," + users.get(1) + "]")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(
+            put("/v1/projects/{id}/users/assign", second)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + users.get(1) + "," + users.get(2) + "]")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+
+    String projectIds = first + "," + second;
+    mockMvc
+        .perform(
+            get("/v1/projects/members/intersection")
+                .param("projectIds", projectIds)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.userIds[0]").value(users.get(1)))
+        .andExpect(jsonPath("$['total-items']").value(1));
+    mockMvc
+        .perform(
+            get("/v1/projects/members/union")
+                .param("projectIds", projectIds)
+                .param("size", "2")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.userIds.length()").value(2))
+        .andExpect(jsonPath("$['total-items']").value(3));
+    mockMvc
+        .perform(
+            get("/v1/projects/members/overlap")
+                .param("projectIds", projectIds)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.shared").value(1))
+        .andExpect(jsonPath("$.total").value(3));
+    mockMvc
+        .perform(
+            get("/v1/projects/members/difference")
+                .param("projectIds", first + ",-1")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testBulkDelete() throws Exception {
+    long first = projectService.create(new Project(0, "Bulk 1", "First")).getId();
+    long second = projectService.create(new Project(0, "Bulk 2", "Second")).getId();
+
+    mockMvc
+        .perform(
+            delete("/v1/projects")
+                .param("ids", first + ",-1," + second)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isMultiStatus())
+        .andExpect(jsonPath("$[0].status").value(204))
+        .andExpect(jsonPath("$[1].id").value(-1))
+        .andExpect(jsonPath("$[1].status").value(404))
+        .andExpect(jsonPath("$[2].status").value(204));
+    mockMvc
+        .perform(get("/v1/projects/{id}", second).header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isNotFound());
+    mockMvc
+        .perform(delete("/v1/projects").param("ids", "").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testSparseFieldsAndExpansion() throws Exception {
+    var ada = userService.create(User.builder().name("Ada").email("ada@sparse.org").build());
+    var alan = userService.create(User.builder().name("Alan").email("alan@sparse.org").build());
+    long first = projectService.create(new Project(0, "Sparse 1", "First")).getId();
+    projectService.create(new Project(0, "Sparse 2", "Second"));
+
+    mockMvc
+        .perform(
+            put("/v1/projects/{id}/users/assign", first)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + ada.getId() + "," + alan.getId() + "]")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            get("/v1/projects?fields=name&expand=users&sort=name&totals=none")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.projects.length()").value(2))
+        .andExpect(jsonPath("$.projects[0].id").value(first))
+        .andExpect(jsonPath("$.projects[0].name").value("Sparse 1"))
+        .andExpect(jsonPath("$.projects[0].description").doesNotExist())
+        .andExpect(jsonPath("$.projects[0].users[0].name").value("Ada"))
+        .andExpect(jsonPath("$.projects[0].users[1].email").value("alan@sparse.org"))
+        .andExpect(jsonPath("$.projects[1].users.length()").value(0))
+        .andExpect(jsonPath("$['total-items']").doesNotExist());
+    mockMvc
+        .perform(
+            get("/v1/users?fields=email&expand=projects&sort=email&size=100")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(
+            jsonPath("$.users[?(@.id == " + ada.getId() + ")].projects[0].name").value("Sparse 1"))
+        .andExpect(jsonPath("$.users[0].name").doesNotExist());
+    mockMvc
+        .perform(get("/v1/projects?fields=owner").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            get("/v1/projects?expand=users&sort=updatedAt")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isBadRequest());
+  }
 }
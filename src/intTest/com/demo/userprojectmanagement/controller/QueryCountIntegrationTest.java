@@ -0,0 +1,298 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.purge.DeletedRowPurger;
+import com.demo.userprojectmanagement.sql.SqlRecorder;
+import com.demo.userprojectmanagement.sql.SqlRecorderConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Upper bounds of the SQL statements and entities loaded by every endpoint, with {@value #USERS}
+ * users and {@value #PROJECTS} projects of {@value #MEMBERS} members each. A bound exceeded by a
+ * change usually means a query per row was introduced.
+ */
+@SpringBootTest(
+    properties = {"app.rate-limit.enabled=false", "app.membership.write-behind.flush-interval=1h"})
+@AutoConfigureMockMvc
+@Import(SqlRecorderConfiguration.class)
+public class QueryCountIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+  private static final int USERS = 200;
+  private static final int PROJECTS = 40;
+  private static final int MEMBERS = 20;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private SqlRecorder sql;
+  @Autowired private UserRepository userRepository;
+  @Autowired private ProjectRepository projectRepository;
+  @Autowired private MembershipIndex membershipIndex;
+  @Autowired private DeletedRowPurger purger;
+
+  private List<User> users;
+  private List<Project> projects;
+
+  @BeforeEach
+  public void setUp() {
+    users =
+        userRepository.saveAll(
+            IntStream.range(0, USERS)
+                .mapToObj(
+                    i ->
+                        User.builder()
+                            .name("Query User " + i)
+                            .email("query.user." + i + "@example.com")
+                            .build())
+                .toList());
+
+    List<Project> seeded = new ArrayList<>();
+    for (int i = 0; i < PROJECTS; i++) {
+      var project = new Project(0, "Query Project " + i, "Seeded for query counts");
+      int first = i * MEMBERS % USERS;
+      project.setUsers(new ArrayList<>(users.subList(first, first + MEMBERS)));
+      seeded.add(project);
+    }
+    projects = projectRepository.saveAll(seeded);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    purger.purge();
+    projectRepository.deleteAll();
+    userRepository.deleteAll();
+  }
+
+  @Test
+  public void findAllUsers() throws Exception {
+    sql.record(() -> perform(get("/v1/users?page=2&size=20"), 200)).assertAtMost(2, 20);
+  }
+
+  @Test
+  public void findAllUsersWithKeptTotals() throws Exception {
+    perform(get("/v1/users?totals=exact"), 200);
+
+    sql.record(() -> perform(get("/v1/users?page=2&size=20"), 200)).assertAtMost(1, 20);
+    sql.record(() -> perform(get("/v1/users?page=2&size=20&totals=none"), 200)).assertAtMost(1, 20);
+  }
+
+  @Test
+  public void findUsersWithProjects() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    get("/v1/users?page=2&size=20&fields=name&expand=projects&totals=none"), 200))
+        .assertAtMost(2, 0);
+  }
+
+  @Test
+  public void findUserByName() throws Exception {
+    sql.record(() -> perform(get("/v1/users?email=&name=Query User 7"), 200)).assertAtMost(1, 1);
+  }
+
+  @Test
+  public void findUserById() throws Exception {
+    sql.record(() -> perform(get("/v1/users/" + users.get(7).getId()), 200)).assertAtMost(2, 5);
+  }
+
+  @Test
+  public void createUser() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    post("/v1/users").content("{\"name\":\"Ada\",\"email\":\"ada@example.com\"}"),
+                    201))
+        .assertAtMost(2, 0);
+  }
+
+  @Test
+  public void updateUser() throws Exception {
+    var body =
+        String.format(
+            "{\"id\":%s,\"name\":\"Ada\",\"email\":\"ada@example.com\"}", users.get(7).getId());
+
+    sql.record(() -> perform(put("/v1/users").content(body), 200)).assertAtMost(2, 1);
+  }
+
+  @Test
+  public void patchUsers() throws Exception {
+    var body =
+        users.subList(0, 50).stream()
+            .map(user -> String.format("{\"id\":%s,\"name\":\"Patched\"}", user.getId()))
+            .collect(Collectors.joining(",", "[", "]"));
+
+    sql.record(() -> perform(patch("/v1/users").content(body), 200)).assertAtMost(2, 50);
+  }
+
+  @Test
+  public void deleteUser() throws Exception {
+    sql.record(() -> perform(delete("/v1/users/" + users.get(7).getId()), 204)).assertAtMost(3, 1);
+  }
+
+  @Test
+  public void deleteUsers() throws Exception {
+    var ids =
+        users.subList(0, 150).stream()
+            .map(user -> Long.toString(user.getId()))
+            .collect(Collectors.joining(","));
+
+    sql.record(() -> perform(delete("/v1/users").param("ids", ids), 200)).assertAtMost(6, 0);
+  }
+
+  @Test
+  public void findAllProjects() throws Exception {
+    sql.record(() -> perform(get("/v1/projects?page=1&size=20"), 200)).assertAtMost(2, 20);
+  }
+
+  @Test
+  public void findProjectsWithUsers() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    get("/v1/projects?page=1&size=20&fields=name&expand=users&totals=none"), 200))
+        .assertAtMost(2, 0);
+  }
+
+  @Test
+  public void findProjectById() throws Exception {
+    sql.record(() -> perform(get("/v1/projects/" + projects.get(3).getId()), 200))
+        .assertAtMost(2, 21);
+  }
+
+  @Test
+  public void findProjectByName() throws Exception {
+    sql.record(() -> perform(get("/v1/projects?name=Query Project 3"), 200)).assertAtMost(1, 1);
+  }
+
+  @Test
+  public void createProject() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    post("/v1/projects")
+                        .content("{\"name\":\"JEP-400\",\"description\":\"UTF-8\"}"),
+                    201))
+        .assertAtMost(1, 0);
+  }
+
+  @Test
+  public void updateProject() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    put("/v1/projects/" + projects.get(3).getId())
+                        .content("{\"description\":\"Updated\"}"),
+                    200))
+        .assertAtMost(3, 21);
+  }
+
+  @Test
+  public void patchProjects() throws Exception {
+    var body =
+        projects.subList(0, 20).stream()
+            .map(project -> String.format("{\"id\":%s,\"name\":\"Patched\"}", project.getId()))
+            .collect(Collectors.joining(",", "[", "]"));
+
+    sql.record(() -> perform(patch("/v1/projects").content(body), 200)).assertAtMost(2, 20);
+  }
+
+  @Test
+  public void assignUsers() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    put("/v1/projects/" + projects.get(3).getId() + "/users/assign")
+                        .content(userIds(100, 130)),
+                    200))
+        .assertAtMost(5, 31);
+  }
+
+  @Test
+  public void unassignUsers() throws Exception {
+    int first = 3 * MEMBERS % USERS;
+
+    sql.record(
+            () ->
+                perform(
+                    put("/v1/projects/" + projects.get(3).getId() + "/users/unassign")
+                        .content(userIds(first, first + 10)),
+                    200))
+        .assertAtMost(5, 21);
+  }
+
+  @Test
+  public void queueAssignUsers() throws Exception {
+    sql.record(
+            () ->
+                perform(
+                    put("/v1/projects/" + projects.get(3).getId() + "/users/assign")
+                        .header("Prefer", "respond-async")
+                        .content(userIds(100, 130)),
+                    202))
+        .assertAtMost(2, 30);
+  }
+
+  @Test
+  public void deleteProject() throws Exception {
+    sql.record(() -> perform(delete("/v1/projects/" + projects.get(3).getId()), 204))
+        .assertAtMost(3, 1);
+  }
+
+  @Test
+  public void findMembersOfProjects() throws Exception {
+    membershipIndex.reload();
+    String projectIds = projects.get(0).getId() + "," + projects.get(1).getId();
+
+    sql.record(
+            () -> perform(get("/v1/projects/members/union?size=50&projectIds=" + projectIds), 200))
+        .assertAtMost(0, 0);
+  }
+
+  @Test
+  public void deleteProjects() throws Exception {
+    var ids =
+        projects.stream()
+            .map(project -> Long.toString(project.getId()))
+            .collect(Collectors.joining(","));
+
+    sql.record(() -> perform(delete("/v1/projects").param("ids", ids), 200)).assertAtMost(3, 0);
+  }
+
+  private String userIds(int from, int to) {
+    return users.subList(from, to).stream()
+        .map(user -> Long.toString(user.getId()))
+        .collect(Collectors.joining(",", "[", "]"));
+  }
+
+  private void perform(MockHttpServletRequestBuilder request, int expectedStatus) throws Exception {
+    mockMvc
+        .perform(
+            request
+                .header(HttpHeaders.AUTHORIZATION, ADMIN)
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().is(expectedStatus));
+  }
+}
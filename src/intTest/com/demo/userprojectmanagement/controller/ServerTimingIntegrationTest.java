@@ -0,0 +1,76 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.util.timing.ServerTimingFilter;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {"app.rate-limit.enabled=false", "app.server-timing.sample-rate=1"})
+@AutoConfigureMockMvc
+public class ServerTimingIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+  private static final Pattern NON_ZERO = Pattern.compile("dur=(?!0\\.000)");
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private UserRepository userRepository;
+
+  @AfterEach
+  public void tearDown() {
+    userRepository.deleteAll();
+  }
+
+  @Test
+  public void testFindByIdTimings() throws Exception {
+    var user = userRepository.save(User.builder().name("Timed").email("timed@example.com").build());
+
+    var header =
+        mockMvc
+            .perform(get("/v1/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, ADMIN))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+
+    for (String metric : header.split(", ")) {
+      assertTrue(NON_ZERO.matcher(metric).find(), metric);
+    }
+    assertTrue(header.matches(".*db;dur=[0-9.]+;desc=\"[1-9][0-9]* statements\".*"), header);
+  }
+
+  @Test
+  public void testNotFoundTimings() throws Exception {
+    var header =
+        mockMvc
+            .perform(get("/v1/users/{id}", 999_999).header(HttpHeaders.AUTHORIZATION, ADMIN))
+            .andExpect(status().isNotFound())
+            .andReturn()
+            .getResponse()
+            .getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+
+    assertTrue(header.matches(".*ser;dur=(?!0\\.000).*"), header);
+  }
+
+  @Test
+  public void testUnauthorizedTimings() throws Exception {
+    var header =
+        mockMvc
+            .perform(get("/v1/users"))
+            .andExpect(status().isUnauthorized())
+            .andReturn()
+            .getResponse()
+            .getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+
+    assertTrue(header.contains("desc=\"0 statements\""), header);
+  }
+}
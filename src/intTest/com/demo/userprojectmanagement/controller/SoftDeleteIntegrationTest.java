@@ -0,0 +1,83 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
+import com.demo.userprojectmanagement.exception.UserIdNotFoundException;
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.service.purge.DeletedRowPurger;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(properties = {"app.rate-limit.enabled=false", "app.purge.enabled=false"})
+public class SoftDeleteIntegrationTest {
+  @Autowired private UserService userService;
+  @Autowired private ProjectService projectService;
+  @Autowired private DeletedRowPurger purger;
+  @Autowired private DataSource dataSource;
+
+  @Test
+  public void testDeletedUserHiddenThenPurged() {
+    var ada = userService.create(User.builder().name("Ada").email("ada@purge.org").build());
+    var alan = userService.create(User.builder().name("Alan").email("alan@purge.org").build());
+    var project = projectService.create(new Project(0, "Purge users", "Members"));
+    projectService.assignUsersToProject(project.getId(), List.of(ada.getId(), alan.getId()));
+
+    userService.delete(alan.getId());
+
+    assertThrows(UserIdNotFoundException.class, () -> userService.findById(alan.getId()));
+    assertEquals(
+        List.of(ada.getId()),
+        projectService.findById(project.getId()).getUsers().stream().map(User::getId).toList());
+    assertEquals(1, rows("SELECT COUNT(*) FROM users WHERE id = ?", alan.getId()));
+    assertEquals(1, rows("SELECT COUNT(*) FROM project_by_user WHERE user_id = ?", alan.getId()));
+
+    // The email of a deleted user is free again
+    var alanAgain = userService.create(User.builder().name("Alan").email("alan@purge.org").build());
+
+    assertTrue(purger.purge() >= 2);
+    assertEquals(0, rows("SELECT COUNT(*) FROM users WHERE id = ?", alan.getId()));
+    assertEquals(0, rows("SELECT COUNT(*) FROM project_by_user WHERE user_id = ?", alan.getId()));
+    assertEquals("Alan", userService.findById(alanAgain.getId()).getName());
+    assertEquals(1, rows("SELECT COUNT(*) FROM project_by_user WHERE user_id = ?", ada.getId()));
+  }
+
+  @Test
+  public void testDeletedProjectHiddenThenPurged() {
+    var grace = userService.create(User.builder().name("Grace").email("grace@purge.org").build());
+    var kept = projectService.create(new Project(0, "Purge kept", "Kept"));
+    var deleted = projectService.create(new Project(0, "Purge deleted", "Deleted"));
+    projectService.assignUsersToProject(kept.getId(), List.of(grace.getId()));
+    projectService.assignUsersToProject(deleted.getId(), List.of(grace.getId()));
+
+    projectService.delete(deleted.getId());
+
+    assertThrows(ProjectNotFoundException.class, () -> projectService.findById(deleted.getId()));
+    assertThrows(ProjectNotFoundException.class, () -> projectService.findByName("Purge deleted"));
+    assertEquals(
+        List.of("Purge kept"),
+        userService.findById(grace.getId()).getProjects().stream()
+            .map(project -> project.getName())
+            .toList());
+
+    purger.purge();
+
+    assertEquals(0, rows("SELECT COUNT(*) FROM projects WHERE id = ?", deleted.getId()));
+    assertEquals(
+        0, rows("SELECT COUNT(*) FROM project_by_user WHERE project_id = ?", deleted.getId()));
+    assertEquals(1, rows("SELECT COUNT(*) FROM project_by_user WHERE user_id = ?", grace.getId()));
+  }
+
+  private long rows(String sql, long id) {
+    return new JdbcTemplate(dataSource).queryForObject(sql, Long.class, id);
+  }
+}
@@ -0,0 +1,138 @@
+package com.demo.userprojectmanagement.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.util.tracing.InMemorySpanExporter;
+import com.demo.userprojectmanagement.util.tracing.RepositoryInterceptor;
+import com.demo.userprojectmanagement.util.tracing.SpanEndpoint;
+import com.demo.userprojectmanagement.util.tracing.SpanEndpoint.Node;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+    properties = {
+      "app.rate-limit.enabled=false",
+      "management.tracing.sampling.probability=1.0",
+      "app.tracing.memory.enabled=true",
+      "app.tracing.file.path=target/tracing-it/spans.jsonl"
+    })
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class TracingIntegrationTest {
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private UserRepository userRepository;
+  @Autowired private SdkTracerProvider tracerProvider;
+  @Autowired private InMemorySpanExporter exporter;
+  @Autowired private SpanEndpoint spanEndpoint;
+
+  @BeforeEach
+  public void setUp() {
+    exporter.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    userRepository.deleteAll();
+  }
+
+  @Test
+  public void testFindByIdTrace() throws Exception {
+    var user =
+        userRepository.save(User.builder().name("Traced").email("traced@example.com").build());
+
+    mockMvc
+        .perform(get("/v1/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+    tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+    var controller =
+        spanEndpoint.traces().stream()
+            .flatMap(trace -> trace.roots().stream())
+            .map(root -> find(root, "user-controller.find-by-id"))
+            .filter(node -> node != null)
+            .findFirst()
+            .orElseThrow();
+    var service = find(controller, "user-service.find-by-id");
+    var repository = find(service, "user-repository.find-by-id");
+
+    assertNotNull(service);
+    assertNotNull(repository);
+    assertEquals(Long.toString(user.getId()), controller.span().attributes().get("param.id"));
+    assertEquals("service", service.span().attributes().get("layer"));
+    assertEquals("1", repository.span().attributes().get("rows"));
+
+    List<String> lines = Files.readAllLines(Path.of("target/tracing-it/spans.jsonl"));
+    assertTrue(lines.stream().anyMatch(line -> line.contains("\"user-repository.find-by-id\"")));
+  }
+
+  @Test
+  public void testFindAllTrace() throws Exception {
+    userRepository.save(User.builder().name("Listed").email("listed@example.com").build());
+
+    mockMvc
+        .perform(get("/v1/users?page=0&size=5").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+    tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+    var service =
+        spanEndpoint.traces().stream()
+            .flatMap(trace -> trace.roots().stream())
+            .map(root -> find(root, "user-service.find-all"))
+            .filter(node -> node != null)
+            .findFirst()
+            .orElseThrow();
+
+    var repository = find(service, "user-repository.find-all-by");
+
+    assertEquals("5", service.span().attributes().get("page.size"));
+    assertTrue(Integer.parseInt(repository.span().attributes().get("rows")) > 0);
+  }
+
+  @Test
+  public void testRepositoryWrappedOnce() {
+    var advisors = ((Advised) userRepository).getAdvisors();
+
+    assertEquals(
+        1,
+        Arrays.stream(advisors)
+            .filter(advisor -> advisor.getAdvice() instanceof RepositoryInterceptor)
+            .count());
+    assertTrue(
+        Arrays.stream(advisors)
+            .noneMatch(advisor -> advisor.getAdvice() instanceof AbstractAspectJAdvice));
+  }
+
+  private static Node find(Node node, String name) {
+    if (node.span().name().equals(name)) return node;
+
+    for (Node child : node.children()) {
+      var found = find(child, name);
+      if (found != null) return found;
+    }
+
+    return null;
+  }
+}
@@ -5,84 +5,158 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.TombstoneRepository;
 import com.demo.userprojectmanagement.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 public class UserControllerIntegrationTest {
-
-    @Autowired private MockMvc mockMvc;
-    @Autowired private UserRepository userRepository;
-
-    @BeforeEach
-    public void setUp() {
-        userRepository.deleteAll();
-    }
-
-    @Test
-    public void testCreateUser() throws Exception {
-        String newUserJson = "{\"name\": \"John Doe\", \"email\": \"john.doe@example.com\"}";
-
-        mockMvc
-                .perform(post("/v1/users").contentType(MediaType.APPLICATION_JSON).content(newUserJson))
-                .andExpect(status().isCreated());
-
-        User user = userRepository.findAll().get(0);
-        assertEquals("John Doe", user.getName());
-        assertEquals("john.doe@example.com", user.getEmail());
-    }
-
-    @Test
-    public void testFindById() throws Exception {
-        User user = new User();
-        user.setName("Jane Doe");
-        user.setEmail("jane.doe@example.com");
-        user = userRepository.save(user);
-
-        mockMvc
-                .perform(get("/v1/users/{id}", user.getId()))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("Jane Doe"))
-                .andExpect(jsonPath("$.email").value("jane.doe@example.com"));
-    }
-
-    @Test
-    public void testUpdateUser() throws Exception {
-        User user = new User();
-        user.setName("Old Name");
-        user.setEmail("old.email@example.com");
-        user = userRepository.save(user);
-
-        String updatedUserJson =
-                String.format(
-                        "{\"id\": %d, \"name\": \"Updated Name\", \"email\": \"updated.email@example.com\"}",
-                        user.getId());
-
-        mockMvc
-                .perform(put("/v1/users").contentType(MediaType.APPLICATION_JSON).content(updatedUserJson))
-                .andExpect(status().isOk());
-
-        User updatedUser = userRepository.findById(user.getId()).orElseThrow();
-        assertEquals("Updated Name", updatedUser.getName());
-        assertEquals("updated.email@example.com", updatedUser.getEmail());
-    }
-
-    @Test
-    public void testDeleteUser() throws Exception {
-        User user = new User();
-        user.setName("User to Delete");
-        user.setEmail("delete.me@example.com");
-        user = userRepository.save(user);
-
-        mockMvc.perform(delete("/v1/users/{id}", user.getId())).andExpect(status().isNoContent());
-
-        assertEquals(0, userRepository.count());
-    }
+  private static final String ADMIN = "Basic YWRtaW46YWRtaW4=";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private UserRepository userRepository;
+  @Autowired private TombstoneRepository tombstoneRepository;
+
+  @BeforeEach
+  public void setUp() {
+    userRepository.deleteAll();
+  }
+
+  @Test
+  public void testCreateUser() throws Exception {
+    String newUserJson = "{\"name\": \"John Doe\", \"email\": \"john.doe@example.com\"}";
+
+    mockMvc
+        .perform(
+            post("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newUserJson)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isCreated());
+
+    User user = userRepository.findAll().get(0);
+    assertEquals("John Doe", user.getName());
+    assertEquals("john.doe@example.com", user.getEmail());
+  }
+
+  @Test
+  public void testFindById() throws Exception {
+    User user = new User();
+    user.setName("Jane Doe");
+    user.setEmail("jane.doe@example.com");
+    user = userRepository.save(user);
+
+    mockMvc
+        .perform(get("/v1/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Jane Doe"))
+        .andExpect(jsonPath("$.email").value("jane.doe@example.com"));
+  }
+
+  @Test
+  public void testUpdateUser() throws Exception {
+    User user = new User();
+    user.setName("Old Name");
+    user.setEmail("old.email@example.com");
+    user = userRepository.save(user);
+
+    String updatedUserJson =
+        String.format(
+            "{\"id\": %d, \"name\": \"Updated Name\", \"email\": \"updated.email@example.com\"}",
+            user.getId());
+
+    mockMvc
+        .perform(
+            put("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(updatedUserJson)
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk());
+
+    User updatedUser = userRepository.findById(user.getId()).orElseThrow();
+    assertEquals("Updated Name", updatedUser.getName());
+    assertEquals("updated.email@example.com", updatedUser.getEmail());
+  }
+
+  @Test
+  public void testDeleteUser() throws Exception {
+    User user = new User();
+    user.setName("User to Delete");
+    user.setEmail("delete.me@example.com");
+    user = userRepository.save(user);
+
+    mockMvc
+        .perform(delete("/v1/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isNoContent());
+
+    assertEquals(0, userRepository.count());
+  }
+
+  @Test
+  public void testBulkDelete() throws Exception {
+    var ada = userRepository.save(User.builder().name("Ada").email("ada@bulk.org").build());
+    var alan = userRepository.save(User.builder().name("Alan").email("alan@bulk.org").build());
+    long tombstones = tombstoneRepository.count();
+
+    mockMvc
+        .perform(
+            delete("/v1/users")
+                .param("ids", ada.getId() + "," + alan.getId())
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2));
+    mockMvc
+        .perform(
+            delete("/v1/users")
+                .param("ids", ada.getId() + ",-1")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isMultiStatus())
+        .andExpect(jsonPath("$[0].status").value(404))
+        .andExpect(jsonPath("$[1].status").value(404));
+
+    assertEquals(0, userRepository.findAll().size());
+    assertEquals(tombstones + 2, tombstoneRepository.count());
+  }
+
+  @Test
+  public void testListTotals() throws Exception {
+    userRepository.save(User.builder().name("Ada").email("ada@totals.org").build());
+    userRepository.save(User.builder().name("Alan").email("alan@totals.org").build());
+
+    mockMvc
+        .perform(get("/v1/users?size=1&totals=exact").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$['total-items']").value(2))
+        .andExpect(jsonPath("$['total-pages']").value(2));
+    mockMvc
+        .perform(
+            post("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Grace\", \"email\": \"grace@totals.org\"}")
+                .header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isCreated());
+
+    mockMvc
+        .perform(get("/v1/users?size=1").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.users.length()").value(1))
+        .andExpect(jsonPath("$['total-items']").value(3))
+        .andExpect(jsonPath("$['total-pages']").value(3));
+    mockMvc
+        .perform(get("/v1/users?size=1&totals=none").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$['current-page']").value(0))
+        .andExpect(jsonPath("$['total-items']").doesNotExist());
+    mockMvc
+        .perform(get("/v1/users?totals=some").header(HttpHeaders.AUTHORIZATION, ADMIN))
+        .andExpect(status().isBadRequest());
+  }
 }
@@ -0,0 +1,51 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Remembers the passwords already checked by the application's encoder, so that the load generator
+ * pays for BCrypt once per credential instead of on every request and measures the endpoints rather
+ * than the password hashing. Only registered by the {@link LoadGenerator}.
+ */
+class CachingPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+  private final Map<String, String> matched = new ConcurrentHashMap<>();
+
+  CachingPasswordEncoder(PasswordEncoder delegate) {
+    this.delegate = delegate;
+  }
+
+  /** Wraps the {@link PasswordEncoder} bean of the application. */
+  static BeanPostProcessor postProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof PasswordEncoder encoder ? new CachingPasswordEncoder(encoder) : bean;
+      }
+    };
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    if (encodedPassword != null && encodedPassword.equals(matched.get(rawPassword.toString())))
+      return true;
+
+    boolean matches = delegate.matches(rawPassword, encodedPassword);
+    if (matches) matched.put(rawPassword.toString(), encodedPassword);
+
+    return matches;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
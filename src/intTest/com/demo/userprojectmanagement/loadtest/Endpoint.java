@@ -0,0 +1,65 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/** Requests the load generator can send, each building its path from the seeded data. */
+enum Endpoint {
+  USER_BY_ID("user-by-id") {
+    @Override
+    String path(SeedData data, SplittableRandom random) {
+      return "/v1/users/" + data.userId(random);
+    }
+  },
+  USER_BY_NAME("user-by-name") {
+    @Override
+    String path(SeedData data, SplittableRandom random) {
+      return "/v1/users?email=&name="
+          + URLEncoder.encode(data.userName(random), StandardCharsets.UTF_8);
+    }
+  },
+  USERS_PAGE("users-page") {
+    @Override
+    String path(SeedData data, SplittableRandom random) {
+      return "/v1/users?size=10&page=" + random.nextInt(data.pages(10, data.userCount()));
+    }
+  },
+  PROJECT_BY_ID("project-by-id") {
+    @Override
+    String path(SeedData data, SplittableRandom random) {
+      return "/v1/projects/" + data.projectId(random);
+    }
+  },
+  PROJECTS_PAGE("projects-page") {
+    @Override
+    String path(SeedData data, SplittableRandom random) {
+      return "/v1/projects?size=10&page=" + random.nextInt(data.pages(10, data.projectCount()));
+    }
+  };
+
+  private final String label;
+
+  Endpoint(String label) {
+    this.label = label;
+  }
+
+  abstract String path(SeedData data, SplittableRandom random);
+
+  String label() {
+    return label;
+  }
+
+  static Endpoint of(String label) {
+    return Arrays.stream(values())
+        .filter(endpoint -> endpoint.label.equals(label))
+        .findFirst()
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    String.format(
+                        "unknown endpoint %s, expected one of %s",
+                        label, Arrays.stream(values()).map(Endpoint::label).toList())));
+  }
+}
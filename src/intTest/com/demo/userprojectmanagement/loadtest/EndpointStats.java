@@ -0,0 +1,76 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Response times of one endpoint. The latency is measured from the time the request was due to be
+ * sent, so a request sent late because earlier ones were slow is charged for the wait (correcting
+ * coordinated omission). The service time is measured from the actual send, as a closed-loop client
+ * would report it.
+ */
+final class EndpointStats {
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final String label;
+  private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+  private final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  EndpointStats(String label) {
+    this.label = label;
+  }
+
+  /**
+   * @param intendedNanos time the request was due to be sent
+   * @param sentNanos time the request was sent
+   * @param doneNanos time the response, or the failure, was received
+   * @param error status code or exception of a failed request, null when it succeeded
+   */
+  void record(long intendedNanos, long sentNanos, long doneNanos, String error) {
+    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - intendedNanos));
+    serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos));
+    if (error != null) errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+  }
+
+  /**
+   * @return the responses recorded since the previous snapshot
+   */
+  Snapshot snapshot() {
+    Map<String, Long> errorCounts = new TreeMap<>();
+    errors.forEach((error, count) -> errorCounts.put(error, count.sumThenReset()));
+    errorCounts.values().removeIf(count -> count == 0);
+
+    return new Snapshot(
+        label, latency.getIntervalHistogram(), serviceTime.getIntervalHistogram(), errorCounts);
+  }
+
+  /** Response times in microseconds. */
+  record Snapshot(
+      String label, Histogram latency, Histogram serviceTime, Map<String, Long> errorCounts) {
+    long count() {
+      return latency.getTotalCount();
+    }
+
+    long errors() {
+      return errorCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    Snapshot plus(Snapshot other) {
+      var latencySum = latency.copy();
+      latencySum.add(other.latency);
+      var serviceTimeSum = serviceTime.copy();
+      serviceTimeSum.add(other.serviceTime);
+
+      Map<String, Long> errorSum = new TreeMap<>(errorCounts);
+      other.errorCounts.forEach((error, count) -> errorSum.merge(error, count, Long::sum));
+
+      return new Snapshot(label, latencySum, serviceTimeSum, errorSum);
+    }
+  }
+}
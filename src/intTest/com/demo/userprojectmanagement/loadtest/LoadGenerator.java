@@ -0,0 +1,231 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import com.demo.userprojectmanagement.UserProjectManagementApplication;
+import com.demo.userprojectmanagement.loadtest.EndpointStats.Snapshot;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-loop load generator for the REST API. Starts the application on a random port against the
+ * in-memory database, or the file database with {@code --spring.profiles.active=file}, seeds users
+ * and projects, then sends a weighted mix of requests at a fixed arrival rate: requests are started
+ * on schedule whether or not the previous ones have completed, as independent clients would.
+ * Latencies are reported per endpoint with coordinated omission correction, see {@link
+ * EndpointStats}.
+ *
+ * <p>Run with the {@code load-test} profile, see README "Load tests".
+ */
+public class LoadGenerator {
+  private final LoadSettings settings;
+  private final SeedData data;
+  private final URI baseUri;
+  private final String authorization;
+  private final HttpClient client;
+  private final Endpoint[] endpoints;
+  private final int[] cumulativeWeights;
+  private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+  private final SplittableRandom random;
+
+  LoadGenerator(LoadSettings settings, SeedData data, URI baseUri) {
+    this.settings = settings;
+    this.data = data;
+    this.baseUri = baseUri;
+    this.authorization =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString(
+                    (settings.username() + ":" + settings.password())
+                        .getBytes(StandardCharsets.UTF_8));
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(settings.timeout())
+            .build();
+    this.endpoints = settings.mix().keySet().toArray(Endpoint[]::new);
+    this.cumulativeWeights = new int[endpoints.length];
+    this.random = new SplittableRandom(settings.seed());
+
+    int total = 0;
+    for (int i = 0; i < endpoints.length; i++) {
+      total += settings.mix().get(endpoints[i]);
+      cumulativeWeights[i] = total;
+      stats.put(endpoints[i], new EndpointStats(endpoints[i].label()));
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    var settings = LoadSettings.parse(args);
+
+    try (var context = start(settings)) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      var contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+      System.out.printf(
+          "Seeding %d users and %d projects%n", settings.users(), settings.projects());
+      long seedStart = System.nanoTime();
+      var data = SeedData.seed(context, settings);
+      System.out.printf(
+          "Seeded in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+      var generator =
+          new LoadGenerator(settings, data, URI.create("http://localhost:" + port + contextPath));
+
+      System.out.printf("Warming up for %s at %d requests/s%n", settings.warmup(), settings.rate());
+      generator.run(settings.warmup());
+
+      System.out.printf(
+          "Measuring for %s at %d requests/s%n", settings.duration(), settings.rate());
+      long start = System.nanoTime();
+      var snapshots = generator.run(settings.duration());
+      long elapsed = System.nanoTime() - start;
+
+      print(snapshots, elapsed, System.out);
+    }
+  }
+
+  private static ConfigurableApplicationContext start(LoadSettings settings) {
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--app.rate-limit.enabled=false",
+                "--logging.level.com.demo.userprojectmanagement=WARN"));
+    args.addAll(settings.applicationArgs());
+
+    return new SpringApplicationBuilder(UserProjectManagementApplication.class)
+        .initializers(
+            context ->
+                context
+                    .getBeanFactory()
+                    .addBeanPostProcessor(CachingPasswordEncoder.postProcessor()))
+        .run(args.toArray(String[]::new));
+  }
+
+  /**
+   * Sends requests at the configured rate for the given time and waits for their responses.
+   *
+   * @param duration of the run
+   * @return the responses of every endpoint
+   */
+  List<Snapshot> run(Duration duration) throws InterruptedException {
+    var inFlight = new Semaphore(settings.maxInFlight());
+    double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) settings.rate();
+    long requests = (long) (duration.toNanos() / intervalNanos);
+    long start = System.nanoTime();
+
+    for (long i = 0; i < requests; i++) {
+      long intended = start + (long) (i * intervalNanos);
+      long wait = intended - System.nanoTime();
+      if (wait > 0) LockSupport.parkNanos(wait);
+
+      inFlight.acquire();
+      send(pick(), intended, inFlight);
+    }
+
+    if (!inFlight.tryAcquire(
+        settings.maxInFlight(), settings.timeout().toMillis() * 2, TimeUnit.MILLISECONDS))
+      System.out.println("Some requests did not complete in time");
+    inFlight.release(settings.maxInFlight());
+
+    List<Snapshot> snapshots = new ArrayList<>();
+    for (Endpoint endpoint : endpoints) snapshots.add(stats.get(endpoint).snapshot());
+
+    return snapshots;
+  }
+
+  private Endpoint pick() {
+    int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    int i = 0;
+    while (value >= cumulativeWeights[i]) i++;
+
+    return endpoints[i];
+  }
+
+  private void send(Endpoint endpoint, long intended, Semaphore inFlight) {
+    var request =
+        HttpRequest.newBuilder(baseUri.resolve(baseUri.getPath() + endpoint.path(data, random)))
+            .header("Authorization", authorization)
+            .timeout(settings.timeout())
+            .GET()
+            .build();
+    long sent = System.nanoTime();
+
+    client
+        .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete(
+            (response, error) -> {
+              String failure = null;
+              if (error != null) failure = rootCause(error).getClass().getSimpleName();
+              else if (response.statusCode() >= 300) failure = "HTTP " + response.statusCode();
+
+              stats.get(endpoint).record(intended, sent, System.nanoTime(), failure);
+              inFlight.release();
+            });
+  }
+
+  private static Throwable rootCause(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  static void print(List<Snapshot> snapshots, long elapsedNanos, PrintStream out) {
+    double seconds = elapsedNanos / 1e9;
+    var total = snapshots.stream().reduce(Snapshot::plus).orElseThrow();
+
+    out.printf(
+        "%n%-16s %9s %7s %9s %9s %9s %9s %9s %14s%n",
+        "endpoint",
+        "requests",
+        "errors",
+        "req/s",
+        "p50 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms",
+        "p99 sent ms");
+    for (Snapshot snapshot : snapshots) printRow(snapshot.label(), snapshot, seconds, out);
+    printRow("total", total, seconds, out);
+    if (!total.errorCounts().isEmpty()) out.println("Errors: " + total.errorCounts());
+    out.println(
+        "Latencies are measured from the scheduled send time. \"p99 sent\" is measured from the"
+            + " actual send, as a closed-loop client would report it.");
+  }
+
+  private static void printRow(String label, Snapshot snapshot, double seconds, PrintStream out) {
+    out.printf(
+        "%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %14.2f%n",
+        label,
+        snapshot.count(),
+        snapshot.errors(),
+        snapshot.count() / seconds,
+        millis(snapshot.latency(), 50),
+        millis(snapshot.latency(), 99),
+        millis(snapshot.latency(), 99.9),
+        snapshot.latency().getMaxValue() / 1000.0,
+        millis(snapshot.serviceTime(), 99));
+  }
+
+  private static double millis(Histogram histogram, double percentile) {
+    return histogram.getValueAtPercentile(percentile) / 1000.0;
+  }
+}
@@ -0,0 +1,99 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Settings of a load test run, read from {@code -name value} arguments. Arguments starting with
+ * {@code --} are passed to the application, e.g. {@code --app.sharding.enabled=true}.
+ *
+ * @param rate requests started per second, whatever the response times
+ * @param duration of the measured part of the run
+ * @param warmup run at the same rate before measuring
+ * @param mix relative weight of every endpoint
+ * @param users seeded before the run
+ * @param projects seeded before the run
+ * @param membersPerProject users assigned to every seeded project
+ * @param maxInFlight requests waiting for a response, beyond which sending is delayed
+ * @param timeout of every request
+ * @param seed of the random choices
+ * @param username of the basic authentication
+ * @param password of the basic authentication
+ * @param applicationArgs passed to the application
+ */
+record LoadSettings(
+    int rate,
+    Duration duration,
+    Duration warmup,
+    Map<Endpoint, Integer> mix,
+    int users,
+    int projects,
+    int membersPerProject,
+    int maxInFlight,
+    Duration timeout,
+    long seed,
+    String username,
+    String password,
+    List<String> applicationArgs) {
+
+  static final String DEFAULT_MIX =
+      "user-by-id=40,user-by-name=10,users-page=15,project-by-id=25,projects-page=10";
+
+  static LoadSettings parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    List<String> applicationArgs = new ArrayList<>();
+
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].startsWith("--")) {
+        applicationArgs.add(args[i]);
+      } else if (args[i].startsWith("-") && i + 1 < args.length) {
+        values.put(args[i].substring(1), args[++i]);
+      } else {
+        throw new IllegalArgumentException("unexpected argument " + args[i]);
+      }
+    }
+
+    var settings =
+        new LoadSettings(
+            Integer.parseInt(values.getOrDefault("rate", "200")),
+            DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+            DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+            parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+            Integer.parseInt(values.getOrDefault("users", "1000")),
+            Integer.parseInt(values.getOrDefault("projects", "100")),
+            Integer.parseInt(values.getOrDefault("members-per-project", "10")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+            DurationStyle.detectAndParse(values.getOrDefault("timeout", "5s")),
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            values.getOrDefault("username", "admin"),
+            values.getOrDefault("password", "admin"),
+            applicationArgs);
+
+    if (settings.rate() <= 0) throw new IllegalArgumentException("rate must be positive");
+    if (settings.users() <= 0 || settings.projects() <= 0)
+      throw new IllegalArgumentException("at least one user and one project must be seeded");
+
+    return settings;
+  }
+
+  private static Map<Endpoint, Integer> parseMix(String mix) {
+    Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+
+    for (String entry : mix.split(",")) {
+      var parts = entry.split("=");
+      if (parts.length != 2) throw new IllegalArgumentException("mix entry not valid: " + entry);
+
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) weights.put(Endpoint.of(parts[0].trim()), weight);
+    }
+
+    if (weights.isEmpty()) throw new IllegalArgumentException("mix has no endpoint");
+
+    return weights;
+  }
+}
@@ -0,0 +1,199 @@
+package com.demo.userprojectmanagement.loadtest;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import javax.sql.DataSource;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Users and projects stored before the run, which the requests pick from at random.
+ *
+ * <p>Without sharding, they are inserted with set-based SQL, which seeds millions of users in
+ * seconds, and a database that already holds users, e.g. the file database of a previous run, is
+ * used as it is. With sharding, they are saved through the repositories so that every user lands on
+ * its shard.
+ */
+final class SeedData {
+  private static final int BATCH_SIZE = 500;
+  private static final int SQL_BATCH_SIZE = 100_000;
+  private static final int NAME_SAMPLE_SIZE = 10_000;
+
+  private final long[] userIds;
+  private final String[] userNames;
+  private final long[] projectIds;
+
+  private SeedData(long[] userIds, String[] userNames, long[] projectIds) {
+    this.userIds = userIds;
+    this.userNames = userNames;
+    this.projectIds = projectIds;
+  }
+
+  /**
+   * Stores the users and projects, each project having {@code membersPerProject} random users.
+   *
+   * @param context of the started application
+   * @param settings of the run
+   * @return the stored data
+   */
+  static SeedData seed(ApplicationContext context, LoadSettings settings) {
+    return context.getEnvironment().getProperty("app.sharding.enabled", Boolean.class, false)
+        ? seedThroughRepositories(context, settings)
+        : seedWithSql(context, settings);
+  }
+
+  private static SeedData seedThroughRepositories(
+      ApplicationContext context, LoadSettings settings) {
+    var userRepository = context.getBean(UserRepository.class);
+    var projectRepository = context.getBean(ProjectRepository.class);
+    var transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    var random = new SplittableRandom(settings.seed());
+
+    List<User> users = new ArrayList<>(settings.users());
+    for (int from = 0; from < settings.users(); from += BATCH_SIZE) {
+      int to = Math.min(from + BATCH_SIZE, settings.users());
+      List<User> batch = new ArrayList<>(to - from);
+
+      for (int i = from; i < to; i++)
+        batch.add(
+            User.builder().name("Load User " + i).email("load.user." + i + "@example.com").build());
+
+      users.addAll(transaction.execute(status -> userRepository.saveAll(batch)));
+    }
+
+    List<Project> projects = new ArrayList<>(settings.projects());
+    for (int from = 0; from < settings.projects(); from += BATCH_SIZE) {
+      int to = Math.min(from + BATCH_SIZE, settings.projects());
+      List<Project> batch = new ArrayList<>(to - from);
+
+      for (int i = from; i < to; i++) {
+        var project = new Project(0, "Load Project " + i, "Seeded for load tests");
+        List<User> members = new ArrayList<>(settings.membersPerProject());
+        random
+            .ints(0, users.size())
+            .distinct()
+            .limit(Math.min(settings.membersPerProject(), users.size()))
+            .forEach(index -> members.add(users.get(index)));
+        project.setUsers(members);
+        batch.add(project);
+      }
+
+      projects.addAll(transaction.execute(status -> projectRepository.saveAll(batch)));
+    }
+
+    return new SeedData(
+        users.stream().mapToLong(User::getId).toArray(),
+        users.stream().map(User::getName).toArray(String[]::new),
+        projects.stream().mapToLong(Project::getId).toArray());
+  }
+
+  private static SeedData seedWithSql(ApplicationContext context, LoadSettings settings) {
+    var jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+    jdbc.setFetchSize(SQL_BATCH_SIZE);
+    long stored = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+
+    if (stored > 0) {
+      System.out.printf("Using the %d users already stored%n", stored);
+    } else {
+      insertRange(
+          jdbc,
+          "INSERT INTO users (name, email, updated_at) SELECT 'Load User ' || X,"
+              + " 'load.user.' || X || '@example.com', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)",
+          settings.users());
+      insertRange(
+          jdbc,
+          "INSERT INTO projects (name, description, updated_at) SELECT 'Load Project ' || X,"
+              + " 'Seeded for load tests', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)",
+          settings.projects());
+    }
+
+    long[] userIds = ids(jdbc, "users");
+    long[] projectIds = ids(jdbc, "projects");
+    if (projectIds.length == 0) throw new IllegalStateException("no project is stored");
+
+    if (stored == 0) {
+      insertMembers(jdbc, settings, userIds, projectIds);
+      context.getBean(MembershipIndex.class).reload();
+    }
+
+    // A sample spread over the whole table, the names of millions of users do not fit in memory
+    long step = Math.max(1, userIds.length / NAME_SAMPLE_SIZE);
+    var userNames =
+        jdbc.queryForList("SELECT name FROM users WHERE MOD(id, ?) = 0", String.class, step);
+    if (userNames.isEmpty())
+      userNames = jdbc.queryForList("SELECT name FROM users LIMIT 1", String.class);
+
+    return new SeedData(userIds, userNames.toArray(String[]::new), projectIds);
+  }
+
+  /** Inserts rows 1 to {@code count}, {@link #SQL_BATCH_SIZE} rows per statement. */
+  private static void insertRange(JdbcTemplate jdbc, String sql, int count) {
+    for (long from = 1; from <= count; from += SQL_BATCH_SIZE)
+      jdbc.update(sql, from, Math.min(from + SQL_BATCH_SIZE - 1, count));
+  }
+
+  private static void insertMembers(
+      JdbcTemplate jdbc, LoadSettings settings, long[] userIds, long[] projectIds) {
+    var random = new SplittableRandom(settings.seed());
+    int members = Math.min(settings.membersPerProject(), userIds.length);
+    List<Object[]> batch = new ArrayList<>();
+
+    for (long projectId : projectIds) {
+      random
+          .ints(0, userIds.length)
+          .distinct()
+          .limit(members)
+          .forEach(index -> batch.add(new Object[] {projectId, userIds[index]}));
+
+      if (batch.size() >= SQL_BATCH_SIZE) {
+        jdbc.batchUpdate("INSERT INTO project_by_user (project_id, user_id) VALUES (?, ?)", batch);
+        batch.clear();
+      }
+    }
+
+    if (!batch.isEmpty())
+      jdbc.batchUpdate("INSERT INTO project_by_user (project_id, user_id) VALUES (?, ?)", batch);
+  }
+
+  private static long[] ids(JdbcTemplate jdbc, String table) {
+    var ids = LongStream.builder();
+    jdbc.query(
+        "SELECT id FROM " + table + " ORDER BY id",
+        (RowCallbackHandler) row -> ids.add(row.getLong(1)));
+    return ids.build().toArray();
+  }
+
+  long userId(SplittableRandom random) {
+    return userIds[random.nextInt(userIds.length)];
+  }
+
+  String userName(SplittableRandom random) {
+    return userNames[random.nextInt(userNames.length)];
+  }
+
+  long projectId(SplittableRandom random) {
+    return projectIds[random.nextInt(projectIds.length)];
+  }
+
+  int userCount() {
+    return userIds.length;
+  }
+
+  int projectCount() {
+    return projectIds.length;
+  }
+
+  int pages(int size, int count) {
+    return Math.max(1, (count + size - 1) / size);
+  }
+}
@@ -0,0 +1,71 @@
+package com.demo.userprojectmanagement.sql;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Records the SQL statements Hibernate prepares while an action runs, together with the entities
+ * and collections it loads. Registered as the statement inspector of the session factory by {@link
+ * SqlRecorderConfiguration}.
+ */
+public class SqlRecorder implements StatementInspector {
+  private final ApplicationContext context;
+  private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+  private volatile boolean recording;
+
+  SqlRecorder(ApplicationContext context) {
+    this.context = context;
+  }
+
+  /** Action run while recording, usually a request sent with MockMvc. */
+  @FunctionalInterface
+  public interface Action {
+    void run() throws Exception;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (recording) statements.add(sql);
+    return sql;
+  }
+
+  /**
+   * Runs the action and records the SQL it issues.
+   *
+   * @param action to run
+   * @return the statements issued and the entities and collections loaded
+   */
+  public SqlRecording record(Action action) throws Exception {
+    var statistics = statistics();
+    statements.clear();
+    statistics.clear();
+    recording = true;
+
+    try {
+      action.run();
+    } finally {
+      recording = false;
+    }
+
+    synchronized (statements) {
+      return new SqlRecording(
+          List.copyOf(statements),
+          statistics.getEntityLoadCount(),
+          statistics.getCollectionLoadCount());
+    }
+  }
+
+  private Statistics statistics() {
+    var statistics =
+        context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+
+    return statistics;
+  }
+}
@@ -0,0 +1,22 @@
+package com.demo.userprojectmanagement.sql;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/** Registers a {@link SqlRecorder} with Hibernate, import it in the tests that count queries. */
+@TestConfiguration
+public class SqlRecorderConfiguration {
+
+  @Bean
+  public SqlRecorder sqlRecorder(ApplicationContext context) {
+    return new SqlRecorder(context);
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer sqlRecorderCustomizer(SqlRecorder sqlRecorder) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlRecorder);
+  }
+}
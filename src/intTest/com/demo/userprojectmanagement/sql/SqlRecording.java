@@ -0,0 +1,35 @@
+package com.demo.userprojectmanagement.sql;
+
+import java.util.List;
+
+/**
+ * SQL issued by a recorded action.
+ *
+ * @param statements prepared, in order
+ * @param entitiesLoaded rows turned into entities
+ * @param collectionsLoaded collections initialized, each one issuing its own query
+ */
+public record SqlRecording(List<String> statements, long entitiesLoaded, long collectionsLoaded) {
+
+  /**
+   * Fails when the action issued more statements or loaded more entities than allowed, listing the
+   * statements issued.
+   *
+   * @param maxStatements allowed
+   * @param maxEntities allowed
+   * @return this recording
+   */
+  public SqlRecording assertAtMost(int maxStatements, int maxEntities) {
+    if (statements.size() > maxStatements || entitiesLoaded > maxEntities)
+      throw new AssertionError(
+          String.format(
+              "expected at most %s statement/s and %s entity/ies but got %s and %s:%n  %s",
+              maxStatements,
+              maxEntities,
+              statements.size(),
+              entitiesLoaded,
+              String.join(System.lineSeparator() + "  ", statements)));
+
+    return this;
+  }
+}
@@ -2,11 +2,18 @@ package com.demo.userprojectmanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class UserProjectManagementApplication {
+  /** Startup steps kept in memory and served by the actuator startup endpoint. */
+  private static final int STARTUP_STEPS_CAPACITY = 4096;
 
   public static void main(String[] args) {
-    SpringApplication.run(UserProjectManagementApplication.class, args);
+    SpringApplication application = new SpringApplication(UserProjectManagementApplication.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+    application.run(args);
   }
 }
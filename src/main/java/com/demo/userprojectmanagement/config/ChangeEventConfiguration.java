@@ -0,0 +1,35 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import com.demo.userprojectmanagement.service.events.ChangeEventListener;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Registers the {@link ChangeEventListener} with Hibernate. */
+@Configuration
+public class ChangeEventConfiguration {
+
+  @Bean
+  public ChangeEventListener changeEventListener(
+      EntityManagerFactory entityManagerFactory, ChangeEventBuffer buffer) {
+    var listener = new ChangeEventListener(buffer);
+    var registry =
+        entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+
+    registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+    registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+    registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    registry.appendListeners(EventType.PRE_COLLECTION_UPDATE, listener);
+    registry.appendListeners(EventType.PRE_COLLECTION_REMOVE, listener);
+    registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+
+    return listener;
+  }
+}
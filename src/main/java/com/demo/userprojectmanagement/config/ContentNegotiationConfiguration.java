@@ -0,0 +1,35 @@
+package com.demo.userprojectmanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations served through content negotiation besides JSON. Clients select them with
+ * the {@code Accept} header ({@code application/cbor} or {@code application/x-jackson-smile}) and
+ * may send request bodies with the same {@code Content-Type}.
+ *
+ * <p>The converters are built from the application {@link Jackson2ObjectMapperBuilder} so they
+ * share the modules and {@code spring.jackson.*} settings of the JSON converter. They replace the
+ * default Spring MVC instances in place, which keeps JSON first for {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class ContentNegotiationConfiguration {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+}
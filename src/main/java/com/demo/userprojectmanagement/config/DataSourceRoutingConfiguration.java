@@ -0,0 +1,76 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.datasource.H2ScriptReplicator;
+import com.demo.userprojectmanagement.util.datasource.ReadWriteRoutingDataSource;
+import com.demo.userprojectmanagement.util.datasource.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Splits reads and writes between two datasources when {@code app.datasource.replica.url} is set:
+ * read-only transactions use the replica, everything else uses the primary configured by {@code
+ * spring.datasource.*}. The replica is kept in sync by a {@link H2ScriptReplicator}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class DataSourceRoutingConfiguration {
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties primaryProperties, ReplicaProperties properties) {
+    var replica =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(primaryProperties.determineDriverClassName())
+            .url(properties.getUrl())
+            .username(properties.getUsername())
+            .password(properties.getPassword())
+            .build();
+    replica.setPoolName("replica");
+
+    return replica;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica,
+      MeterRegistry meterRegistry) {
+    var proxy =
+        new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primary, replica, meterRegistry));
+    proxy.setDefaultAutoCommit(true);
+    proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+    return proxy;
+  }
+
+  /** Created once Hibernate has built the schema of the primary, which is then copied. */
+  @Bean
+  @DependsOn("entityManagerFactory")
+  public H2ScriptReplicator replicator(
+      @Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica,
+      ReplicaProperties properties,
+      MeterRegistry meterRegistry) {
+    return new H2ScriptReplicator(primary, replica, properties, meterRegistry);
+  }
+}
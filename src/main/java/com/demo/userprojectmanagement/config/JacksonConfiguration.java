@@ -0,0 +1,20 @@
+package com.demo.userprojectmanagement.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson modules registered in the application object mapper and in every converter built from the
+ * shared {@code Jackson2ObjectMapperBuilder}.
+ */
+@Configuration
+public class JacksonConfiguration {
+
+  /** Replaces reflective property access with generated lambdas. */
+  @Bean
+  public Module blackbirdModule() {
+    return new BlackbirdModule();
+  }
+}
@@ -0,0 +1,47 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.datasource.PoolSizeController;
+import com.demo.userprojectmanagement.util.datasource.PoolSizer;
+import com.demo.userprojectmanagement.util.datasource.PoolSizingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resizes the Hikari pools declared as beans from their load when {@code
+ * app.datasource.pool-sizing.enabled} is set, see {@link PoolSizeController}: the pool of {@code
+ * spring.datasource.*}, or the primary and the replica with read/write routing. The pools of the
+ * shards keep their size.
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.datasource.pool-sizing",
+    name = "enabled",
+    havingValue = "true")
+public class PoolSizingConfiguration {
+  @Bean
+  public PoolSizer poolSizer(
+      Map<String, HikariDataSource> pools,
+      PoolSizingProperties properties,
+      MeterRegistry meterRegistry) {
+    if (properties.getMinSize() < 1 || properties.getMinSize() > properties.getMaxSize())
+      throw new IllegalStateException(
+          "app.datasource.pool-sizing.min-size must be between 1 and max-size");
+
+    var controllers =
+        pools.entrySet().stream()
+            .map(
+                pool -> {
+                  if (pool.getValue().getPoolName() == null)
+                    pool.getValue().setPoolName(pool.getKey());
+
+                  return new PoolSizeController(pool.getValue(), properties, meterRegistry);
+                })
+            .toList();
+
+    return new PoolSizer(controllers, properties.getInterval());
+  }
+}
@@ -0,0 +1,86 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.timing.JdbcTimingListener;
+import com.demo.userprojectmanagement.util.timing.RequestTimings;
+import com.demo.userprojectmanagement.util.timing.SerializationTimingHandler;
+import com.demo.userprojectmanagement.util.timing.ServerTimingFilter;
+import com.demo.userprojectmanagement.util.timing.ServerTimingProperties;
+import com.demo.userprojectmanagement.util.tracing.RepositoryInterceptor;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMessageConverterMethodProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Collects the {@link RequestTimings} of the requests sampled by the {@link ServerTimingFilter}:
+ * SQL statements through a Hibernate session listener and response serialization by decorating the
+ * return value handlers that write bodies, of the controllers and of the exception handlers.
+ * Repository calls are timed by the {@link RepositoryInterceptor} added in {@code
+ * TracingConfiguration}, and the end of the security filter chain is marked in {@code
+ * WebSecurityConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.server-timing", name = "enabled", matchIfMissing = true)
+public class ServerTimingConfiguration implements WebMvcConfigurer {
+
+  @Bean
+  public ServerTimingFilter serverTimingFilter(ServerTimingProperties properties) {
+    return new ServerTimingFilter(properties);
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer jdbcTimingCustomizer() {
+    return properties ->
+        properties.put(
+            AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+  }
+
+  @Bean
+  public static BeanPostProcessor serializationTimingPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof RequestMappingHandlerAdapter adapter) {
+          adapter.setReturnValueHandlers(timed(adapter.getReturnValueHandlers()));
+        }
+
+        return bean;
+      }
+    };
+  }
+
+  /** Error responses are written by the return value handlers of the exception resolver. */
+  @Override
+  public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+    for (HandlerExceptionResolver resolver : resolvers) {
+      if (resolver instanceof ExceptionHandlerExceptionResolver exceptionResolver) {
+        exceptionResolver.setReturnValueHandlers(
+            timed(exceptionResolver.getReturnValueHandlers().getHandlers()));
+      }
+    }
+  }
+
+  private static List<HandlerMethodReturnValueHandler> timed(
+      List<HandlerMethodReturnValueHandler> handlers) {
+    List<HandlerMethodReturnValueHandler> timed = new ArrayList<>(handlers.size());
+
+    for (HandlerMethodReturnValueHandler handler : handlers) {
+      timed.add(
+          handler instanceof AbstractMessageConverterMethodProcessor
+              ? new SerializationTimingHandler(handler)
+              : handler);
+    }
+
+    return timed;
+  }
+}
@@ -0,0 +1,81 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.datasource.ReplicaProperties;
+import com.demo.userprojectmanagement.util.sharding.ShardRoutingDataSource;
+import com.demo.userprojectmanagement.util.sharding.ShardSchemaInitializer;
+import com.demo.userprojectmanagement.util.sharding.ShardStrategy;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Spreads users across the datasources listed in {@code app.sharding.shards} when {@code
+ * app.sharding.enabled} is set. Projects are copied to every shard and memberships are stored with
+ * their user, see {@link com.demo.userprojectmanagement.util.sharding.ShardTemplate}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+  private final List<HikariDataSource> shards = new ArrayList<>();
+
+  public ShardingConfiguration(
+      ShardingProperties properties,
+      ReplicaProperties replicaProperties,
+      DataSourceProperties dataSourceProperties) {
+    if (properties.getShards().isEmpty())
+      throw new IllegalStateException("app.sharding.shards must list at least one datasource");
+    if (replicaProperties.getUrl() != null)
+      throw new IllegalStateException("a read replica can not be used together with sharding");
+
+    for (int i = 0; i < properties.getShards().size(); i++) {
+      var shard = properties.getShards().get(i);
+      var dataSource =
+          DataSourceBuilder.create()
+              .type(HikariDataSource.class)
+              .driverClassName(dataSourceProperties.determineDriverClassName())
+              .url(shard.getUrl())
+              .username(shard.getUsername())
+              .password(shard.getPassword())
+              .build();
+      dataSource.setPoolName("shard-" + i);
+      shards.add(dataSource);
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    shards.forEach(HikariDataSource::close);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(MeterRegistry meterRegistry) {
+    var proxy =
+        new LazyConnectionDataSourceProxy(
+            new ShardRoutingDataSource(new ArrayList<>(shards), meterRegistry));
+    proxy.setDefaultAutoCommit(true);
+    proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+    return proxy;
+  }
+
+  /** Created once Hibernate has built the schema of the first shard, which is then copied. */
+  @Bean
+  @DependsOn("entityManagerFactory")
+  public ShardSchemaInitializer shardSchemaInitializer(ShardingProperties properties) {
+    return new ShardSchemaInitializer(new ArrayList<>(shards), ShardStrategy.of(properties));
+  }
+}
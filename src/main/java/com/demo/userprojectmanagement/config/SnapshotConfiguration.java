@@ -0,0 +1,42 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.datasource.H2ScriptReplicator;
+import com.demo.userprojectmanagement.util.sharding.ShardSchemaInitializer;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.snapshot.DatabaseSnapshot;
+import com.demo.userprojectmanagement.util.snapshot.SnapshotProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Writes the database to a snapshot file and restores it at startup when {@code
+ * app.snapshot.enabled} is set, see {@link DatabaseSnapshot}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.snapshot", name = "enabled", havingValue = "true")
+public class SnapshotConfiguration {
+
+  /**
+   * Created once Hibernate has built the schema and, with sharding, once it is on every shard, so
+   * that the restore runs before the beans loading data at startup, such as the membership index.
+   */
+  @Bean
+  @DependsOn("entityManagerFactory")
+  public DatabaseSnapshot databaseSnapshot(
+      SnapshotProperties properties,
+      DataSource dataSource,
+      ShardTemplate shards,
+      ObjectProvider<ShardSchemaInitializer> shardSchemaInitializer,
+      ObjectProvider<H2ScriptReplicator> replicator,
+      MeterRegistry meterRegistry) {
+    shardSchemaInitializer.ifAvailable(initializer -> {});
+
+    return new DatabaseSnapshot(
+        properties, dataSource, shards, replicator.getIfAvailable(), meterRegistry);
+  }
+}
@@ -0,0 +1,73 @@
+package com.demo.userprojectmanagement.config;
+
+import com.demo.userprojectmanagement.util.tracing.FileSpanExporter;
+import com.demo.userprojectmanagement.util.tracing.InMemorySpanExporter;
+import com.demo.userprojectmanagement.util.tracing.InvocationObserver;
+import com.demo.userprojectmanagement.util.tracing.RepositoryInterceptor;
+import com.demo.userprojectmanagement.util.tracing.SpanEndpoint;
+import com.demo.userprojectmanagement.util.tracing.TracingAspect;
+import com.demo.userprojectmanagement.util.tracing.TracingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Local span exporters. Every {@code SpanExporter} bean receives the spans of the sampled requests,
+ * which are created by the Spring MVC instrumentation, the {@link TracingAspect} and the {@link
+ * RepositoryInterceptor}; the OTLP exporter is added by Spring Boot when {@code
+ * management.otlp.tracing.endpoint} is set.
+ */
+@Configuration
+public class TracingConfiguration {
+
+  /**
+   * Adds the {@link RepositoryInterceptor} to every repository proxy, which both traces the calls
+   * and times them for the {@code Server-Timing} header. No AspectJ proxy is added around the
+   * repositories.
+   */
+  @Bean
+  public static BeanPostProcessor repositoryInterceptorPostProcessor(
+      ObjectProvider<InvocationObserver> observer) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(
+              factory ->
+                  factory.addRepositoryProxyPostProcessor(
+                      (proxyFactory, repositoryInformation) ->
+                          proxyFactory.addAdvice(
+                              0,
+                              new RepositoryInterceptor(
+                                  repositoryInformation.getRepositoryInterface().getSimpleName(),
+                                  observer))));
+        }
+
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.tracing.memory", name = "enabled", havingValue = "true")
+  public InMemorySpanExporter inMemorySpanExporter(TracingProperties properties) {
+    return new InMemorySpanExporter(properties.getMemory().getCapacity());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.tracing.memory", name = "enabled", havingValue = "true")
+  public SpanEndpoint spanEndpoint(InMemorySpanExporter exporter) {
+    return new SpanEndpoint(exporter);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.tracing.file", name = "path")
+  public FileSpanExporter fileSpanExporter(
+      TracingProperties properties, ObjectMapper objectMapper) {
+    return new FileSpanExporter(properties.getFile().getPath(), objectMapper);
+  }
+}
@@ -0,0 +1,44 @@
+package com.demo.userprojectmanagement.controller;
+
+import com.demo.userprojectmanagement.service.events.ChangeStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@Slf4j
+@RequestMapping("/v1/events")
+public class ChangeEventController {
+  static final String LAST_EVENT_ID = "Last-Event-ID";
+  private final ChangeStream stream;
+
+  @Autowired
+  public ChangeEventController(ChangeStream changeStream) {
+    this.stream = changeStream;
+  }
+
+  /**
+   * Streams the changes of users, projects and memberships. A reconnecting client resumes after the
+   * {@code Last-Event-ID} it received, {@code offset} starts at a given event.
+   */
+  @GetMapping
+  public ResponseEntity<SseEmitter> stream(
+      @RequestParam(required = false) Long offset,
+      @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+    Long from = lastEventId != null ? Long.valueOf(lastEventId + 1) : offset;
+    var emitter = stream.subscribe(from);
+
+    log.info(
+        String.format(
+            "Change stream opened at offset=%s. Response status: %s", from, HttpStatus.OK));
+
+    return ResponseEntity.ok(emitter);
+  }
+}
@@ -1,10 +1,17 @@
 package com.demo.userprojectmanagement.controller;
 
+import static com.demo.userprojectmanagement.util.Util.convertToBulkResponse;
 import static com.demo.userprojectmanagement.util.Util.convertToResponse;
 
+import com.demo.userprojectmanagement.dto.MembershipTicketDTO;
 import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.ProjectPatchDTO;
 import com.demo.userprojectmanagement.model.Project;
 import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.index.SetOperation;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.service.writebehind.MembershipOperation;
+import java.util.Arrays;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,18 +21,24 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @Slf4j
 @RequestMapping("/v1/projects")
 public class ProjectController {
+  static final String PREFER = "Prefer";
+  static final String RESPOND_ASYNC = "respond-async";
+  static final String PREFERENCE_APPLIED = "Preference-Applied";
   private final ProjectService service;
 
   @Autowired
@@ -34,12 +47,34 @@ public class ProjectController {
   }
 
   @GetMapping
-  public ResponseEntity<?> findAll(Pageable pageable) {
-    Page<ProjectDTO> projects = service.findAll(pageable);
+  public ResponseEntity<?> findAll(
+      Pageable pageable,
+      @RequestParam(value = "totals", required = false) String totals,
+      @RequestParam(value = "fields", required = false) String fields,
+      @RequestParam(value = "expand", required = false) String expand) {
+    var option = Totals.of(totals);
+    Page<?> projects =
+        fields == null && expand == null
+            ? service.findAll(pageable, option)
+            : service.findAll(pageable, option, fields, expand);
 
     log.info(String.format("Project list found. Response status: %s", HttpStatus.OK));
 
-    return ResponseEntity.ok(convertToResponse(projects, "projects"));
+    return ResponseEntity.ok(convertToResponse(projects, "projects", option));
+  }
+
+  @GetMapping("/changes")
+  public ResponseEntity<?> findChanges(
+      @RequestParam(value = "since", required = false) String since,
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    var changes = service.findChanges(since, limit);
+
+    log.info(
+        String.format(
+            "Project changes found: %s changed, %s deleted. Response status: %s",
+            changes.getContent().size(), changes.getDeleted().size(), HttpStatus.OK));
+
+    return ResponseEntity.ok(changes);
   }
 
   @GetMapping("/{id}")
@@ -82,11 +117,25 @@ public class ProjectController {
     return ResponseEntity.ok(updatedProject);
   }
 
+  @PatchMapping
+  public ResponseEntity<?> patch(@RequestBody List<ProjectPatchDTO> patches) {
+    var results = service.patch(patches);
+
+    log.info(String.format("Bulk update of %s project/s applied", results.size()));
+
+    return convertToBulkResponse(results);
+  }
+
   @PutMapping(
       "/{projectId}/users/assign") // TODO add a single put mapping for both assign/unassign use
   // cases
   public ResponseEntity<?> assignUsersToProject(
-      @PathVariable long projectId, @RequestBody List<Long> userIds) {
+      @PathVariable long projectId,
+      @RequestBody List<Long> userIds,
+      @RequestHeader(value = PREFER, required = false) List<String> prefer) {
+    if (prefersAsync(prefer) && service.isWriteBehindEnabled())
+      return queued(service.queueMembershipChange(projectId, userIds, MembershipOperation.ASSIGN));
+
     var project = service.assignUsersToProject(projectId, userIds);
 
     log.info(
@@ -98,7 +147,13 @@ public class ProjectController {
   }
 
   @PutMapping("/{id}/users/unassign")
-  public ResponseEntity<?> unassignUsers(@PathVariable long id, @RequestBody List<Long> userIds) {
+  public ResponseEntity<?> unassignUsers(
+      @PathVariable long id,
+      @RequestBody List<Long> userIds,
+      @RequestHeader(value = PREFER, required = false) List<String> prefer) {
+    if (prefersAsync(prefer) && service.isWriteBehindEnabled())
+      return queued(service.queueMembershipChange(id, userIds, MembershipOperation.UNASSIGN));
+
     var project = service.unassignUsersFromProject(id, userIds);
 
     log.info(
@@ -109,6 +164,46 @@ public class ProjectController {
     return ResponseEntity.ok(project);
   }
 
+  @GetMapping("/membership-changes/{ticket}")
+  public ResponseEntity<?> findMembershipChange(@PathVariable String ticket) {
+    var change = service.findMembershipChange(ticket);
+
+    log.info(
+        String.format(
+            "Membership change ticket=%s is %s. Response status: %s",
+            ticket, change.getStatus(), HttpStatus.OK));
+
+    return ResponseEntity.ok(change);
+  }
+
+  @GetMapping("/members/intersection")
+  public ResponseEntity<?> findSharedMembers(
+      @RequestParam List<Long> projectIds, Pageable pageable) {
+    return members(SetOperation.INTERSECTION, projectIds, pageable);
+  }
+
+  @GetMapping("/members/union")
+  public ResponseEntity<?> findAnyMembers(@RequestParam List<Long> projectIds, Pageable pageable) {
+    return members(SetOperation.UNION, projectIds, pageable);
+  }
+
+  @GetMapping("/members/difference")
+  public ResponseEntity<?> findExclusiveMembers(
+      @RequestParam List<Long> projectIds, Pageable pageable) {
+    return members(SetOperation.DIFFERENCE, projectIds, pageable);
+  }
+
+  @GetMapping("/members/overlap")
+  public ResponseEntity<?> countMembers(@RequestParam List<Long> projectIds) {
+    var overlap = service.countMembers(projectIds);
+
+    log.info(
+        String.format(
+            "Member overlap of projects %s found. Response status: %s", projectIds, HttpStatus.OK));
+
+    return ResponseEntity.ok(overlap);
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<?> delete(@PathVariable long id) {
     service.delete(id);
@@ -117,4 +212,56 @@ public class ProjectController {
 
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  @DeleteMapping(params = "ids")
+  public ResponseEntity<?> deleteAll(@RequestParam("ids") List<Long> ids) {
+    var results = service.deleteAll(ids);
+
+    log.info(String.format("Bulk delete of %s project/s applied", results.size()));
+
+    return convertToBulkResponse(results);
+  }
+
+  private ResponseEntity<?> members(
+      SetOperation operation, List<Long> projectIds, Pageable pageable) {
+    Page<Long> userIds = service.findMembers(operation, projectIds, pageable);
+
+    log.info(
+        String.format(
+            "Member %s of projects %s found. Response status: %s",
+            operation.name().toLowerCase(), projectIds, HttpStatus.OK));
+
+    return ResponseEntity.ok(convertToResponse(userIds, "userIds"));
+  }
+
+  /**
+   * @param prefer values of the {@code Prefer} headers, each a comma separated list of preferences
+   *     with optional parameters (RFC 7240), e.g. {@code return=minimal, respond-async; wait=10}
+   * @return whether {@code respond-async} is among the preferences
+   */
+  static boolean prefersAsync(List<String> prefer) {
+    if (prefer == null) return false;
+
+    return prefer.stream()
+        .flatMap(value -> Arrays.stream(value.split(",")))
+        .map(preference -> preference.split("[;=]", 2)[0].trim())
+        .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+  }
+
+  private ResponseEntity<?> queued(MembershipTicketDTO change) {
+    var location =
+        ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/v1/projects/membership-changes/{ticket}")
+            .buildAndExpand(change.getTicket())
+            .toUri();
+
+    log.info(
+        String.format(
+            "Membership change queued: %s. Response status: %s", change, HttpStatus.ACCEPTED));
+
+    return ResponseEntity.accepted()
+        .location(location)
+        .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+        .body(change);
+  }
 }
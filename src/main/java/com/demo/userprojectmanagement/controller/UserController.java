@@ -1,12 +1,13 @@
 package com.demo.userprojectmanagement.controller;
 
+import com.demo.userprojectmanagement.dto.UserPatchDTO;
 import com.demo.userprojectmanagement.exception.ApiError;
 import com.demo.userprojectmanagement.exception.ApiExceptionHandler;
 import com.demo.userprojectmanagement.model.User;
 import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.service.totals.Totals;
 import com.demo.userprojectmanagement.util.Util;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -35,12 +37,20 @@ public class UserController {
   }
 
   @GetMapping
-  public ResponseEntity<?> findAll(Pageable pageable) {
-    Page<User> users = service.findAll(pageable);
+  public ResponseEntity<?> findAll(
+      Pageable pageable,
+      @RequestParam(value = "totals", required = false) String totals,
+      @RequestParam(value = "fields", required = false) String fields,
+      @RequestParam(value = "expand", required = false) String expand) {
+    var option = Totals.of(totals);
+    Page<?> users =
+        fields == null && expand == null
+            ? service.findAll(pageable, option)
+            : service.findAll(pageable, option, fields, expand);
 
     log.info(String.format("User list found. Response status: %s", HttpStatus.OK));
 
-    return ResponseEntity.ok(Util.convertToResponse(users, "users"));
+    return ResponseEntity.ok(Util.convertToResponse(users, "users", option));
   }
 
   @GetMapping(params = {"name", "email"})
@@ -62,20 +72,28 @@ public class UserController {
 
       return ResponseEntity.ok(user);
     } else {
-      String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern(Util.TIME_PATTERN));
-
       log.error(
           String.format("No valid params provided. Response status: %s", HttpStatus.BAD_REQUEST));
 
-      return new ApiError(
-              date,
-              HttpStatus.BAD_REQUEST.value(),
-              HttpStatus.BAD_REQUEST.name(),
-              ApiExceptionHandler.NO_PARAMS_PROVIDED_MESSAGE)
+      return ApiError.of(HttpStatus.BAD_REQUEST, ApiExceptionHandler.NO_PARAMS_PROVIDED_MESSAGE)
           .toJSON();
     }
   }
 
+  @GetMapping("/changes")
+  public ResponseEntity<?> findChanges(
+      @RequestParam(value = "since", required = false) String since,
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    var changes = service.findChanges(since, limit);
+
+    log.info(
+        String.format(
+            "User changes found: %s changed, %s deleted. Response status: %s",
+            changes.getContent().size(), changes.getDeleted().size(), HttpStatus.OK));
+
+    return ResponseEntity.ok(changes);
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<?> findById(@PathVariable long id) {
     var user = service.findById(id);
@@ -105,6 +123,15 @@ public class UserController {
     return ResponseEntity.ok(updatedUser);
   }
 
+  @PatchMapping
+  public ResponseEntity<?> patch(@RequestBody List<UserPatchDTO> patches) {
+    var results = service.patch(patches);
+
+    log.info(String.format("Bulk update of %s user/s applied", results.size()));
+
+    return Util.convertToBulkResponse(results);
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<?> delete(@PathVariable long id) {
     service.delete(id);
@@ -113,4 +140,13 @@ public class UserController {
 
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  @DeleteMapping(params = "ids")
+  public ResponseEntity<?> deleteAll(@RequestParam("ids") List<Long> ids) {
+    var results = service.deleteAll(ids);
+
+    log.info(String.format("Bulk delete of %s user/s applied", results.size()));
+
+    return Util.convertToBulkResponse(results);
+  }
 }
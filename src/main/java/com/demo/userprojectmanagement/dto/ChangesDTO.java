@@ -0,0 +1,22 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Envelope returned by the incremental sync endpoints. The changed rows are written under the given
+ * collection name followed by the {@code deleted} ids, the {@code next} sync token and {@code
+ * has-more}, true when more changes are waiting to be read with the next token.
+ *
+ * @param <T> type of the changed rows
+ */
+@Data
+@JsonSerialize(using = ChangesDTOSerializer.class)
+public class ChangesDTO<T> {
+  private final String collectionName;
+  private final List<T> content;
+  private final List<Long> deleted;
+  private final String next;
+  private final boolean hasMore;
+}
@@ -0,0 +1,31 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/** Writes a {@link ChangesDTO} with its rows under the collection name. */
+public class ChangesDTOSerializer extends StdSerializer<ChangesDTO<?>> {
+  public static final String DELETED = "deleted";
+  public static final String NEXT = "next";
+  public static final String HAS_MORE = "has-more";
+
+  @SuppressWarnings("unchecked")
+  public ChangesDTOSerializer() {
+    super((Class<ChangesDTO<?>>) (Class<?>) ChangesDTO.class);
+  }
+
+  @Override
+  public void serialize(ChangesDTO<?> changes, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+    gen.writeStartObject(changes);
+    provider.defaultSerializeField(changes.getCollectionName(), changes.getContent(), gen);
+    gen.writeArrayFieldStart(DELETED);
+    for (long id : changes.getDeleted()) gen.writeNumber(id);
+    gen.writeEndArray();
+    gen.writeStringField(NEXT, changes.getNext());
+    gen.writeBooleanField(HAS_MORE, changes.isHasMore());
+    gen.writeEndObject();
+  }
+}
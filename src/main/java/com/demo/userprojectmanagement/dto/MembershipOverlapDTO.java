@@ -0,0 +1,18 @@
+package com.demo.userprojectmanagement.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MembershipOverlapDTO {
+  /** Number of members of every project, by project id. */
+  private Map<Long, Long> members;
+
+  /** Number of users on every project. */
+  private long shared;
+
+  /** Number of users on any of the projects. */
+  private long total;
+}
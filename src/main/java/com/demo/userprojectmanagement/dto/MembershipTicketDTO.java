@@ -0,0 +1,17 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class MembershipTicketDTO {
+  private String ticket;
+  private long projectId;
+  private String operation;
+  private String status;
+  private String message;
+}
@@ -0,0 +1,37 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.List;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+/**
+ * Page envelope returned by the list endpoints. The content is written under the given collection
+ * name followed by the {@code current-page}, {@code total-items} and {@code total-pages} fields.
+ * The totals are left out when the listing was read without them.
+ *
+ * @param <T> type of the page elements
+ */
+@Data
+@JsonSerialize(using = PageDTOSerializer.class)
+public class PageDTO<T> {
+  private final String collectionName;
+  private final List<T> content;
+  private final int currentPage;
+  private final long totalItems;
+  private final int totalPages;
+  private final boolean withTotals;
+
+  public PageDTO(Page<T> page, String collectionName) {
+    this(page, collectionName, true);
+  }
+
+  public PageDTO(Page<T> page, String collectionName, boolean withTotals) {
+    this.collectionName = collectionName;
+    this.content = page.getContent();
+    this.currentPage = page.getNumber();
+    this.totalItems = page.getTotalElements();
+    this.totalPages = page.getTotalPages();
+    this.withTotals = withTotals;
+  }
+}
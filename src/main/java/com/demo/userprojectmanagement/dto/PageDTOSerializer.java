@@ -0,0 +1,52 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Writes a {@link PageDTO} straight to the generator. Elements are streamed one by one with the
+ * serializer resolved for their class, without building an intermediate map.
+ */
+public class PageDTOSerializer extends StdSerializer<PageDTO<?>> {
+  public static final String CURRENT_PAGE = "current-page";
+  public static final String TOTAL_ITEMS = "total-items";
+  public static final String TOTAL_PAGES = "total-pages";
+
+  @SuppressWarnings("unchecked")
+  public PageDTOSerializer() {
+    super((Class<PageDTO<?>>) (Class<?>) PageDTO.class);
+  }
+
+  @Override
+  public void serialize(PageDTO<?> page, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+    gen.writeStartObject(page);
+    gen.writeArrayFieldStart(page.getCollectionName());
+
+    Class<?> elementClass = null;
+    JsonSerializer<Object> elementSerializer = null;
+
+    for (Object element : page.getContent()) {
+      if (element == null) {
+        provider.defaultSerializeNull(gen);
+        continue;
+      }
+      if (element.getClass() != elementClass) {
+        elementClass = element.getClass();
+        elementSerializer = provider.findTypedValueSerializer(elementClass, true, null);
+      }
+      elementSerializer.serialize(element, gen, provider);
+    }
+
+    gen.writeEndArray();
+    gen.writeNumberField(CURRENT_PAGE, page.getCurrentPage());
+    if (page.isWithTotals()) {
+      gen.writeNumberField(TOTAL_ITEMS, page.getTotalItems());
+      gen.writeNumberField(TOTAL_PAGES, page.getTotalPages());
+    }
+    gen.writeEndObject();
+  }
+}
@@ -0,0 +1,35 @@
+package com.demo.userprojectmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+/** Outcome of one item of a bulk request. */
+@Data
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class PatchResultDTO {
+  private long id;
+  private int status;
+  private String message;
+
+  public static PatchResultDTO updated(long id) {
+    return new PatchResultDTO(id, HttpStatus.OK.value(), null);
+  }
+
+  public static PatchResultDTO deleted(long id) {
+    return new PatchResultDTO(id, HttpStatus.NO_CONTENT.value(), null);
+  }
+
+  public static PatchResultDTO failed(long id, HttpStatus status, RuntimeException cause) {
+    return new PatchResultDTO(id, status.value(), cause.getMessage());
+  }
+
+  @JsonIgnore
+  public boolean isSuccessful() {
+    return HttpStatus.valueOf(status).is2xxSuccessful();
+  }
+}
@@ -0,0 +1,15 @@
+package com.demo.userprojectmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Partial update of a project, fields left null are not changed. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectPatchDTO {
+  private long id;
+  private String name;
+  private String description;
+}
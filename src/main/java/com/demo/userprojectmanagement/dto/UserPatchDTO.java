@@ -0,0 +1,15 @@
+package com.demo.userprojectmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Partial update of a user, fields left null are not changed. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPatchDTO {
+  private long id;
+  private String name;
+  private String email;
+}
@@ -1,10 +1,23 @@
 package com.demo.userprojectmanagement.exception;
 
+import com.demo.userprojectmanagement.util.Util;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
 import java.util.Map;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 public class ApiError {
+  /** Status code and reason phrase of every status, boxed and looked up once. */
+  private static final Map<HttpStatus, Template> TEMPLATES = new EnumMap<>(HttpStatus.class);
+
+  static {
+    for (HttpStatus status : HttpStatus.values()) TEMPLATES.put(status, new Template(status));
+  }
+
   private final String timestamp;
   private final Integer status;
   private final String error;
@@ -18,8 +31,35 @@ public class ApiError {
     this.message = message;
   }
 
+  /**
+   * Creates an error of the given status, timestamped now.
+   *
+   * @param status of the response
+   * @param message describing the error
+   * @return the error
+   */
+  public static ApiError of(HttpStatus status, String message) {
+    var template = TEMPLATES.get(status);
+    return new ApiError(Util.timestamp(), template.status, template.error, message);
+  }
+
+  /**
+   * Writes the error from a servlet filter, where the exception handlers are not reached.
+   *
+   * @param response to write to
+   * @param objectMapper used to render the body
+   */
+  public void writeTo(HttpServletResponse response, ObjectMapper objectMapper) throws IOException {
+    response.setStatus(this.status);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), toJSON().getBody());
+  }
+
+  /**
+   * @return the response of the error, sent with the status of the error
+   */
   public ResponseEntity<?> toJSON() {
-    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+    return ResponseEntity.status(this.status)
         .body(
             Map.of(
                 "timestamp", this.timestamp,
@@ -27,4 +67,10 @@ public class ApiError {
                 "error", this.error,
                 "message", this.message));
   }
+
+  private record Template(Integer status, String error) {
+    private Template(HttpStatus status) {
+      this(status.value(), status.getReasonPhrase());
+    }
+  }
 }
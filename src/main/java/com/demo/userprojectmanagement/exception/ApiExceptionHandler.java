@@ -1,11 +1,9 @@
 package com.demo.userprojectmanagement.exception;
 
-import static com.demo.userprojectmanagement.util.Util.TIME_PATTERN;
-
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,151 +30,165 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
   public static final String PROJECT_UNASSIGN_USERS_NOT_FOUND_MESSAGE =
       "users id/s [%s] were not found and not unassign from the project";
 
+  public static final String BULK_REQUEST_NOT_VALID_MESSAGE =
+      "bulk requests must contain between 1 and %s items";
+
+  public static final String RATE_LIMIT_EXCEEDED_MESSAGE =
+      "too many requests, retry after %s second/s";
+  public static final String IDEMPOTENCY_KEY_REUSED_MESSAGE =
+      "idempotency key already used with a different request";
+  public static final String IDEMPOTENCY_KEY_IN_PROGRESS_MESSAGE =
+      "a request with the same idempotency key is still in progress";
+  public static final String MEMBERSHIP_QUEUE_FULL_MESSAGE =
+      "too many pending membership changes, retry later";
+  public static final String MEMBERSHIP_TICKET_NOT_FOUND_MESSAGE =
+      "membership change with ticket=%s not found";
+  public static final String CHANGE_OFFSET_NOT_AVAILABLE_MESSAGE =
+      "change offset %s is not available, resume from %s to %s";
+  public static final String CHANGE_STREAM_FULL_MESSAGE =
+      "too many change stream consumers, retry later";
+  public static final String SYNC_TOKEN_NOT_VALID_MESSAGE = "sync token %s is not valid";
+  public static final String SYNC_TOKEN_EXPIRED_MESSAGE =
+      "sync token expired, deletions since then are no longer kept, sync again without it";
+  public static final String TOTALS_NOT_VALID_MESSAGE =
+      "totals %s is not valid, use none, approx or exact";
+  public static final String FIELDS_NOT_VALID_MESSAGE = "%s=%s is not valid, use any of %s";
+
   @ExceptionHandler(UserIdNotFoundException.class)
   protected ResponseEntity<?> handleApiRequestException(UserIdNotFoundException ex) {
-    log.error(String.format("status %s. user id not found", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user id not found", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(UserNameNotFoundException.class)
   protected ResponseEntity<?> handleApiRequestException(UserNameNotFoundException ex) {
-    log.error(String.format("status %s. user name not found", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user name not found", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(UserEmailNotFoundException.class)
   protected ResponseEntity<?> handleApiRequestException(UserEmailNotFoundException ex) {
-    log.error(String.format("status %s. user email not found", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user email not found", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(UserEmailNotValidException.class)
   protected ResponseEntity<?> handleApiRequestException(UserEmailNotValidException ex) {
-    log.error(String.format("status %s. user email not valid", HttpStatus.BAD_REQUEST));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.BAD_REQUEST.value(),
-            HttpStatus.BAD_REQUEST.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user email not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(UserEmailExistsException.class)
   protected ResponseEntity<?> handleApiRequestException(UserEmailExistsException ex) {
-    log.error(String.format("status %s. user email already exists", HttpStatus.CONFLICT));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.CONFLICT.value(),
-            HttpStatus.CONFLICT.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user email already exists", HttpStatus.CONFLICT);
+    return ApiError.of(HttpStatus.CONFLICT, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(UserFieldNotValidException.class)
   protected ResponseEntity<?> handleApiRequestException(UserFieldNotValidException ex) {
-    log.error(String.format("status %s. user email already exists", HttpStatus.BAD_REQUEST));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.BAD_REQUEST.value(),
-            HttpStatus.BAD_REQUEST.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. user field not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(MethodArgumentTypeMismatchException.class)
   public ResponseEntity<?> notValidArgumentException(MethodArgumentTypeMismatchException ex) {
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.BAD_REQUEST.value(),
-            HttpStatus.BAD_REQUEST.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(ProjectNotFoundException.class)
   protected ResponseEntity<?> handleApiRequestException(ProjectNotFoundException ex) {
-    log.error(String.format("status %s. project not found", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. project not found", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(ProjectsNotLoadedException.class)
   protected ResponseEntity<?> handleApiRequestException(ProjectsNotLoadedException ex) {
-    log.error(String.format("status %s. projects not loaded", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. projects not loaded", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(ProjectNameNotValidException.class)
   protected ResponseEntity<?> handleApiRequestException(ProjectNameNotValidException ex) {
-    log.error(String.format("status %s. project name not valid", HttpStatus.BAD_REQUEST));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.BAD_REQUEST.value(),
-            HttpStatus.BAD_REQUEST.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. project name not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(ProjectAssignException.class)
   protected ResponseEntity<?> handleApiRequestException(ProjectAssignException ex) {
-    log.error(
-        String.format(
-            "status %s. User Id/s not found and can't be added to project", HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+    log.error("status {}. User Id/s not found and can't be added to project", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
   }
 
   @ExceptionHandler(ProjectUnassignException.class)
   protected ResponseEntity<?> handleApiRequestException(ProjectUnassignException ex) {
     log.error(
-        String.format(
-            "status %s. User Id/s not found and can't be unassigned from project",
-            HttpStatus.NOT_FOUND));
-    ApiError error =
-        new ApiError(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
-            HttpStatus.NOT_FOUND.value(),
-            HttpStatus.NOT_FOUND.getReasonPhrase(),
-            ex.getMessage());
-    return error.toJSON();
+        "status {}. User Id/s not found and can't be unassigned from project",
+        HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(BulkRequestNotValidException.class)
+  protected ResponseEntity<?> handleApiRequestException(BulkRequestNotValidException ex) {
+    log.error("status {}. bulk request not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(MembershipTicketNotFoundException.class)
+  protected ResponseEntity<?> handleApiRequestException(MembershipTicketNotFoundException ex) {
+    log.error("status {}. membership change not found", HttpStatus.NOT_FOUND);
+    return ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(MembershipQueueFullException.class)
+  protected ResponseEntity<?> handleApiRequestException(MembershipQueueFullException ex) {
+    log.error("status {}. membership change queue is full", HttpStatus.SERVICE_UNAVAILABLE);
+    ApiError error = ApiError.of(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error.toJSON().getBody());
+  }
+
+  /** Change stream requests accept {@code text/event-stream}, so the JSON type is set. */
+  @ExceptionHandler(ChangeOffsetNotAvailableException.class)
+  protected ResponseEntity<?> handleApiRequestException(ChangeOffsetNotAvailableException ex) {
+    log.error("status {}. change offset not available", HttpStatus.GONE);
+    ApiError error = ApiError.of(HttpStatus.GONE, ex.getMessage());
+    return ResponseEntity.status(HttpStatus.GONE)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(error.toJSON().getBody());
+  }
+
+  @ExceptionHandler(ChangeStreamFullException.class)
+  protected ResponseEntity<?> handleApiRequestException(ChangeStreamFullException ex) {
+    log.error("status {}. change stream is full", HttpStatus.SERVICE_UNAVAILABLE);
+    ApiError error = ApiError.of(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(error.toJSON().getBody());
+  }
+
+  @ExceptionHandler(SyncTokenNotValidException.class)
+  protected ResponseEntity<?> handleApiRequestException(SyncTokenNotValidException ex) {
+    log.error("status {}. sync token not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(SyncTokenExpiredException.class)
+  protected ResponseEntity<?> handleApiRequestException(SyncTokenExpiredException ex) {
+    log.error("status {}. sync token expired", HttpStatus.GONE);
+    return ApiError.of(HttpStatus.GONE, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(TotalsNotValidException.class)
+  protected ResponseEntity<?> handleApiRequestException(TotalsNotValidException ex) {
+    log.error("status {}. totals not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
+  }
+
+  @ExceptionHandler(FieldsNotValidException.class)
+  protected ResponseEntity<?> handleApiRequestException(FieldsNotValidException ex) {
+    log.error("status {}. fields not valid", HttpStatus.BAD_REQUEST);
+    return ApiError.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toJSON();
   }
 }
@@ -0,0 +1,16 @@
+package com.demo.userprojectmanagement.exception;
+
+import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.BULK_REQUEST_NOT_VALID_MESSAGE;
+
+public class BulkRequestNotValidException extends BusinessException {
+  private final int maxItems;
+
+  public BulkRequestNotValidException(int maxItems) {
+    this.maxItems = maxItems;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(BULK_REQUEST_NOT_VALID_MESSAGE, maxItems);
+  }
+}
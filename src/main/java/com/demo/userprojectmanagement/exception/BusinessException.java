@@ -0,0 +1,12 @@
+package com.demo.userprojectmanagement.exception;
+
+/**
+ * Base of the errors expected in normal operation, such as a lookup that misses or a request that
+ * is not valid. They are answered with an error response and never logged with their stack trace,
+ * so the stack trace is not captured, which makes throwing them almost as cheap as returning.
+ */
+public abstract class BusinessException extends RuntimeException {
+  protected BusinessException() {
+    super(null, null, false, false);
+  }
+}
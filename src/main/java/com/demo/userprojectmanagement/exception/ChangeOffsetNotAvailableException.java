@@ -0,0 +1,19 @@
+package com.demo.userprojectmanagement.exception;
+
+public class ChangeOffsetNotAvailableException extends BusinessException {
+  private final long offset;
+  private final long oldest;
+  private final long next;
+
+  public ChangeOffsetNotAvailableException(long offset, long oldest, long next) {
+    this.offset = offset;
+    this.oldest = oldest;
+    this.next = next;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(
+        ApiExceptionHandler.CHANGE_OFFSET_NOT_AVAILABLE_MESSAGE, offset, oldest, next);
+  }
+}
@@ -0,0 +1,10 @@
+package com.demo.userprojectmanagement.exception;
+
+public class ChangeStreamFullException extends BusinessException {
+  public ChangeStreamFullException() {}
+
+  @Override
+  public String getMessage() {
+    return ApiExceptionHandler.CHANGE_STREAM_FULL_MESSAGE;
+  }
+}
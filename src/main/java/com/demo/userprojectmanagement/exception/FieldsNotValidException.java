@@ -0,0 +1,21 @@
+package com.demo.userprojectmanagement.exception;
+
+import java.util.Collection;
+
+public class FieldsNotValidException extends BusinessException {
+  private final String parameter;
+  private final String value;
+  private final Collection<String> allowed;
+
+  public FieldsNotValidException(String parameter, String value, Collection<String> allowed) {
+    this.parameter = parameter;
+    this.value = value;
+    this.allowed = allowed;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(
+        ApiExceptionHandler.FIELDS_NOT_VALID_MESSAGE, parameter, value, String.join(",", allowed));
+  }
+}
@@ -0,0 +1,10 @@
+package com.demo.userprojectmanagement.exception;
+
+public class MembershipQueueFullException extends BusinessException {
+  public MembershipQueueFullException() {}
+
+  @Override
+  public String getMessage() {
+    return ApiExceptionHandler.MEMBERSHIP_QUEUE_FULL_MESSAGE;
+  }
+}
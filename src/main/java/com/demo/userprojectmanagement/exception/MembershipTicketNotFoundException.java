@@ -0,0 +1,14 @@
+package com.demo.userprojectmanagement.exception;
+
+public class MembershipTicketNotFoundException extends BusinessException {
+  private final String ticket;
+
+  public MembershipTicketNotFoundException(String ticket) {
+    this.ticket = ticket;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(ApiExceptionHandler.MEMBERSHIP_TICKET_NOT_FOUND_MESSAGE, ticket);
+  }
+}
@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class ProjectAssignException extends RuntimeException {
+public class ProjectAssignException extends BusinessException {
   private final String ids;
 
   public ProjectAssignException(String ids) {
@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class ProjectNameNotValidException extends RuntimeException {
+public class ProjectNameNotValidException extends BusinessException {
   public ProjectNameNotValidException() {}
 
   @Override
@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class ProjectNotFoundException extends RuntimeException {
+public class ProjectNotFoundException extends BusinessException {
   public ProjectNotFoundException() {}
 
   @Override
@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class ProjectUnassignException extends RuntimeException {
+public class ProjectUnassignException extends BusinessException {
   private final String ids;
 
   public ProjectUnassignException(String ids) {
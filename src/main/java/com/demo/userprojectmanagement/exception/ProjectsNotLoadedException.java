@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class ProjectsNotLoadedException extends RuntimeException {
+public class ProjectsNotLoadedException extends BusinessException {
   public ProjectsNotLoadedException() {}
 
   @Override
@@ -0,0 +1,8 @@
+package com.demo.userprojectmanagement.exception;
+
+public class SyncTokenExpiredException extends BusinessException {
+  @Override
+  public String getMessage() {
+    return ApiExceptionHandler.SYNC_TOKEN_EXPIRED_MESSAGE;
+  }
+}
@@ -0,0 +1,14 @@
+package com.demo.userprojectmanagement.exception;
+
+public class SyncTokenNotValidException extends BusinessException {
+  private final String token;
+
+  public SyncTokenNotValidException(String token) {
+    this.token = token;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(ApiExceptionHandler.SYNC_TOKEN_NOT_VALID_MESSAGE, token);
+  }
+}
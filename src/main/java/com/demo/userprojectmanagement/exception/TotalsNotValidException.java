@@ -0,0 +1,14 @@
+package com.demo.userprojectmanagement.exception;
+
+public class TotalsNotValidException extends BusinessException {
+  private final String totals;
+
+  public TotalsNotValidException(String totals) {
+    this.totals = totals;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format(ApiExceptionHandler.TOTALS_NOT_VALID_MESSAGE, totals);
+  }
+}
@@ -2,7 +2,7 @@ package com.demo.userprojectmanagement.exception;
 
 import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.USER_EMAIL_ALREADY_EXISTS;
 
-public class UserEmailExistsException extends RuntimeException {
+public class UserEmailExistsException extends BusinessException {
 
   public UserEmailExistsException() {}
 
@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class UserEmailNotFoundException extends RuntimeException {
+public class UserEmailNotFoundException extends BusinessException {
   private String email;
 
   public UserEmailNotFoundException(String email) {
@@ -2,7 +2,7 @@ package com.demo.userprojectmanagement.exception;
 
 import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.USER_EMAIL_NOT_VALID;
 
-public class UserEmailNotValidException extends RuntimeException {
+public class UserEmailNotValidException extends BusinessException {
 
   public UserEmailNotValidException() {}
 
@@ -2,7 +2,7 @@ package com.demo.userprojectmanagement.exception;
 
 import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.USER_FIELD_NOT_VALID_MESSAGE;
 
-public class UserFieldNotValidException extends RuntimeException {
+public class UserFieldNotValidException extends BusinessException {
   private String field;
 
   public UserFieldNotValidException(String field) {
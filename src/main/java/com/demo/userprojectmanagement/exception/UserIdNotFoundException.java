@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class UserIdNotFoundException extends RuntimeException {
+public class UserIdNotFoundException extends BusinessException {
   private long userId;
 
   public UserIdNotFoundException(long id) {
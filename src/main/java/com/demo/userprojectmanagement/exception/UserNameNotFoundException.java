@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class UserNameNotFoundException extends RuntimeException {
+public class UserNameNotFoundException extends BusinessException {
   private String userName;
 
   public UserNameNotFoundException(String name) {
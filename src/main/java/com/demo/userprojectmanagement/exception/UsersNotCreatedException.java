@@ -1,6 +1,6 @@
 package com.demo.userprojectmanagement.exception;
 
-public class UsersNotCreatedException extends RuntimeException {
+public class UsersNotCreatedException extends BusinessException {
   public UsersNotCreatedException() {}
 
   @Override
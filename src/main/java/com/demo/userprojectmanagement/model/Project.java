@@ -1,32 +1,39 @@
 package com.demo.userprojectmanagement.model;
 
-import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import java.time.Instant;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 
-@JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "projects")
+@Table(
+    name = "projects",
+    indexes = {
+      @Index(name = "projects_updated_at_idx", columnList = "updated_at, id"),
+      @Index(name = "projects_deleted_at_idx", columnList = "deleted_at")
+    })
+@Where(clause = "deleted_at IS NULL")
 public class Project {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,6 +45,20 @@ public class Project {
   @Column(name = "description")
   private String description;
 
+  /** Time of the last change of the project, read by the incremental sync. */
+  @JsonIgnore
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
+  /**
+   * Tombstone flag: time the project was deleted, {@code null} while it exists. Deleted projects
+   * are left out of every read and removed later, along with their memberships, by the {@link
+   * com.demo.userprojectmanagement.service.purge.DeletedRowPurger}.
+   */
+  @JsonIgnore
+  @Column(name = "deleted_at")
+  private Instant deletedAt;
+
   @JsonIgnoreProperties("projects")
   @JsonInclude(Include.NON_NULL)
   @ManyToMany
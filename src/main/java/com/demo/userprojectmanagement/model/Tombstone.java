@@ -0,0 +1,51 @@
+package com.demo.userprojectmanagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Record of a deleted user or project, kept so that incremental syncs learn about the deletion. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "tombstones",
+    indexes =
+        @Index(name = "tombstones_deleted_at_idx", columnList = "entity_type, deleted_at, id"))
+public class Tombstone {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "entity_type", nullable = false)
+  private EntityType entityType;
+
+  @Column(name = "entity_id", nullable = false)
+  private long entityId;
+
+  @Column(name = "deleted_at", nullable = false)
+  private Instant deletedAt;
+
+  public Tombstone(EntityType entityType, long entityId, Instant deletedAt) {
+    this.entityType = entityType;
+    this.entityId = entityId;
+    this.deletedAt = deletedAt;
+  }
+
+  public enum EntityType {
+    USER,
+    PROJECT
+  }
+}
@@ -1,28 +1,34 @@
 package com.demo.userprojectmanagement.model;
 
-import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import java.time.Instant;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 
-@JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    indexes = {
+      @Index(name = "users_updated_at_idx", columnList = "updated_at, id"),
+      @Index(name = "users_deleted_at_idx", columnList = "deleted_at")
+    })
+@Where(clause = "deleted_at IS NULL")
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,6 +40,20 @@ public class User {
   @Column(name = "email", nullable = false)
   private String email;
 
+  /** Time of the last change of the user, read by the incremental sync. */
+  @JsonIgnore
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
+  /**
+   * Tombstone flag: time the user was deleted, {@code null} while it exists. Deleted users are left
+   * out of every read and removed later, along with their memberships, by the {@link
+   * com.demo.userprojectmanagement.service.purge.DeletedRowPurger}.
+   */
+  @JsonIgnore
+  @Column(name = "deleted_at")
+  private Instant deletedAt;
+
   @JsonIgnore
   @ManyToMany(mappedBy = "users")
   private Set<Project> projects;
@@ -0,0 +1,62 @@
+package com.demo.userprojectmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.Selection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Pages of entities read as the given attributes only: the query selects their columns alone and no
+ * entity is loaded in the persistence context. Rows deleted are left out as with every entity
+ * query.
+ */
+@Repository
+public class FieldQueries {
+  private final EntityManager entityManager;
+
+  public FieldQueries(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * @param entity class of the rows
+   * @param attributes to select, which the sort of the page must be among
+   * @param pageable requested page
+   * @return a map of every row, from attribute to value in the given order
+   */
+  public List<Map<String, Object>> findPage(
+      Class<?> entity, List<String> attributes, Pageable pageable) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createTupleQuery();
+    var root = query.from(entity);
+
+    List<Selection<?>> selections =
+        attributes.stream()
+            .<Selection<?>>map(attribute -> root.get(attribute).alias(attribute))
+            .toList();
+
+    query.multiselect(selections);
+    query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+    var typed = entityManager.createQuery(query);
+    if (pageable.isPaged()) {
+      typed.setFirstResult((int) pageable.getOffset());
+      typed.setMaxResults(pageable.getPageSize());
+    }
+
+    return typed.getResultList().stream().map(tuple -> toMap(tuple, attributes)).toList();
+  }
+
+  private static Map<String, Object> toMap(Tuple tuple, List<String> attributes) {
+    Map<String, Object> row = new LinkedHashMap<>();
+
+    for (String attribute : attributes) row.put(attribute, tuple.get(attribute));
+
+    return row;
+  }
+}
@@ -1,15 +1,115 @@
 package com.demo.userprojectmanagement.repository;
 
 import com.demo.userprojectmanagement.model.Project;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
   Page<Project> findAll(Pageable pageable);
 
+  /** Content of a page of projects, without counting them. */
+  List<Project> findAllBy(Pageable pageable);
+
   Optional<Project> findByName(String name);
+
+  /** Stores a copy of a project created on another shard, keeping its id. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO projects (id, name, description, updated_at)"
+              + " VALUES (:id, :name, :description, :updatedAt)",
+      nativeQuery = true)
+  void insertCopy(
+      @Param("id") long id,
+      @Param("name") String name,
+      @Param("description") String description,
+      @Param("updatedAt") Instant updatedAt);
+
+  @Query(value = "SELECT id FROM projects WHERE deleted_at IS NULL", nativeQuery = true)
+  List<Long> findAllIds();
+
+  /**
+   * Every membership of projects and users not deleted as a (project id, user id) row, streamed
+   * within the calling transaction.
+   */
+  @Query(
+      value =
+          "SELECT m.project_id, m.user_id FROM project_by_user m"
+              + " JOIN projects p ON p.id = m.project_id JOIN users u ON u.id = m.user_id"
+              + " WHERE p.deleted_at IS NULL AND u.deleted_at IS NULL",
+      nativeQuery = true)
+  Stream<Object[]> streamMemberships();
+
+  /**
+   * Users not deleted of the given projects, as (project id, user id, name, email) rows in user
+   * order.
+   */
+  @Query(
+      value =
+          "SELECT m.project_id, u.id, u.name, u.email FROM project_by_user m"
+              + " JOIN users u ON u.id = m.user_id"
+              + " WHERE m.project_id IN :projectIds AND u.deleted_at IS NULL ORDER BY u.id",
+      nativeQuery = true)
+  List<Object[]> findUsersOfProjects(@Param("projectIds") Collection<Long> projectIds);
+
+  /** Ids among the given ones of projects not deleted. */
+  @Query(
+      value = "SELECT id FROM projects WHERE id IN :ids AND deleted_at IS NULL",
+      nativeQuery = true)
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  /** Flags the given projects as deleted, in one statement. */
+  @Modifying
+  @Query(
+      value = "UPDATE projects SET deleted_at = :at WHERE id IN :ids AND deleted_at IS NULL",
+      nativeQuery = true)
+  int markDeleted(@Param("ids") Collection<Long> ids, @Param("at") Instant at);
+
+  /** Number of deleted projects not purged yet. */
+  @Query(value = "SELECT COUNT(*) FROM projects WHERE deleted_at IS NOT NULL", nativeQuery = true)
+  long countDeleted();
+
+  /** Removes up to {@code limit} memberships of deleted projects. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM project_by_user WHERE project_id IN"
+              + " (SELECT id FROM projects WHERE deleted_at IS NOT NULL)"
+              + " FETCH FIRST :limit ROWS ONLY",
+      nativeQuery = true)
+  int purgeMembershipsOfDeleted(@Param("limit") int limit);
+
+  /** Removes up to {@code limit} deleted projects left without memberships. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM projects WHERE deleted_at IS NOT NULL AND NOT EXISTS"
+              + " (SELECT 1 FROM project_by_user WHERE project_id = projects.id)"
+              + " FETCH FIRST :limit ROWS ONLY",
+      nativeQuery = true)
+  int purgeDeleted(@Param("limit") int limit);
+
+  /** Rows updated after a position, up to a time, in update order. */
+  @Query(
+      value =
+          "SELECT * FROM projects WHERE (updated_at > :at OR (updated_at = :at AND id > :id))"
+              + " AND updated_at <= :until AND deleted_at IS NULL ORDER BY updated_at, id"
+              + " LIMIT :limit",
+      nativeQuery = true)
+  List<Project> findUpdatedSince(
+      @Param("at") Instant at,
+      @Param("id") long id,
+      @Param("until") Instant until,
+      @Param("limit") int limit);
 }
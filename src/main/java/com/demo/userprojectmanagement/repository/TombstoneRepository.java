@@ -0,0 +1,46 @@
+package com.demo.userprojectmanagement.repository;
+
+import com.demo.userprojectmanagement.model.Tombstone;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+  /** Tombstones of a type after a position, up to a time, in deletion order. */
+  @Query(
+      value =
+          "SELECT * FROM tombstones WHERE entity_type = :type"
+              + " AND (deleted_at > :at OR (deleted_at = :at AND id > :id)) AND deleted_at <= :until"
+              + " ORDER BY deleted_at, id LIMIT :limit",
+      nativeQuery = true)
+  List<Tombstone> findDeletedSince(
+      @Param("type") String type,
+      @Param("at") Instant at,
+      @Param("id") long id,
+      @Param("until") Instant until,
+      @Param("limit") int limit);
+
+  /**
+   * Records the deletion of several rows in one statement: inserts through Hibernate take one
+   * statement per tombstone, as the ids are generated by the database.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO tombstones (entity_type, entity_id, deleted_at)"
+              + " SELECT :type, entity_id, :at FROM TABLE(entity_id BIGINT = :ids)",
+      nativeQuery = true)
+  int insertAll(
+      @Param("type") String type, @Param("ids") Collection<Long> ids, @Param("at") Instant at);
+
+  @Modifying
+  @Query(value = "DELETE FROM tombstones WHERE deleted_at < :before", nativeQuery = true)
+  int deleteDeletedBefore(@Param("before") Instant before);
+}
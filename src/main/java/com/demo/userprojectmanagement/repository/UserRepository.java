@@ -1,17 +1,87 @@
 package com.demo.userprojectmanagement.repository;
 
 import com.demo.userprojectmanagement.model.User;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Page<User> findAll(Pageable pageable);
 
+  /** Content of a page of users, without counting them. */
+  List<User> findAllBy(Pageable pageable);
+
   Optional<User> findUserByEmail(String email);
 
   Optional<User> findUserByName(String name);
+
+  List<User> findAllByEmailIn(Collection<String> emails);
+
+  /**
+   * Projects not deleted of the given users, as (user id, project id, name, description) rows in
+   * project order.
+   */
+  @Query(
+      value =
+          "SELECT m.user_id, p.id, p.name, p.description FROM project_by_user m"
+              + " JOIN projects p ON p.id = m.project_id"
+              + " WHERE m.user_id IN :userIds AND p.deleted_at IS NULL ORDER BY p.id",
+      nativeQuery = true)
+  List<Object[]> findProjectsOfUsers(@Param("userIds") Collection<Long> userIds);
+
+  /** Ids among the given ones of users not deleted. */
+  @Query(value = "SELECT id FROM users WHERE id IN :ids AND deleted_at IS NULL", nativeQuery = true)
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  /** Flags the given users as deleted, in one statement. */
+  @Modifying
+  @Query(
+      value = "UPDATE users SET deleted_at = :at WHERE id IN :ids AND deleted_at IS NULL",
+      nativeQuery = true)
+  int markDeleted(@Param("ids") Collection<Long> ids, @Param("at") Instant at);
+
+  /** Number of deleted users not purged yet. */
+  @Query(value = "SELECT COUNT(*) FROM users WHERE deleted_at IS NOT NULL", nativeQuery = true)
+  long countDeleted();
+
+  /** Removes up to {@code limit} memberships of deleted users. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM project_by_user WHERE user_id IN"
+              + " (SELECT id FROM users WHERE deleted_at IS NOT NULL) FETCH FIRST :limit ROWS ONLY",
+      nativeQuery = true)
+  int purgeMembershipsOfDeleted(@Param("limit") int limit);
+
+  /** Removes up to {@code limit} deleted users left without memberships. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM users WHERE deleted_at IS NOT NULL AND NOT EXISTS"
+              + " (SELECT 1 FROM project_by_user WHERE user_id = users.id)"
+              + " FETCH FIRST :limit ROWS ONLY",
+      nativeQuery = true)
+  int purgeDeleted(@Param("limit") int limit);
+
+  /** Rows updated after a position, up to a time, in update order. */
+  @Query(
+      value =
+          "SELECT * FROM users WHERE (updated_at > :at OR (updated_at = :at AND id > :id))"
+              + " AND updated_at <= :until AND deleted_at IS NULL ORDER BY updated_at, id"
+              + " LIMIT :limit",
+      nativeQuery = true)
+  List<User> findUpdatedSince(
+      @Param("at") Instant at,
+      @Param("id") long id,
+      @Param("until") Instant until,
+      @Param("limit") int limit);
 }
@@ -1,53 +1,157 @@
 package com.demo.userprojectmanagement.service;
 
+import com.demo.userprojectmanagement.dto.ChangesDTO;
+import com.demo.userprojectmanagement.dto.MembershipOverlapDTO;
+import com.demo.userprojectmanagement.dto.MembershipTicketDTO;
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
 import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.ProjectPatchDTO;
+import com.demo.userprojectmanagement.exception.MembershipTicketNotFoundException;
 import com.demo.userprojectmanagement.exception.ProjectAssignException;
 import com.demo.userprojectmanagement.exception.ProjectNameNotValidException;
 import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
 import com.demo.userprojectmanagement.exception.ProjectUnassignException;
 import com.demo.userprojectmanagement.exception.ProjectsNotLoadedException;
 import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
 import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.FieldQueries;
 import com.demo.userprojectmanagement.repository.ProjectRepository;
 import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.changes.ChangeFeed;
+import com.demo.userprojectmanagement.service.changes.SyncToken.Position;
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import com.demo.userprojectmanagement.service.events.ChangeType;
+import com.demo.userprojectmanagement.service.fields.FieldSelection;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.index.SetOperation;
+import com.demo.userprojectmanagement.service.totals.RowCounts;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.service.writebehind.MembershipOperation;
+import com.demo.userprojectmanagement.service.writebehind.MembershipTicket;
+import com.demo.userprojectmanagement.service.writebehind.MembershipWriteBehind;
+import com.demo.userprojectmanagement.util.SingleFlight;
+import com.demo.userprojectmanagement.util.Util;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class ProjectService {
+  /** Fields of the projects that a listing can select, the id first. */
+  public static final List<String> FIELDS = List.of("id", "name", "description");
+
+  /** Associations of the projects that a listing can expand. */
+  public static final List<String> EXPANSIONS = List.of("users");
+
   private final ProjectRepository projectRepository;
+  private final FieldQueries fieldQueries;
   private final UserRepository userRepository;
-
-  public ProjectService(ProjectRepository projectRepository, UserRepository userRepository) {
+  private final SingleFlight singleFlight;
+  private final MembershipWriteBehind writeBehind;
+  private final ShardTemplate shards;
+  private final MembershipIndex membershipIndex;
+  private final ChangeFeed changeFeed;
+  private final ChangeEventBuffer changeEvents;
+  private final RowCounts rowCounts;
+  private final TransactionTemplate transactionTemplate;
+
+  public ProjectService(
+      ProjectRepository projectRepository,
+      FieldQueries fieldQueries,
+      UserRepository userRepository,
+      SingleFlight singleFlight,
+      MembershipWriteBehind writeBehind,
+      ShardTemplate shards,
+      MembershipIndex membershipIndex,
+      ChangeFeed changeFeed,
+      ChangeEventBuffer changeEvents,
+      RowCounts rowCounts,
+      PlatformTransactionManager transactionManager) {
     this.projectRepository = projectRepository;
+    this.fieldQueries = fieldQueries;
     this.userRepository = userRepository;
+    this.singleFlight = singleFlight;
+    this.writeBehind = writeBehind;
+    this.shards = shards;
+    this.membershipIndex = membershipIndex;
+    this.changeFeed = changeFeed;
+    this.changeEvents = changeEvents;
+    this.rowCounts = rowCounts;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   /**
-   * Find project according to a given id.
+   * Find project according to a given id. Concurrent lookups of the same id share one query; they
+   * get a detached copy of the project and its users, so no caller reads the entity of another
+   * request's persistence context.
    *
    * @param id of the project
    * @return project entity
    */
+  @Transactional(readOnly = true)
   public Project findById(Long id) {
-    return projectRepository.findById(id).orElseThrow(ProjectNotFoundException::new);
+    return singleFlight.execute(
+        "project.id",
+        id,
+        () ->
+            merge(
+                shards.scatter(
+                    shard ->
+                        projectRepository
+                            .findById(id)
+                            .map(ProjectService::detached)
+                            .orElse(null))));
+  }
+
+  /** Copy of the project and its users, not attached to any persistence context. */
+  private static Project detached(Project project) {
+    var copy = new Project(project.getId(), project.getName(), project.getDescription());
+    copy.setUpdatedAt(project.getUpdatedAt());
+    if (project.getUsers() != null)
+      copy.setUsers(project.getUsers().stream().map(UserService::detached).toList());
+
+    return copy;
   }
 
   /**
-   * Find project according to a name.
+   * Find project according to a name. Concurrent lookups of the same name share one query.
    *
    * @param name of the project
    * @return project entity
    */
+  @Transactional(readOnly = true)
   public ProjectDTO findByName(String name) {
-    Project project = projectRepository.findByName(name).orElseThrow(ProjectNotFoundException::new);
-
-    return new ProjectDTO(project.getId(), project.getName(), project.getDescription());
+    return singleFlight.execute(
+        "project.name",
+        name,
+        () -> {
+          Project project =
+              shards
+                  .onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.findByName(name))
+                  .orElseThrow(ProjectNotFoundException::new);
+
+          return new ProjectDTO(project.getId(), project.getName(), project.getDescription());
+        });
   }
 
   /**
@@ -55,23 +159,94 @@ public class ProjectService {
    *
    * @param pageable indicates the pagination settings. If not provided default page size is 10 and
    *     current-page is 0.
+   * @param totals how the total is computed: only {@link Totals#EXACT} counts the projects, the
+   *     others read the page alone and take the total kept by {@link RowCounts}, or none
    * @return a page with all the projects in the database according to the pagination params
    *     provided
    */
-  public Page<ProjectDTO> findAll(Pageable pageable) {
-    var projects = projectRepository.findAll(pageable);
+  @Transactional(readOnly = true)
+  public Page<ProjectDTO> findAll(Pageable pageable, Totals totals) {
+    Page<Project> projects;
+
+    if (totals == Totals.EXACT) {
+      projects =
+          shards.onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.findAll(pageable));
+      rowCounts.reset(EntityType.PROJECT, projects.getTotalElements());
+    } else {
+      var content =
+          shards.onShard(
+              ShardTemplate.REFERENCE_SHARD, () -> projectRepository.findAllBy(pageable));
+      projects = rowCounts.page(EntityType.PROJECT, totals, pageable, content, this::countProjects);
+    }
 
     if (projects.isEmpty()) throw new ProjectsNotLoadedException();
 
-    var projectDTOS =
-        projects.stream()
-            .map(p -> new ProjectDTO(p.getId(), p.getName(), p.getDescription()))
-            .collect(Collectors.toList());
+    return projects.map(p -> new ProjectDTO(p.getId(), p.getName(), p.getDescription()));
+  }
 
-    int start = (int) pageable.getOffset();
-    int end = Math.min((start + pageable.getPageSize()), projectDTOS.size());
+  /**
+   * Gets a page of projects reduced to the requested fields, which are the only columns read. The
+   * requested associations are loaded for the whole page at once: the users of its projects take
+   * one more query, per shard.
+   *
+   * @param pageable indicates the pagination settings, sorted on {@link #FIELDS} only
+   * @param totals how the total is computed, see {@link #findAll(Pageable, Totals)}
+   * @param fields comma separated among {@link #FIELDS}, {@code null} for all of them
+   * @param expand comma separated among {@link #EXPANSIONS}, {@code null} for none
+   * @return a page of projects, each a map of the fields and associations to their values
+   */
+  @Transactional(readOnly = true)
+  public Page<Map<String, Object>> findAll(
+      Pageable pageable, Totals totals, String fields, String expand) {
+    var selection = FieldSelection.of(fields, expand, pageable.getSort(), FIELDS, EXPANSIONS);
+    var rows =
+        shards
+            .onShard(
+                ShardTemplate.REFERENCE_SHARD,
+                () -> fieldQueries.findPage(Project.class, selection.attributes(), pageable))
+            .stream()
+            .map(selection::trim)
+            .toList();
+
+    if (rows.isEmpty()) throw new ProjectsNotLoadedException();
+
+    if (selection.expands("users")) expandUsers(rows);
+
+    if (totals != Totals.EXACT)
+      return rowCounts.page(EntityType.PROJECT, totals, pageable, rows, this::countProjects);
+
+    long total = countProjects();
+    rowCounts.reset(EntityType.PROJECT, total);
+
+    return new PageImpl<>(rows, pageable, total);
+  }
 
-    return new PageImpl<>(projectDTOS.subList(start, end), pageable, projectDTOS.size());
+  /** Adds the users of every project of a page, read with one query per shard. */
+  private void expandUsers(List<Map<String, Object>> rows) {
+    Map<Long, List<User>> users = new HashMap<>();
+    var ids = rows.stream().map(row -> (Long) row.get("id")).toList();
+
+    shards.scatter(shard -> projectRepository.findUsersOfProjects(ids)).stream()
+        .flatMap(List::stream)
+        .forEach(
+            row ->
+                users
+                    .computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                    .add(
+                        User.builder()
+                            .id(((Number) row[1]).longValue())
+                            .name((String) row[2])
+                            .email((String) row[3])
+                            .build()));
+
+    if (shards.isEnabled())
+      users.values().forEach(members -> members.sort(Comparator.comparingLong(User::getId)));
+
+    rows.forEach(row -> row.put("users", users.getOrDefault((Long) row.get("id"), List.of())));
+  }
+
+  private long countProjects() {
+    return shards.onShard(ShardTemplate.REFERENCE_SHARD, projectRepository::count);
   }
 
   /**
@@ -80,11 +255,30 @@ public class ProjectService {
    * @param project entity
    * @return the new created project
    */
+  @Transactional
   public Project create(Project project) {
     if (project.getName() == null || project.getName().isBlank())
       throw new ProjectNameNotValidException();
 
-    return projectRepository.save(project);
+    project.setUpdatedAt(changeFeed.now());
+
+    var saved =
+        shards.onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.save(project));
+
+    shards.onEachShard(
+        shard -> {
+          if (shard != ShardTemplate.REFERENCE_SHARD)
+            projectRepository.insertCopy(
+                saved.getId(), saved.getName(), saved.getDescription(), saved.getUpdatedAt());
+          return null;
+        });
+
+    membershipIndex.replaceMembers(
+        saved.getId(),
+        saved.getUsers() == null ? List.of() : saved.getUsers().stream().map(User::getId).toList());
+    rowCounts.created(EntityType.PROJECT, 1);
+
+    return saved;
   }
 
   /**
@@ -93,18 +287,99 @@ public class ProjectService {
    * @param project entity
    * @return the project with updated fields.
    */
+  @Transactional
   public Project update(Project project, long id) {
-    var projectOptional = projectRepository.findById(id);
+    var now = changeFeed.now();
 
-    if (projectOptional.isEmpty()) throw new ProjectNotFoundException();
+    return updateEveryCopy(
+        id,
+        (shard, updatedProject) -> {
+          if (project.getName() != null) updatedProject.setName(project.getName());
+
+          if (project.getDescription() != null)
+            updatedProject.setDescription(project.getDescription());
+
+          updatedProject.setUpdatedAt(now);
+        });
+  }
+
+  /**
+   * Applies a batch of partial updates in a single transaction. The projects are loaded with one
+   * query and the updates are flushed together as JDBC batches at commit. An item that cannot be
+   * applied is reported and does not prevent the others from being applied.
+   *
+   * @param patches partial updates, fields left null are not changed
+   * @return result of every item, in request order
+   */
+  @Transactional
+  public List<PatchResultDTO> patch(List<ProjectPatchDTO> patches) {
+    Util.validateBulkSize(patches);
+
+    var now = changeFeed.now();
+
+    return shards
+        .onEachShard(shard -> patchCopies(patches, now))
+        .get(ShardTemplate.REFERENCE_SHARD);
+  }
+
+  private List<PatchResultDTO> patchCopies(List<ProjectPatchDTO> patches, Instant now) {
+    Map<Long, Project> projects =
+        projectRepository
+            .findAllById(patches.stream().map(ProjectPatchDTO::getId).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Project::getId, Function.identity()));
+    List<PatchResultDTO> results = new ArrayList<>(patches.size());
+
+    for (ProjectPatchDTO patch : patches) {
+      var project = projects.get(patch.getId());
+
+      if (project == null) {
+        results.add(
+            PatchResultDTO.failed(
+                patch.getId(), HttpStatus.NOT_FOUND, new ProjectNotFoundException()));
+        continue;
+      }
+
+      if (patch.getName() != null && patch.getName().isBlank()) {
+        results.add(
+            PatchResultDTO.failed(
+                patch.getId(), HttpStatus.BAD_REQUEST, new ProjectNameNotValidException()));
+        continue;
+      }
 
-    var updatedProject = projectOptional.get();
+      if (patch.getName() != null) project.setName(patch.getName());
 
-    if (project.getName() != null) updatedProject.setName(project.getName());
+      if (patch.getDescription() != null) project.setDescription(patch.getDescription());
 
-    if (project.getDescription() != null) updatedProject.setDescription(project.getDescription());
+      project.setUpdatedAt(now);
 
-    return projectRepository.save(updatedProject);
+      results.add(PatchResultDTO.updated(patch.getId()));
+    }
+
+    return results;
+  }
+
+  /**
+   * Finds the projects created, updated or deleted since a previous sync. Membership changes are
+   * not included, projects are returned without their users.
+   *
+   * @param since token returned by the previous sync, {@code null} for every project
+   * @param limit number of changes, {@code null} for the default
+   * @return the changed projects, the ids of the deleted ones and the token of the next sync
+   */
+  @Transactional(readOnly = true)
+  public ChangesDTO<ProjectDTO> findChanges(String since, Integer limit) {
+    return changeFeed.read(
+        EntityType.PROJECT,
+        since,
+        limit,
+        "projects",
+        (at, afterId, until, size) ->
+            shards.onShard(
+                ShardTemplate.REFERENCE_SHARD,
+                () -> projectRepository.findUpdatedSince(at, afterId, until, size)),
+        p -> new Position(p.getUpdatedAt(), p.getId()),
+        p -> new ProjectDTO(p.getId(), p.getName(), p.getDescription()));
   }
 
   /**
@@ -114,15 +389,21 @@ public class ProjectService {
    * @param userIds list of Ids to be assigned to the project
    * @return project with assigned users
    */
+  @Transactional
   public Project assignUsersToProject(long id, List<Long> userIds) {
-    var projectOptional = projectRepository.findById(id);
+    var projectOptional =
+        shards.onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.findById(id));
 
     if (projectOptional.isEmpty()) throw new ProjectNotFoundException();
 
-    var users = userRepository.findAllById(userIds);
+    var users = findUsersToAssign(userIds);
 
-    if (userIds.size() != users.size())
-      throw new ProjectAssignException(buildNotValidUsersString(users, userIds));
+    membershipIndex.replaceMembers(id, userIds);
+
+    if (shards.isEnabled())
+      return updateEveryCopy(
+          id,
+          (shard, copy) -> copy.setUsers(userRepository.findAllById(idsOnShard(userIds, shard))));
 
     var project = projectOptional.get();
 
@@ -138,7 +419,12 @@ public class ProjectService {
    * @param userIds collection that will be unassigned from a project
    * @return project with the updated user collection
    */
+  @Transactional
   public Project unassignUsersFromProject(long id, List<Long> userIds) {
+    membershipIndex.removeMembers(id, userIds);
+
+    if (shards.isEnabled()) return unassignUsersFromEveryCopy(id, userIds);
+
     var projectOptional = projectRepository.findById(id);
     var users = userRepository.findAllById(userIds);
 
@@ -160,22 +446,221 @@ public class ProjectService {
     return projectRepository.save(project);
   }
 
+  private Project unassignUsersFromEveryCopy(long id, List<Long> userIds) {
+    var currentUsers = findById(id).getUsers();
+    var currentUsersIds = currentUsers.stream().map(User::getId).collect(Collectors.toSet());
+
+    if (!currentUsersIds.containsAll(userIds))
+      throw new ProjectUnassignException(buildNotValidUsersString(currentUsers, userIds));
+
+    return updateEveryCopy(
+        id, (shard, copy) -> copy.getUsers().removeIf(user -> userIds.contains(user.getId())));
+  }
+
+  /**
+   * Whether assign/unassign requests can be queued and written in batches.
+   *
+   * @return true when write-behind is enabled
+   */
+  public boolean isWriteBehindEnabled() {
+    return writeBehind.isEnabled();
+  }
+
   /**
-   * Deletes a project from the database.
+   * Queues the assignment or unassignment of users to a project, with the same outcome as {@link
+   * #assignUsersToProject} and {@link #unassignUsersFromProject}. The project, and the users to
+   * assign, are checked before queuing. Whether the users to unassign are members is checked when
+   * the batch is written, after the changes queued before, and reported as a failure of the ticket.
+   *
+   * @param id project id
+   * @param userIds list of Ids to be assigned or unassigned
+   * @param operation to apply
+   * @return status of the queued change
+   */
+  @Transactional
+  public MembershipTicketDTO queueMembershipChange(
+      long id, List<Long> userIds, MembershipOperation operation) {
+    if (!shards.onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.existsById(id)))
+      throw new ProjectNotFoundException();
+
+    if (operation == MembershipOperation.ASSIGN) findUsersToAssign(userIds);
+
+    return writeBehind.submit(id, operation, userIds).toDTO();
+  }
+
+  /**
+   * Finds the users to assign to a project. A user listed more than once is assigned once.
+   *
+   * @param userIds of the users
+   * @return users found
+   * @throws ProjectAssignException when some of the users are not found
+   */
+  private List<User> findUsersToAssign(List<Long> userIds) {
+    var users = shards.findAllById(userIds, userRepository::findAllById);
+
+    if (new HashSet<>(userIds).size() != users.size())
+      throw new ProjectAssignException(buildNotValidUsersString(users, userIds));
+
+    return users;
+  }
+
+  /**
+   * Finds the status of a queued membership change.
+   *
+   * @param ticket returned when the change was queued
+   * @return status of the change
+   */
+  public MembershipTicketDTO findMembershipChange(String ticket) {
+    return writeBehind
+        .findTicket(ticket)
+        .map(MembershipTicket::toDTO)
+        .orElseThrow(() -> new MembershipTicketNotFoundException(ticket));
+  }
+
+  /**
+   * Combines the members of several projects, read from the membership index.
+   *
+   * @param operation to apply, in the order of the project ids
+   * @param projectIds of the projects
+   * @param pageable page of user ids, sorted by id
+   * @return page of user ids
+   */
+  public Page<Long> findMembers(SetOperation operation, List<Long> projectIds, Pageable pageable) {
+    return membershipIndex.members(operation, projectIds, pageable);
+  }
+
+  /**
+   * Counts the members of several projects and the users they share, read from the membership
+   * index.
+   *
+   * @param projectIds of the projects
+   * @return the member counts
+   */
+  public MembershipOverlapDTO countMembers(List<Long> projectIds) {
+    return membershipIndex.overlap(projectIds);
+  }
+
+  /**
+   * Deletes a project from the database. Every copy is only flagged as deleted, which hides it from
+   * every read; the rows and their memberships are removed later by the purger.
    *
    * @param id of the project
    */
   @Transactional
   public void delete(long id) {
-    var projectOptional = projectRepository.findById(id);
+    var now = changeFeed.now();
 
-    if (projectOptional.isEmpty()) throw new ProjectNotFoundException();
+    shards.onEachShard(
+        shard -> {
+          var project = projectRepository.findById(id).orElseThrow(ProjectNotFoundException::new);
 
-    var project = projectOptional.get();
+          project.setDeletedAt(now);
+          return null;
+        });
 
-    project.getUsers().clear();
+    changeFeed.recordDeletion(EntityType.PROJECT, id);
+    membershipIndex.removeProject(id);
+    rowCounts.deleted(EntityType.PROJECT, 1);
+  }
+
+  /**
+   * Deletes the projects of the given ids, in one transaction per {@link Util#DELETE_CHUNK_SIZE}
+   * ids. As with {@link #delete(long)}, every copy is only flagged as deleted: each chunk takes one
+   * query for the ids found and one update per shard, whatever the members of the projects.
+   *
+   * @param ids of the projects, up to {@link Util#MAX_BULK_ITEMS}
+   * @return result of every id, in request order
+   */
+  public List<PatchResultDTO> deleteAll(List<Long> ids) {
+    Util.validateBulkSize(ids);
+
+    Set<Long> deleted = new HashSet<>();
+
+    for (var chunk : Util.chunks(ids.stream().distinct().toList(), Util.DELETE_CHUNK_SIZE)) {
+      var found = transactionTemplate.execute(status -> deleteChunk(chunk));
+
+      for (long id : found) {
+        membershipIndex.removeProject(id);
+        changeEvents.publish(ChangeType.PROJECT_DELETED, id, List.of(), List.of());
+      }
+      rowCounts.deleted(EntityType.PROJECT, found.size());
+      deleted.addAll(found);
+    }
+
+    return ids.stream()
+        .map(
+            id ->
+                deleted.contains(id)
+                    ? PatchResultDTO.deleted(id)
+                    : PatchResultDTO.failed(
+                        id, HttpStatus.NOT_FOUND, new ProjectNotFoundException()))
+        .toList();
+  }
+
+  /**
+   * @return ids of the chunk that were deleted
+   */
+  private List<Long> deleteChunk(List<Long> ids) {
+    var found =
+        shards.onShard(ShardTemplate.REFERENCE_SHARD, () -> projectRepository.findExistingIds(ids));
+
+    if (!found.isEmpty()) {
+      var now = changeFeed.now();
+
+      shards.onEachShard(shard -> projectRepository.markDeleted(found, now));
+      changeFeed.recordDeletions(EntityType.PROJECT, found);
+    }
+
+    return found;
+  }
+
+  /**
+   * Applies a change to the copy of the project stored on every shard.
+   *
+   * @param id of the project
+   * @param change receiving the shard index and the copy
+   * @return the changed project, with the users of every shard
+   */
+  private Project updateEveryCopy(long id, BiConsumer<Integer, Project> change) {
+    return merge(
+        shards.onEachShard(
+            shard -> {
+              var copy = projectRepository.findById(id).orElseThrow(ProjectNotFoundException::new);
+
+              change.accept(shard, copy);
+
+              var saved = projectRepository.save(copy);
+              Hibernate.initialize(saved.getUsers());
+              return saved;
+            }));
+  }
+
+  /**
+   * Merges the copies of a project read from every shard. Memberships are stored with the user, so
+   * each copy holds the users of its own shard.
+   *
+   * @param copies of the project, indexed by shard
+   * @return the project with the users of every shard
+   */
+  private Project merge(List<Project> copies) {
+    var reference = copies.get(ShardTemplate.REFERENCE_SHARD);
+
+    if (reference == null) throw new ProjectNotFoundException();
+
+    if (copies.size() == 1) return reference;
+
+    var project = new Project(reference.getId(), reference.getName(), reference.getDescription());
+    project.setUsers(
+        copies.stream()
+            .filter(Objects::nonNull)
+            .flatMap(copy -> copy.getUsers().stream())
+            .collect(Collectors.toList()));
+
+    return project;
+  }
 
-    projectRepository.deleteById(id);
+  private List<Long> idsOnShard(List<Long> userIds, int shard) {
+    return userIds.stream().filter(userId -> shards.shardOf(userId) == shard).toList();
   }
 
   /**
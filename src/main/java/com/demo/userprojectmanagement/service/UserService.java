@@ -1,7 +1,10 @@
 package com.demo.userprojectmanagement.service;
 
+import com.demo.userprojectmanagement.dto.ChangesDTO;
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
 import com.demo.userprojectmanagement.dto.ProjectDTO;
 import com.demo.userprojectmanagement.dto.UserDTO;
+import com.demo.userprojectmanagement.dto.UserPatchDTO;
 import com.demo.userprojectmanagement.exception.UserEmailExistsException;
 import com.demo.userprojectmanagement.exception.UserEmailNotFoundException;
 import com.demo.userprojectmanagement.exception.UserEmailNotValidException;
@@ -9,47 +12,118 @@ import com.demo.userprojectmanagement.exception.UserFieldNotValidException;
 import com.demo.userprojectmanagement.exception.UserIdNotFoundException;
 import com.demo.userprojectmanagement.exception.UserNameNotFoundException;
 import com.demo.userprojectmanagement.exception.UsersNotCreatedException;
-import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
 import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.FieldQueries;
 import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.changes.ChangeFeed;
+import com.demo.userprojectmanagement.service.changes.SyncToken.Position;
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import com.demo.userprojectmanagement.service.events.ChangeType;
+import com.demo.userprojectmanagement.service.fields.FieldSelection;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.totals.RowCounts;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.util.SingleFlight;
+import com.demo.userprojectmanagement.util.Util;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class UserService {
   private static final String EMAIL_REGEX = "^[\\w.-]+@[a-zA-Z_-]+?(?:\\.[a-zA-Z]{2,6})+$";
+
+  /** Fields of the users that a listing can select, the id first. */
+  public static final List<String> FIELDS = List.of("id", "name", "email");
+
+  /** Associations of the users that a listing can expand. */
+  public static final List<String> EXPANSIONS = List.of("projects");
+
   private final UserRepository repository;
+  private final FieldQueries fieldQueries;
+  private final SingleFlight singleFlight;
+  private final ShardTemplate shards;
+  private final MembershipIndex membershipIndex;
+  private final ChangeFeed changeFeed;
+  private final ChangeEventBuffer changeEvents;
+  private final RowCounts rowCounts;
+  private final TransactionTemplate transactionTemplate;
 
   @Autowired
-  public UserService(UserRepository userRepository) {
+  public UserService(
+      UserRepository userRepository,
+      FieldQueries fieldQueries,
+      SingleFlight singleFlight,
+      ShardTemplate shards,
+      MembershipIndex membershipIndex,
+      ChangeFeed changeFeed,
+      ChangeEventBuffer changeEvents,
+      RowCounts rowCounts,
+      PlatformTransactionManager transactionManager) {
     repository = userRepository;
+    this.fieldQueries = fieldQueries;
+    this.singleFlight = singleFlight;
+    this.shards = shards;
+    this.membershipIndex = membershipIndex;
+    this.changeFeed = changeFeed;
+    this.changeEvents = changeEvents;
+    this.rowCounts = rowCounts;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   /**
-   * Finds user according to a given name.
+   * Finds user according to a given name. Concurrent lookups of the same name share one query and
+   * get a detached copy of the user.
    *
    * @param name string
    * @return user entity
    */
+  @Transactional(readOnly = true)
   public User findByName(String name) {
-    return repository.findUserByName(name).orElseThrow(() -> new UserNameNotFoundException(name));
+    return singleFlight.execute(
+        "user.name",
+        name,
+        () ->
+            shards
+                .findFirst(() -> repository.findUserByName(name).map(UserService::detached))
+                .orElseThrow(() -> new UserNameNotFoundException(name)));
   }
 
   /**
-   * Finds user according to a given id.
+   * Finds user according to a given id. Concurrent lookups of the same id share one query.
    *
    * @param id of user
    * @return user DTO entity with the assigned projects if any
    */
+  @Transactional(readOnly = true)
   public UserDTO findById(long id) {
+    return singleFlight.execute(
+        "user.id", id, () -> shards.onShard(shards.shardOf(id), () -> loadById(id)));
+  }
+
+  private UserDTO loadById(long id) {
     var user = repository.findById(id).orElseThrow(() -> new UserIdNotFoundException(id));
     Set<ProjectDTO> projectsDTO;
 
@@ -65,18 +139,34 @@ public class UserService {
     return new UserDTO(user.getId(), user.getName(), user.getEmail(), projectsDTO);
   }
 
+  /** Copy of the user, without its projects, not attached to any persistence context. */
+  static User detached(User user) {
+    return User.builder()
+        .id(user.getId())
+        .name(user.getName())
+        .email(user.getEmail())
+        .updatedAt(user.getUpdatedAt())
+        .build();
+  }
+
   /**
-   * Finds user according to a given email.
+   * Finds user according to a given email. Concurrent lookups of the same email share one query and
+   * get a detached copy of the user.
    *
    * @param email string
    * @return user entity
    */
+  @Transactional(readOnly = true)
   public User findByEmail(String email) {
     if (!isValidEmail(email)) throw new UserEmailNotValidException();
 
-    return repository
-        .findUserByEmail(email)
-        .orElseThrow(() -> new UserEmailNotFoundException(email));
+    return singleFlight.execute(
+        "user.email",
+        email,
+        () ->
+            shards
+                .findFirst(() -> repository.findUserByEmail(email).map(UserService::detached))
+                .orElseThrow(() -> new UserEmailNotFoundException(email)));
   }
 
   /**
@@ -84,10 +174,22 @@ public class UserService {
    *
    * @param pageable indicates the pagination settings. If not provided default page size is 10 and
    *     current-page is 0.
+   * @param totals how the total is computed: only {@link Totals#EXACT} counts the users, the others
+   *     read the page alone and take the total kept by {@link RowCounts}, or none
    * @return a page with all the users in the records according to the pagination configurations
    */
-  public Page<User> findAll(Pageable pageable) {
-    var users = repository.findAll(pageable);
+  @Transactional(readOnly = true)
+  public Page<User> findAll(Pageable pageable, Totals totals) {
+    Page<User> users;
+
+    if (totals == Totals.EXACT) {
+      users = shards.findAll(pageable, repository::findAll);
+      rowCounts.reset(EntityType.USER, users.getTotalElements());
+    } else {
+      var content =
+          shards.findAll(pageable, page -> new PageImpl<>(repository.findAllBy(page))).getContent();
+      users = rowCounts.page(EntityType.USER, totals, pageable, content, this::countUsers);
+    }
 
     if (!users.isEmpty()) {
       return users;
@@ -96,12 +198,92 @@ public class UserService {
     }
   }
 
+  /**
+   * Gets a page of users reduced to the requested fields, which are the only columns read. The
+   * requested associations are loaded for the whole page at once: the projects of its users take
+   * one more query, per shard.
+   *
+   * @param pageable indicates the pagination settings, sorted on {@link #FIELDS} only
+   * @param totals how the total is computed, see {@link #findAll(Pageable, Totals)}
+   * @param fields comma separated among {@link #FIELDS}, {@code null} for all of them
+   * @param expand comma separated among {@link #EXPANSIONS}, {@code null} for none
+   * @return a page of users, each a map of the fields and associations to their values
+   */
+  @Transactional(readOnly = true)
+  public Page<Map<String, Object>> findAll(
+      Pageable pageable, Totals totals, String fields, String expand) {
+    var selection = FieldSelection.of(fields, expand, pageable.getSort(), FIELDS, EXPANSIONS);
+    var rows =
+        shards
+            .findAll(
+                pageable,
+                page ->
+                    new PageImpl<>(fieldQueries.findPage(User.class, selection.attributes(), page)))
+            .getContent()
+            .stream()
+            .map(selection::trim)
+            .toList();
+
+    if (rows.isEmpty()) throw new UsersNotCreatedException();
+
+    if (selection.expands("projects")) expandProjects(rows);
+
+    if (totals != Totals.EXACT)
+      return rowCounts.page(EntityType.USER, totals, pageable, rows, this::countUsers);
+
+    long total = countUsers();
+    rowCounts.reset(EntityType.USER, total);
+
+    return new PageImpl<>(rows, pageable, total);
+  }
+
+  /** Adds the projects of every user of a page, read with one query per shard. */
+  private void expandProjects(List<Map<String, Object>> rows) {
+    Map<Long, List<ProjectDTO>> projects = new HashMap<>();
+    var ids = rows.stream().map(row -> (Long) row.get("id")).toList();
+
+    for (Object[] row : shards.findAllById(ids, repository::findProjectsOfUsers))
+      projects
+          .computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+          .add(new ProjectDTO(((Number) row[1]).longValue(), (String) row[2], (String) row[3]));
+
+    rows.forEach(
+        row -> row.put("projects", projects.getOrDefault((Long) row.get("id"), List.of())));
+  }
+
+  private long countUsers() {
+    return shards.scatter(shard -> repository.count()).stream().mapToLong(Long::longValue).sum();
+  }
+
+  /**
+   * Finds the users created, updated or deleted since a previous sync, read from every shard.
+   *
+   * @param since token returned by the previous sync, {@code null} for every user
+   * @param limit number of changes, {@code null} for the default
+   * @return the changed users, the ids of the deleted ones and the token of the next sync
+   */
+  @Transactional(readOnly = true)
+  public ChangesDTO<User> findChanges(String since, Integer limit) {
+    return changeFeed.read(
+        EntityType.USER,
+        since,
+        limit,
+        "users",
+        (at, afterId, until, size) ->
+            shards.scatter(shard -> repository.findUpdatedSince(at, afterId, until, size)).stream()
+                .flatMap(List::stream)
+                .toList(),
+        user -> new Position(user.getUpdatedAt(), user.getId()),
+        Function.identity());
+  }
+
   /**
    * Creates and persists new user entity in the users table.
    *
    * @param user with no id
    * @return the created user
    */
+  @Transactional
   public User create(User user) {
     if (!isValidEmail(user.getEmail())) throw new UserEmailNotValidException();
 
@@ -110,7 +292,12 @@ public class UserService {
     if (user.getName() == null || user.getName().isBlank())
       throw new UserFieldNotValidException("name");
 
-    return repository.save(user);
+    user.setUpdatedAt(changeFeed.now());
+
+    var saved = shards.onShard(shards.shardForNewRow(), () -> repository.save(user));
+    rowCounts.created(EntityType.USER, 1);
+
+    return saved;
   }
 
   /**
@@ -119,45 +306,214 @@ public class UserService {
    * @param user entity
    * @return the existing user with the updated fields
    */
+  @Transactional
   public User update(User user) {
-    var userOptional = repository.findById(user.getId());
+    return shards.onShard(
+        shards.shardOf(user.getId()),
+        () -> {
+          var userOptional = repository.findById(user.getId());
 
-    if (userOptional.isEmpty()) throw new UserIdNotFoundException(user.getId());
-    if (user.getEmail() == null || !isValidEmail(user.getEmail()))
-      throw new UserEmailNotValidException();
-    if (user.getName() == null || user.getName().isBlank())
-      throw new UserFieldNotValidException("name");
+          if (userOptional.isEmpty()) throw new UserIdNotFoundException(user.getId());
+          if (user.getEmail() == null || !isValidEmail(user.getEmail()))
+            throw new UserEmailNotValidException();
+          if (user.getName() == null || user.getName().isBlank())
+            throw new UserFieldNotValidException("name");
 
-    var updatedUser = userOptional.get();
-    updatedUser.setEmail(user.getEmail());
-    updatedUser.setName(user.getName());
-    updatedUser.setProjects(user.getProjects());
+          var updatedUser = userOptional.get();
+          updatedUser.setEmail(user.getEmail());
+          updatedUser.setName(user.getName());
+          updatedUser.setProjects(user.getProjects());
+          updatedUser.setUpdatedAt(changeFeed.now());
 
-    return repository.save(updatedUser);
+          return repository.save(updatedUser);
+        });
   }
 
   /**
-   * Deletes an existing user from the records.
+   * Applies a batch of partial updates in a single transaction. The users and the owners of the new
+   * emails are loaded with one query each and the updates are flushed together as JDBC batches at
+   * commit. An item that cannot be applied is reported and does not prevent the others from being
+   * applied. When users are sharded, the items of each shard are applied in their own transaction.
    *
-   * @param id of user
+   * @param patches partial updates, fields left null are not changed
+   * @return result of every item, in request order
    */
   @Transactional
-  public void delete(long id) {
-    var userOptional = repository.findById(id);
+  public List<PatchResultDTO> patch(List<UserPatchDTO> patches) {
+    Util.validateBulkSize(patches);
 
-    if (userOptional.isEmpty()) throw new UserIdNotFoundException(id);
+    Set<String> emails =
+        patches.stream()
+            .map(UserPatchDTO::getEmail)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    Map<String, Long> emailOwners =
+        emails.isEmpty()
+            ? new HashMap<>()
+            : shards.scatter(shard -> repository.findAllByEmailIn(emails)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(User::getEmail, User::getId, (first, second) -> first));
+    PatchResultDTO[] results = new PatchResultDTO[patches.size()];
+    Map<Integer, List<Integer>> positionsByShard =
+        IntStream.range(0, patches.size())
+            .boxed()
+            .collect(
+                Collectors.groupingBy(
+                    position -> shards.shardOf(patches.get(position).getId()),
+                    TreeMap::new,
+                    Collectors.toList()));
 
-    var user = userOptional.get();
+    positionsByShard.forEach(
+        (shard, positions) ->
+            shards.onShard(
+                shard,
+                () -> {
+                  patchOnShard(patches, positions, emailOwners, results);
+                  return null;
+                }));
 
-    if (user.getProjects().size() > 0) {
-      for (Project p : user.getProjects()) {
-        p.getUsers().remove(user);
+    return Arrays.asList(results);
+  }
+
+  private void patchOnShard(
+      List<UserPatchDTO> patches,
+      List<Integer> positions,
+      Map<String, Long> emailOwners,
+      PatchResultDTO[] results) {
+    Map<Long, User> users =
+        repository
+            .findAllById(
+                positions.stream()
+                    .map(position -> patches.get(position).getId())
+                    .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    for (int position : positions) {
+      var patch = patches.get(position);
+      long id = patch.getId();
+      var user = users.get(id);
+
+      if (user == null) {
+        results[position] =
+            PatchResultDTO.failed(id, HttpStatus.NOT_FOUND, new UserIdNotFoundException(id));
+        continue;
+      }
+
+      if (patch.getName() != null && patch.getName().isBlank()) {
+        results[position] =
+            PatchResultDTO.failed(
+                id, HttpStatus.BAD_REQUEST, new UserFieldNotValidException("name"));
+        continue;
+      }
+
+      if (patch.getEmail() != null) {
+        if (!isValidEmail(patch.getEmail())) {
+          results[position] =
+              PatchResultDTO.failed(id, HttpStatus.BAD_REQUEST, new UserEmailNotValidException());
+          continue;
+        }
+
+        var owner = emailOwners.get(patch.getEmail());
+
+        if (owner != null && owner != id) {
+          results[position] =
+              PatchResultDTO.failed(id, HttpStatus.CONFLICT, new UserEmailExistsException());
+          continue;
+        }
+
+        emailOwners.remove(user.getEmail(), id);
+        emailOwners.put(patch.getEmail(), id);
+        user.setEmail(patch.getEmail());
       }
+
+      if (patch.getName() != null) user.setName(patch.getName());
+
+      user.setUpdatedAt(changeFeed.now());
+
+      results[position] = PatchResultDTO.updated(id);
     }
+  }
 
-    user.getProjects().clear();
+  /**
+   * Deletes an existing user from the records. The user is only flagged as deleted, which hides it
+   * from every read; the row and its memberships are removed later by the purger.
+   *
+   * @param id of user
+   */
+  @Transactional
+  public void delete(long id) {
+    var now = changeFeed.now();
+
+    shards.onShard(
+        shards.shardOf(id),
+        () -> {
+          var user = repository.findById(id).orElseThrow(() -> new UserIdNotFoundException(id));
+
+          user.setDeletedAt(now);
+          return null;
+        });
+
+    changeFeed.recordDeletion(EntityType.USER, id);
+    membershipIndex.removeUser(id);
+    rowCounts.deleted(EntityType.USER, 1);
+  }
+
+  /**
+   * Deletes the users of the given ids, in one transaction per {@link Util#DELETE_CHUNK_SIZE} ids
+   * of a shard. As with {@link #delete(long)}, users are only flagged as deleted: each chunk takes
+   * one query for the ids found and one update, whatever their memberships.
+   *
+   * @param ids of the users, up to {@link Util#MAX_BULK_ITEMS}
+   * @return result of every id, in request order
+   */
+  public List<PatchResultDTO> deleteAll(List<Long> ids) {
+    Util.validateBulkSize(ids);
+
+    Set<Long> deleted = new HashSet<>();
+    Map<Integer, List<Long>> idsByShard =
+        ids.stream()
+            .distinct()
+            .collect(Collectors.groupingBy(shards::shardOf, TreeMap::new, Collectors.toList()));
+
+    idsByShard.forEach(
+        (shard, shardIds) -> {
+          for (var chunk : Util.chunks(shardIds, Util.DELETE_CHUNK_SIZE)) {
+            var found =
+                transactionTemplate.execute(
+                    status -> shards.onShard(shard, () -> deleteChunk(chunk)));
+
+            for (long id : found) {
+              membershipIndex.removeUser(id);
+              changeEvents.publish(ChangeType.USER_DELETED, id, List.of(), List.of());
+            }
+            rowCounts.deleted(EntityType.USER, found.size());
+            deleted.addAll(found);
+          }
+        });
+
+    return ids.stream()
+        .map(
+            id ->
+                deleted.contains(id)
+                    ? PatchResultDTO.deleted(id)
+                    : PatchResultDTO.failed(
+                        id, HttpStatus.NOT_FOUND, new UserIdNotFoundException(id)))
+        .toList();
+  }
+
+  /**
+   * @return ids of the chunk that were deleted
+   */
+  private List<Long> deleteChunk(List<Long> ids) {
+    var found = repository.findExistingIds(ids);
+
+    if (!found.isEmpty()) {
+      repository.markDeleted(found, changeFeed.now());
+      changeFeed.recordDeletions(EntityType.USER, found);
+    }
 
-    repository.deleteById(id);
+    return found;
   }
 
   /**
@@ -177,7 +533,7 @@ public class UserService {
    * @return true if the given email exists in the database
    */
   private boolean userExists(String email) {
-    Optional<User> u = repository.findUserByEmail(email);
+    Optional<User> u = shards.findFirst(() -> repository.findUserByEmail(email));
     return u.isPresent();
   }
 }
@@ -0,0 +1,260 @@
+package com.demo.userprojectmanagement.service.changes;
+
+import com.demo.userprojectmanagement.dto.ChangesDTO;
+import com.demo.userprojectmanagement.exception.SyncTokenExpiredException;
+import com.demo.userprojectmanagement.model.Tombstone;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
+import com.demo.userprojectmanagement.repository.TombstoneRepository;
+import com.demo.userprojectmanagement.service.changes.SyncToken.Position;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads the users or projects changed since a {@link SyncToken}. Rows are read in {@code
+ * (updated_at, id)} order from the position of the token, so each sync is a range scan of the
+ * {@code updated_at} index; deletions are read the same way from the tombstones.
+ *
+ * <p>Changes are only read up to {@code app.changes.settle-time} ago: a transaction stamps its rows
+ * before it commits, and rows stamped later could otherwise be committed, and seen, first.
+ * Tombstones are kept for {@code app.changes.tombstone-retention} and are stored on the reference
+ * shard.
+ *
+ * <p>Exposes the {@code changes.tombstones.purged} count.
+ */
+@Slf4j
+@Component
+public class ChangeFeed {
+  private final ChangeFeedProperties properties;
+  private final TombstoneRepository tombstoneRepository;
+  private final ShardTemplate shards;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final Counter purged;
+  private ScheduledExecutorService purger;
+
+  @Autowired
+  public ChangeFeed(
+      ChangeFeedProperties properties,
+      TombstoneRepository tombstoneRepository,
+      ShardTemplate shards,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this(
+        properties,
+        tombstoneRepository,
+        shards,
+        transactionManager,
+        meterRegistry,
+        Clock.systemUTC());
+  }
+
+  ChangeFeed(
+      ChangeFeedProperties properties,
+      TombstoneRepository tombstoneRepository,
+      ShardTemplate shards,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.properties = properties;
+    this.tombstoneRepository = tombstoneRepository;
+    this.shards = shards;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.purged =
+        Counter.builder("changes.tombstones.purged")
+            .description("Tombstones deleted once older than the retention")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.getPurgeInterval().toNanos();
+    purger =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "tombstone-purge");
+              thread.setDaemon(true);
+              return thread;
+            });
+    purger.scheduleWithFixedDelay(this::purgeQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (purger != null) purger.shutdownNow();
+  }
+
+  /**
+   * @return the current time, with the precision of the {@code updated_at} columns
+   */
+  public Instant now() {
+    return clock.instant().truncatedTo(ChronoUnit.MICROS);
+  }
+
+  /**
+   * Records the deletion of a row, within the calling transaction.
+   *
+   * @param type of the row
+   * @param id of the row
+   */
+  public void recordDeletion(EntityType type, long id) {
+    shards.onShard(
+        ShardTemplate.REFERENCE_SHARD,
+        () -> tombstoneRepository.save(new Tombstone(type, id, now())));
+  }
+
+  /**
+   * Records the deletion of several rows at once, within the calling transaction.
+   *
+   * @param type of the rows
+   * @param ids of the rows
+   */
+  public void recordDeletions(EntityType type, Collection<Long> ids) {
+    shards.onShard(
+        ShardTemplate.REFERENCE_SHARD,
+        () -> tombstoneRepository.insertAll(type.name(), ids, now()));
+  }
+
+  /**
+   * Reads the changes since a token, within the calling transaction. At most {@code limit} changed
+   * rows and {@code limit} deletions are returned; {@code has-more} tells whether more are waiting.
+   *
+   * @param type of the rows
+   * @param since token of the previous sync, {@code null} for every row and no deletion
+   * @param limit number of changes, {@code null} for {@code app.changes.default-limit}
+   * @param collectionName under which the rows are returned
+   * @param rows query of the rows changed after a position, in any order
+   * @param position of a row
+   * @param mapper from a row to its representation
+   * @return the changes and the token of the next sync
+   * @throws com.demo.userprojectmanagement.exception.SyncTokenNotValidException when the token is
+   *     not valid
+   * @throws SyncTokenExpiredException when deletions since the token are no longer kept
+   */
+  public <E, T> ChangesDTO<T> read(
+      EntityType type,
+      String since,
+      Integer limit,
+      String collectionName,
+      ChangedRows<E> rows,
+      Function<E, Position> position,
+      Function<E, T> mapper) {
+    var now = now();
+    var until = now.minus(properties.getSettleTime());
+    int size =
+        limit == null
+            ? properties.getDefaultLimit()
+            : Math.max(1, Math.min(limit, properties.getMaxLimit()));
+
+    var token =
+        since == null
+            ? new SyncToken(Position.START, Position.after(until))
+            : SyncToken.parse(since);
+
+    if (token.deleted().at().isBefore(now.minus(properties.getTombstoneRetention())))
+      throw new SyncTokenExpiredException();
+
+    var changed =
+        rows.find(token.rows().at(), token.rows().id(), until, size).stream()
+            .sorted(Comparator.comparing(position))
+            .limit(size)
+            .toList();
+    var tombstones =
+        shards.onShard(
+            ShardTemplate.REFERENCE_SHARD,
+            () ->
+                tombstoneRepository.findDeletedSince(
+                    type.name(), token.deleted().at(), token.deleted().id(), until, size));
+
+    boolean moreRows = changed.size() == size;
+    boolean moreDeleted = tombstones.size() == size;
+
+    var next =
+        new SyncToken(
+            moreRows
+                ? position.apply(changed.get(changed.size() - 1))
+                : advance(token.rows(), until),
+            moreDeleted
+                ? tombstonePosition(tombstones.get(tombstones.size() - 1))
+                : advance(token.deleted(), until));
+
+    return new ChangesDTO<>(
+        collectionName,
+        changed.stream().map(mapper).toList(),
+        tombstones.stream().map(Tombstone::getEntityId).toList(),
+        next.encode(),
+        moreRows || moreDeleted);
+  }
+
+  /**
+   * Deletes the tombstones older than the retention.
+   *
+   * @return number of tombstones deleted
+   */
+  public int purge() {
+    var before = now().minus(properties.getTombstoneRetention());
+    int count =
+        transactionTemplate.execute(
+            status ->
+                shards.onShard(
+                    ShardTemplate.REFERENCE_SHARD,
+                    () -> tombstoneRepository.deleteDeletedBefore(before)));
+
+    purged.increment(count);
+    return count;
+  }
+
+  private void purgeQuietly() {
+    try {
+      int count = purge();
+      if (count > 0) log.debug("Purged {} tombstones", count);
+    } catch (RuntimeException e) {
+      log.warn("Tombstone purge failed", e);
+    }
+  }
+
+  /** Everything up to {@code until} was read, unless the clock went back. */
+  private static Position advance(Position from, Instant until) {
+    var read = Position.after(until);
+    return read.compareTo(from) > 0 ? read : from;
+  }
+
+  private static Position tombstonePosition(Tombstone tombstone) {
+    return new Position(tombstone.getDeletedAt(), tombstone.getId());
+  }
+
+  /**
+   * Query of the rows changed after a position.
+   *
+   * @param <E> type of the rows
+   */
+  @FunctionalInterface
+  public interface ChangedRows<E> {
+    /**
+     * @param at time of the position
+     * @param id of the position
+     * @param until time of the last change read
+     * @param limit number of rows
+     * @return up to {@code limit} rows changed after the position, from the start of the order
+     */
+    List<E> find(Instant at, long id, Instant until, int limit);
+  }
+}
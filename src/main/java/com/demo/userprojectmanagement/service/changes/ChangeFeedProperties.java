@@ -0,0 +1,27 @@
+package com.demo.userprojectmanagement.service.changes;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.changes")
+public class ChangeFeedProperties {
+  /**
+   * How far behind the current time changes are read. Longer than any write transaction, so that a
+   * change committed late with an earlier time is not skipped.
+   */
+  private Duration settleTime = Duration.ofSeconds(1);
+
+  /** How long deletions are kept. Clients that sync less often must start again without token. */
+  private Duration tombstoneRetention = Duration.ofDays(7);
+
+  /** How often the deletions older than the retention are purged. */
+  private Duration purgeInterval = Duration.ofHours(1);
+
+  /** Changes returned per sync when the client does not ask for a number. */
+  private int defaultLimit = 100;
+
+  /** Maximum number of changes returned per sync. */
+  private int maxLimit = 1000;
+}
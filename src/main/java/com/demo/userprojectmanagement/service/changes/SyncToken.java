@@ -0,0 +1,96 @@
+package com.demo.userprojectmanagement.service.changes;
+
+import com.demo.userprojectmanagement.exception.SyncTokenNotValidException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position of a client in the change feed: the last changed row and the last tombstone it read.
+ * Sent to clients as an opaque string and given back on the next sync.
+ *
+ * @param rows last changed row read
+ * @param deleted last tombstone read
+ */
+public record SyncToken(Position rows, Position deleted) {
+  private static final String VERSION = "1";
+  private static final String SEPARATOR = ":";
+
+  /**
+   * Time and id of a row, changes are read in this order.
+   *
+   * @param at time of the change, with microsecond precision as stored
+   * @param id of the row
+   */
+  public record Position(Instant at, long id) implements Comparable<Position> {
+    /** Before every change. */
+    public static final Position START = new Position(Instant.EPOCH, 0);
+
+    private static final Comparator<Position> ORDER =
+        Comparator.comparing(Position::at).thenComparingLong(Position::id);
+
+    /**
+     * @param at a time
+     * @return after every change made up to that time
+     */
+    public static Position after(Instant at) {
+      return new Position(at, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(Position other) {
+      return ORDER.compare(this, other);
+    }
+  }
+
+  /**
+   * @return the token as sent to clients
+   */
+  public String encode() {
+    var text =
+        String.join(
+            SEPARATOR,
+            VERSION,
+            Long.toString(micros(rows.at())),
+            Long.toString(rows.id()),
+            Long.toString(micros(deleted.at())),
+            Long.toString(deleted.id()));
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(text.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * @param token as sent to clients
+   * @return the decoded token
+   * @throws SyncTokenNotValidException when the token was not issued by {@link #encode()}
+   */
+  public static SyncToken parse(String token) {
+    try {
+      var parts =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII)
+              .split(SEPARATOR);
+
+      if (parts.length != 5 || !VERSION.equals(parts[0]))
+        throw new SyncTokenNotValidException(token);
+
+      return new SyncToken(
+          new Position(instant(Long.parseLong(parts[1])), Long.parseLong(parts[2])),
+          new Position(instant(Long.parseLong(parts[3])), Long.parseLong(parts[4])));
+    } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+      throw new SyncTokenNotValidException(token);
+    }
+  }
+
+  private static long micros(Instant at) {
+    return ChronoUnit.MICROS.between(Instant.EPOCH, at);
+  }
+
+  private static Instant instant(long micros) {
+    return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+  }
+}
@@ -0,0 +1,25 @@
+package com.demo.userprojectmanagement.service.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A committed change of a user, a project or the members of a project.
+ *
+ * @param offset position of the event in the stream
+ * @param type of change
+ * @param id of the user or project, the project for membership changes
+ * @param userIds assigned or unassigned, for membership changes
+ * @param fields changed by an update
+ * @param timestamp when the change was published
+ */
+@JsonInclude(Include.NON_EMPTY)
+public record ChangeEvent(
+    long offset,
+    ChangeType type,
+    long id,
+    List<Long> userIds,
+    List<String> fields,
+    Instant timestamp) {}
@@ -0,0 +1,80 @@
+package com.demo.userprojectmanagement.service.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ring buffer of the latest change events. Writers claim the next offset with a single atomic
+ * increment and store the event in its slot, they never wait for readers. Readers follow the
+ * offsets at their own pace; once the writers have wrapped around past a reader's offset its events
+ * are gone and the reader has to start over.
+ *
+ * <p>Exposes the {@code changes.published} count.
+ */
+@Component
+public class ChangeEventBuffer {
+  private final AtomicReferenceArray<ChangeEvent> slots;
+  private final int mask;
+  private final AtomicLong next = new AtomicLong();
+  private final Counter published;
+
+  public ChangeEventBuffer(ChangeEventProperties properties, MeterRegistry meterRegistry) {
+    int capacity = Math.max(2, Integer.highestOneBit(properties.getCapacity() - 1) << 1);
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.published =
+        Counter.builder("changes.published")
+            .description("Change events published to the stream")
+            .register(meterRegistry);
+  }
+
+  public ChangeEvent publish(ChangeType type, long id, List<Long> userIds, List<String> fields) {
+    long offset = next.getAndIncrement();
+    var event = new ChangeEvent(offset, type, id, userIds, fields, Instant.now());
+
+    slots.set(index(offset), event);
+    published.increment();
+
+    return event;
+  }
+
+  /**
+   * @param offset of the event
+   * @return the event, {@code null} when it is not published yet or no longer kept
+   */
+  public ChangeEvent get(long offset) {
+    var event = slots.get(index(offset));
+
+    return event != null && event.offset() == offset ? event : null;
+  }
+
+  /**
+   * @return the offset of the next event to be published
+   */
+  public long getNextOffset() {
+    return next.get();
+  }
+
+  /**
+   * @return the offset of the oldest event kept
+   */
+  public long getOldestOffset() {
+    return Math.max(0, next.get() - slots.length());
+  }
+
+  /**
+   * @return whether the event at the offset was overwritten
+   */
+  public boolean isOverrun(long offset) {
+    return offset < getOldestOffset();
+  }
+
+  private int index(long offset) {
+    return (int) (offset & mask);
+  }
+}
@@ -0,0 +1,271 @@
+package com.demo.userprojectmanagement.service.events;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PreCollectionRemoveEvent;
+import org.hibernate.event.spi.PreCollectionRemoveEventListener;
+import org.hibernate.event.spi.PreCollectionUpdateEvent;
+import org.hibernate.event.spi.PreCollectionUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Publishes the changes of users and projects to the {@link ChangeEventBuffer} once their
+ * transaction commits. Creations, updates and deletions come from the post-commit entity events;
+ * deleted rows are only flagged, so their deletion is an update of {@code deletedAt}.
+ *
+ * <p>Memberships are compared per project: the members before the first change of the transaction
+ * against the members once it is flushed, and the difference is published as {@code USERS_ASSIGNED}
+ * and {@code USERS_UNASSIGNED} after the commit. When a project gets a new user list before its
+ * members were loaded, they are read from the database first. Memberships removed along with their
+ * project or user are not published, the deletion covers them.
+ */
+public class ChangeEventListener
+    implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener,
+        PreCollectionUpdateEventListener,
+        PreCollectionRemoveEventListener,
+        PostCollectionRecreateEventListener {
+  private static final String MEMBERS_ROLE = Project.class.getName() + ".users";
+  private static final String UPDATED_AT = "updatedAt";
+  private static final String DELETED_AT = "deletedAt";
+  private static final String MEMBERS_QUERY =
+      "SELECT user_id FROM project_by_user WHERE project_id = :id";
+
+  private final ChangeEventBuffer buffer;
+
+  /** Membership changes of the open transactions, per session. */
+  private final Map<SharedSessionContractImplementor, Memberships> pending =
+      new ConcurrentHashMap<>();
+
+  public ChangeEventListener(ChangeEventBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    Class<?> type = persister.getMappedClass();
+
+    return type == User.class || type == Project.class;
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (!requiresPostCommitHandling(event.getPersister())) return;
+
+    var type =
+        event.getEntity() instanceof User ? ChangeType.USER_CREATED : ChangeType.PROJECT_CREATED;
+
+    buffer.publish(type, (Long) event.getId(), List.of(), List.of());
+  }
+
+  /**
+   * Collections are left out of the changed fields, membership changes have their own events, and
+   * so is the update time, which changes with every update.
+   */
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (!requiresPostCommitHandling(event.getPersister())) return;
+
+    var dirty = event.getDirtyProperties();
+    if (dirty == null) return;
+
+    var persister = event.getPersister();
+    var names = persister.getPropertyNames();
+    var types = persister.getPropertyTypes();
+    var fields =
+        Arrays.stream(dirty)
+            .filter(index -> !types[index].isCollectionType())
+            .mapToObj(index -> names[index])
+            .filter(name -> !UPDATED_AT.equals(name))
+            .toList();
+    if (fields.isEmpty()) return;
+
+    if (fields.contains(DELETED_AT)) {
+      publishDeletion(event.getEntity(), event.getId());
+      return;
+    }
+
+    var type =
+        event.getEntity() instanceof User ? ChangeType.USER_UPDATED : ChangeType.PROJECT_UPDATED;
+
+    buffer.publish(type, (Long) event.getId(), List.of(), fields);
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    if (!requiresPostCommitHandling(event.getPersister())) return;
+
+    publishDeletion(event.getEntity(), event.getId());
+  }
+
+  private void publishDeletion(Object entity, Object id) {
+    var type = entity instanceof User ? ChangeType.USER_DELETED : ChangeType.PROJECT_DELETED;
+
+    buffer.publish(type, (Long) id, List.of(), List.of());
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+  /** Users added to or removed from a loaded user list. */
+  @Override
+  public void onPreUpdateCollection(PreCollectionUpdateEvent event) {
+    var project = project(event);
+    if (project == null) return;
+
+    var memberships = memberships(event.getSession());
+    long projectId = project.getId();
+
+    memberships.before(projectId, () -> ids(event.getCollection().getStoredSnapshot()));
+    memberships.after(projectId, ids(event.getCollection()));
+  }
+
+  /** The user list replaced by another one, or cleared. */
+  @Override
+  public void onPreRemoveCollection(PreCollectionRemoveEvent event) {
+    var project = project(event);
+    if (project == null) return;
+
+    var memberships = memberships(event.getSession());
+    long projectId = project.getId();
+    var collection = event.getCollection();
+
+    memberships.before(
+        projectId,
+        () ->
+            collection.wasInitialized()
+                ? ids(collection.getStoredSnapshot())
+                : loadMembers(event.getSession(), projectId));
+    memberships.after(projectId, Set.of());
+  }
+
+  /** The user list of a new project, or the one replacing the previous list. */
+  @Override
+  public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+    var project = project(event);
+    if (project == null) return;
+
+    var memberships = memberships(event.getSession());
+    long projectId = project.getId();
+
+    memberships.before(projectId, Set::of);
+    memberships.after(projectId, ids(event.getCollection()));
+  }
+
+  /**
+   * @return the project owning the changed user list, {@code null} for other collections and for
+   *     projects being deleted
+   */
+  private static Project project(AbstractCollectionEvent event) {
+    // A new user list has no role nor loaded owner until it is recreated
+    var collection = event.getCollection();
+    if (collection.getRole() != null && !MEMBERS_ROLE.equals(collection.getRole())) return null;
+
+    var owner = event.getAffectedOwnerOrNull();
+    if (owner == null) owner = collection.getOwner();
+    if (!(owner instanceof Project project)) return null;
+
+    EntityEntry entry = event.getSession().getPersistenceContextInternal().getEntry(owner);
+    if (entry != null && (entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE))
+      return null;
+
+    return project;
+  }
+
+  /** Starts tracking the memberships of the session, published when its transaction commits. */
+  private Memberships memberships(EventSource session) {
+    return pending.computeIfAbsent(
+        session,
+        key -> {
+          session
+              .getActionQueue()
+              .registerProcess(
+                  (success, completed) -> {
+                    var memberships = pending.remove(completed);
+                    if (success && memberships != null) memberships.publish(buffer);
+                  });
+          return new Memberships();
+        });
+  }
+
+  /** Reads the members without flushing, the flush is running. */
+  private static Set<Long> loadMembers(EventSource session, long projectId) {
+    List<?> rows =
+        session
+            .createNativeQuery(MEMBERS_QUERY)
+            .setHibernateFlushMode(FlushMode.MANUAL)
+            .setParameter("id", projectId)
+            .getResultList();
+
+    Set<Long> ids = new HashSet<>();
+    for (Object row : rows) ids.add(((Number) row).longValue());
+    return ids;
+  }
+
+  private static Set<Long> ids(Object users) {
+    Set<Long> ids = new HashSet<>();
+    if (users instanceof Collection<?> collection)
+      for (Object user : collection) ids.add(((User) user).getId());
+    return ids;
+  }
+
+  /** Members of the projects changed by a transaction, before and after it. */
+  private static final class Memberships {
+    private final Map<Long, Set<Long>> before = new LinkedHashMap<>();
+    private final Map<Long, Set<Long>> after = new LinkedHashMap<>();
+
+    private void before(long projectId, Supplier<Set<Long>> members) {
+      if (!before.containsKey(projectId)) before.put(projectId, members.get());
+    }
+
+    private void after(long projectId, Set<Long> members) {
+      after.put(projectId, members);
+    }
+
+    private void publish(ChangeEventBuffer buffer) {
+      before.forEach(
+          (projectId, previous) -> {
+            var current = after.getOrDefault(projectId, Set.of());
+
+            var assigned = current.stream().filter(id -> !previous.contains(id)).sorted().toList();
+            var unassigned =
+                previous.stream().filter(id -> !current.contains(id)).sorted().toList();
+
+            if (!assigned.isEmpty())
+              buffer.publish(ChangeType.USERS_ASSIGNED, projectId, assigned, List.of());
+            if (!unassigned.isEmpty())
+              buffer.publish(ChangeType.USERS_UNASSIGNED, projectId, unassigned, List.of());
+          });
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.demo.userprojectmanagement.service.events;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.events")
+public class ChangeEventProperties {
+  /**
+   * Number of events kept for consumers to catch up, rounded up to a power of two. A consumer that
+   * falls further behind is disconnected.
+   */
+  private int capacity = 8192;
+
+  /** Maximum number of connected consumers, further connections are rejected with 503. */
+  private int maxSubscribers = 100;
+
+  /** How long a consumer waits before checking again for new events. */
+  private Duration pollInterval = Duration.ofMillis(50);
+
+  /** Time without events after which a comment is sent, to detect closed connections. */
+  private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+  /** How long a connection is kept open, clients reconnect with {@code Last-Event-ID}. */
+  private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,177 @@
+package com.demo.userprojectmanagement.service.events;
+
+import com.demo.userprojectmanagement.exception.ChangeOffsetNotAvailableException;
+import com.demo.userprojectmanagement.exception.ChangeStreamFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Delivers the {@link ChangeEventBuffer} to Server-Sent Events consumers. Every event is sent with
+ * its offset as id, so a consumer resumes where it stopped.
+ *
+ * <p>Each consumer follows the buffer on its own thread and never holds back the writers. A
+ * consumer that falls behind by more than the buffer capacity, because it reads too slowly, is sent
+ * an {@code overrun} event with the oldest offset still available and disconnected.
+ *
+ * <p>Exposes the {@code changes.subscribers} gauge and the {@code changes.disconnected} count,
+ * tagged with the {@code reason}.
+ */
+@Slf4j
+@Component
+public class ChangeStream {
+  public static final String OVERRUN_EVENT = "overrun";
+
+  private final ChangeEventProperties properties;
+  private final ChangeEventBuffer buffer;
+  private final ThreadPoolExecutor executor;
+  private final AtomicInteger threadCount = new AtomicInteger();
+  private final Counter overruns;
+  private final Counter closed;
+
+  public ChangeStream(
+      ChangeEventProperties properties, ChangeEventBuffer buffer, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.buffer = buffer;
+    this.executor =
+        new ThreadPoolExecutor(
+            0,
+            properties.getMaxSubscribers(),
+            60,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+              var thread = new Thread(runnable, "change-stream-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    Gauge.builder("changes.subscribers", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Consumers connected to the change stream")
+        .register(meterRegistry);
+    this.overruns = disconnected(meterRegistry, "overrun");
+    this.closed = disconnected(meterRegistry, "closed");
+  }
+
+  /**
+   * Opens a stream of the events from an offset.
+   *
+   * @param offset of the first event, {@code null} for the events published from now on
+   * @return the stream
+   * @throws ChangeOffsetNotAvailableException when the offset is no longer kept or not reached yet
+   * @throws ChangeStreamFullException when too many consumers are connected
+   */
+  public SseEmitter subscribe(Long offset) {
+    long next = buffer.getNextOffset();
+    long from = offset == null ? next : offset;
+
+    if (from < buffer.getOldestOffset() || from > next)
+      throw new ChangeOffsetNotAvailableException(from, buffer.getOldestOffset(), next);
+
+    var emitter = new SseEmitter(properties.getTimeout().toMillis());
+    var subscriber = new Subscriber(emitter, from);
+
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(subscriber::close);
+    emitter.onError(error -> subscriber.close());
+
+    try {
+      executor.execute(subscriber);
+    } catch (RejectedExecutionException e) {
+      throw new ChangeStreamFullException();
+    }
+
+    return emitter;
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  private static Counter disconnected(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("changes.disconnected")
+        .description("Consumers disconnected from the change stream")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  /** Sends the events of the buffer to one consumer, in offset order. */
+  private final class Subscriber implements Runnable {
+    private final SseEmitter emitter;
+    private long offset;
+    private volatile boolean open = true;
+
+    private Subscriber(SseEmitter emitter, long offset) {
+      this.emitter = emitter;
+      this.offset = offset;
+    }
+
+    @Override
+    public void run() {
+      long pollInterval = properties.getPollInterval().toNanos();
+      long heartbeatInterval = properties.getHeartbeatInterval().toNanos();
+      long lastSent = System.nanoTime();
+
+      try {
+        while (open && !Thread.currentThread().isInterrupted()) {
+          var event = buffer.get(offset);
+
+          if (event != null) {
+            emitter.send(
+                SseEmitter.event()
+                    .id(Long.toString(offset))
+                    .name(event.type().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+            offset++;
+            lastSent = System.nanoTime();
+          } else if (buffer.isOverrun(offset)) {
+            overrun();
+            return;
+          } else {
+            if (System.nanoTime() - lastSent >= heartbeatInterval) {
+              emitter.send(SseEmitter.event().comment("heartbeat"));
+              lastSent = System.nanoTime();
+            }
+            LockSupport.parkNanos(pollInterval);
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        closed.increment();
+        log.debug("Change stream consumer disconnected at offset {}", offset);
+        return;
+      }
+
+      closed.increment();
+      emitter.complete();
+    }
+
+    private void overrun() throws IOException {
+      overruns.increment();
+      log.warn("Change stream consumer too slow, disconnected at offset {}", offset);
+
+      emitter.send(
+          SseEmitter.event()
+              .name(OVERRUN_EVENT)
+              .data(Map.of("offset", offset, "oldest", buffer.getOldestOffset())));
+      emitter.complete();
+    }
+
+    private void close() {
+      open = false;
+    }
+  }
+}
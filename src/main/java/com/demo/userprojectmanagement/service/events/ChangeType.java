@@ -0,0 +1,12 @@
+package com.demo.userprojectmanagement.service.events;
+
+public enum ChangeType {
+  USER_CREATED,
+  USER_UPDATED,
+  USER_DELETED,
+  PROJECT_CREATED,
+  PROJECT_UPDATED,
+  PROJECT_DELETED,
+  USERS_ASSIGNED,
+  USERS_UNASSIGNED
+}
@@ -0,0 +1,75 @@
+package com.demo.userprojectmanagement.service.fields;
+
+import com.demo.userprojectmanagement.exception.FieldsNotValidException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Fields and associations asked by a listing with {@code fields} and {@code expand}.
+ *
+ * @param fields written for every row, the id first
+ * @param attributes read for every row: the fields and the properties the page is sorted by, which
+ *     rows read from several shards are merged on
+ * @param expansions associations loaded for the whole page
+ */
+public record FieldSelection(List<String> fields, List<String> attributes, Set<String> expansions) {
+
+  /**
+   * @param fields comma separated, {@code null} for every allowed field
+   * @param expand comma separated associations, {@code null} for none
+   * @param sort of the page, on allowed fields only
+   * @param allowedFields of the rows, the id first
+   * @param allowedExpansions of the rows
+   * @throws FieldsNotValidException when a field, association or sort property is not allowed
+   */
+  public static FieldSelection of(
+      String fields,
+      String expand,
+      Sort sort,
+      List<String> allowedFields,
+      List<String> allowedExpansions) {
+    Set<String> selected = new LinkedHashSet<>();
+    selected.add(allowedFields.get(0));
+    selected.addAll(fields == null ? allowedFields : split("fields", fields, allowedFields));
+
+    Set<String> attributes = new LinkedHashSet<>(selected);
+    for (Sort.Order order : sort) {
+      if (!allowedFields.contains(order.getProperty()))
+        throw new FieldsNotValidException("sort", order.getProperty(), allowedFields);
+      attributes.add(order.getProperty());
+    }
+
+    return new FieldSelection(
+        List.copyOf(selected),
+        List.copyOf(attributes),
+        expand == null ? Set.of() : Set.copyOf(split("expand", expand, allowedExpansions)));
+  }
+
+  /**
+   * @param row read with the {@link #attributes()}
+   * @return the row, without the attributes read for sorting only
+   */
+  public Map<String, Object> trim(Map<String, Object> row) {
+    if (attributes.size() > fields.size()) row.keySet().retainAll(fields);
+
+    return row;
+  }
+
+  public boolean expands(String association) {
+    return expansions.contains(association);
+  }
+
+  private static List<String> split(String parameter, String value, List<String> allowed) {
+    var names =
+        Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+
+    if (names.isEmpty() || !allowed.containsAll(names))
+      throw new FieldsNotValidException(parameter, value, allowed);
+
+    return names;
+  }
+}
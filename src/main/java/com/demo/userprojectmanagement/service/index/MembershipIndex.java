@@ -0,0 +1,405 @@
+package com.demo.userprojectmanagement.service.index;
+
+import com.demo.userprojectmanagement.dto.MembershipOverlapDTO;
+import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory copy of {@code project_by_user} as compressed bitmaps: the users of every project and
+ * the projects of every user. Answers set queries over the members of several projects without
+ * loading them from the database.
+ *
+ * <p>Loaded before the application serves requests. Changes made by this instance are applied once
+ * their transaction commits: assign, unassign, queued membership changes and the deletion of
+ * projects and users. Changes made by other instances are picked up when the index is rebuilt,
+ * every {@code app.membership.index.reload-interval} when set.
+ *
+ * <p>Exposes the {@code membership.index.projects}, {@code membership.index.memberships} and {@code
+ * membership.index.bytes} gauges and the {@code membership.index.reload} time.
+ */
+@Slf4j
+@Component
+public class MembershipIndex implements SmartInitializingSingleton {
+  private final MembershipIndexProperties properties;
+  private final ProjectRepository projectRepository;
+  private final ShardTemplate shards;
+  private final TransactionTemplate transactionTemplate;
+  private final Timer reloadTimer;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private ScheduledExecutorService reloader;
+
+  /** Guarded by {@code lock}. */
+  private Bitmaps bitmaps = new Bitmaps();
+
+  /**
+   * Changes applied while a rebuild is loading, replayed on the rebuilt bitmaps; {@code null} when
+   * no rebuild is running. Guarded by {@code lock}.
+   */
+  private List<Consumer<Bitmaps>> replay;
+
+  public MembershipIndex(
+      MembershipIndexProperties properties,
+      ProjectRepository projectRepository,
+      ShardTemplate shards,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.projectRepository = projectRepository;
+    this.shards = shards;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.reloadTimer =
+        Timer.builder("membership.index.reload")
+            .description("Time spent rebuilding the membership index from the database")
+            .register(meterRegistry);
+
+    Gauge.builder(
+            "membership.index.projects", this, index -> index.readLong(b -> b.projects.size()))
+        .description("Projects in the membership index")
+        .register(meterRegistry);
+    Gauge.builder(
+            "membership.index.memberships", this, index -> index.readLong(Bitmaps::memberships))
+        .description("Memberships in the membership index")
+        .register(meterRegistry);
+    Gauge.builder("membership.index.bytes", this, index -> index.readLong(Bitmaps::sizeInBytes))
+        .description("Memory used by the bitmaps of the membership index")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /** Loads the index once every bean, and every shard schema, is ready. */
+  @Override
+  public void afterSingletonsInstantiated() {
+    reload();
+
+    if (properties.getReloadInterval().isZero()) return;
+
+    long interval = properties.getReloadInterval().toNanos();
+    reloader =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "membership-index-reload");
+              thread.setDaemon(true);
+              return thread;
+            });
+    reloader.scheduleWithFixedDelay(this::reloadQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (reloader != null) reloader.shutdownNow();
+  }
+
+  /**
+   * Rebuilds the index from the database. Queries keep being answered by the current bitmaps while
+   * the new ones load, and the changes committed meanwhile are applied to both.
+   */
+  public void reload() {
+    reloadTimer.record(
+        () -> {
+          withWriteLock(() -> replay = new ArrayList<>());
+
+          try {
+            var loaded = new Bitmaps();
+
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  shards
+                      .onShard(ShardTemplate.REFERENCE_SHARD, projectRepository::findAllIds)
+                      .forEach(loaded::addProject);
+                  shards.onEachShard(
+                      shard -> {
+                        try (var rows = projectRepository.streamMemberships()) {
+                          rows.forEach(
+                              row ->
+                                  loaded.add(
+                                      ((Number) row[0]).longValue(),
+                                      ((Number) row[1]).longValue()));
+                        }
+                        return null;
+                      });
+                });
+            loaded.optimize();
+
+            withWriteLock(
+                () -> {
+                  replay.forEach(change -> change.accept(loaded));
+                  bitmaps = loaded;
+                });
+          } finally {
+            withWriteLock(() -> replay = null);
+          }
+        });
+  }
+
+  /** Sets the members of a project, which is added to the index when missing. */
+  public void replaceMembers(long projectId, Collection<Long> userIds) {
+    long[] ids = toArray(userIds);
+    afterCommit(b -> b.replace(projectId, ids));
+  }
+
+  public void addMembers(long projectId, Collection<Long> userIds) {
+    long[] ids = toArray(userIds);
+    afterCommit(
+        b -> {
+          for (long userId : ids) b.add(projectId, userId);
+        });
+  }
+
+  public void removeMembers(long projectId, Collection<Long> userIds) {
+    long[] ids = toArray(userIds);
+    afterCommit(
+        b -> {
+          for (long userId : ids) b.remove(projectId, userId);
+        });
+  }
+
+  public void removeProject(long projectId) {
+    afterCommit(b -> b.removeProject(projectId));
+  }
+
+  public void removeUser(long userId) {
+    afterCommit(b -> b.removeUser(userId));
+  }
+
+  /**
+   * Combines the members of several projects.
+   *
+   * @param operation to apply, in the order of the project ids
+   * @param projectIds of the projects
+   * @param pageable page of the resulting user ids, in ascending order
+   * @return page of user ids, empty when no project is given
+   * @throws ProjectNotFoundException when a project is not in the index
+   */
+  public Page<Long> members(SetOperation operation, List<Long> projectIds, Pageable pageable) {
+    if (projectIds.isEmpty()) return Page.empty(pageable);
+
+    var result =
+        read(
+            b -> {
+              var members = b.members(projectIds.get(0)).clone();
+
+              for (Long projectId : projectIds.subList(1, projectIds.size())) {
+                switch (operation) {
+                  case INTERSECTION -> members.and(b.members(projectId));
+                  case UNION -> members.or(b.members(projectId));
+                  case DIFFERENCE -> members.andNot(b.members(projectId));
+                }
+              }
+
+              return members;
+            });
+
+    return page(result, pageable);
+  }
+
+  /**
+   * Counts the members of several projects, the users they share and the users of any of them.
+   *
+   * @param projectIds of the projects
+   * @return the member counts
+   * @throws ProjectNotFoundException when a project is not in the index
+   */
+  public MembershipOverlapDTO overlap(List<Long> projectIds) {
+    if (projectIds.isEmpty()) return new MembershipOverlapDTO(Map.of(), 0, 0);
+
+    return read(
+        b -> {
+          Map<Long, Long> members = new LinkedHashMap<>();
+          var shared = b.members(projectIds.get(0)).clone();
+          var any = new Roaring64Bitmap();
+
+          for (Long projectId : projectIds) {
+            var projectMembers = b.members(projectId);
+            members.put(projectId, projectMembers.getLongCardinality());
+            shared.and(projectMembers);
+            any.or(projectMembers);
+          }
+
+          return new MembershipOverlapDTO(
+              members, shared.getLongCardinality(), any.getLongCardinality());
+        });
+  }
+
+  private static Page<Long> page(Roaring64Bitmap ids, Pageable pageable) {
+    long total = ids.getLongCardinality();
+
+    if (pageable.isUnpaged()) {
+      List<Long> all = new ArrayList<>();
+      ids.forEach(all::add);
+      return new PageImpl<>(all);
+    }
+
+    if (pageable.getOffset() >= total) return new PageImpl<>(List.of(), pageable, total);
+
+    List<Long> content = new ArrayList<>(pageable.getPageSize());
+    var iterator = ids.getLongIteratorFrom(ids.select(pageable.getOffset()));
+
+    while (iterator.hasNext() && content.size() < pageable.getPageSize()) {
+      content.add(iterator.next());
+    }
+
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private <T> T read(Function<Bitmaps, T> query) {
+    lock.readLock().lock();
+    try {
+      return query.apply(bitmaps);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long readLong(ToLongFunction<Bitmaps> query) {
+    lock.readLock().lock();
+    try {
+      return query.applyAsLong(bitmaps);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void afterCommit(Consumer<Bitmaps> change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply(change);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            apply(change);
+          }
+        });
+  }
+
+  private void apply(Consumer<Bitmaps> change) {
+    withWriteLock(
+        () -> {
+          change.accept(bitmaps);
+          if (replay != null) replay.add(change);
+        });
+  }
+
+  private void withWriteLock(Runnable action) {
+    lock.writeLock().lock();
+    try {
+      action.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void reloadQuietly() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.error("Membership index reload failed", e);
+    }
+  }
+
+  private static long[] toArray(Collection<Long> ids) {
+    return ids.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /** The users of every project and the projects of every user. */
+  private static final class Bitmaps {
+    private final Map<Long, Roaring64Bitmap> projects = new HashMap<>();
+    private final Map<Long, Roaring64Bitmap> users = new HashMap<>();
+
+    private Roaring64Bitmap members(long projectId) {
+      var members = projects.get(projectId);
+      if (members == null) throw new ProjectNotFoundException();
+      return members;
+    }
+
+    private void addProject(long projectId) {
+      projects.computeIfAbsent(projectId, id -> new Roaring64Bitmap());
+    }
+
+    private void add(long projectId, long userId) {
+      projects.computeIfAbsent(projectId, id -> new Roaring64Bitmap()).addLong(userId);
+      users.computeIfAbsent(userId, id -> new Roaring64Bitmap()).addLong(projectId);
+    }
+
+    private void remove(long projectId, long userId) {
+      var members = projects.get(projectId);
+      if (members != null) members.removeLong(userId);
+
+      var memberOf = users.get(userId);
+      if (memberOf == null) return;
+
+      memberOf.removeLong(projectId);
+      if (memberOf.isEmpty()) users.remove(userId);
+    }
+
+    private void replace(long projectId, long[] userIds) {
+      var current = projects.get(projectId);
+      if (current != null) for (long userId : current.toArray()) remove(projectId, userId);
+
+      addProject(projectId);
+      for (long userId : userIds) add(projectId, userId);
+    }
+
+    private void removeProject(long projectId) {
+      replace(projectId, new long[0]);
+      projects.remove(projectId);
+    }
+
+    private void removeUser(long userId) {
+      var memberOf = users.remove(userId);
+      if (memberOf == null) return;
+
+      memberOf.forEach(
+          projectId -> {
+            var members = projects.get(projectId);
+            if (members != null) members.removeLong(userId);
+          });
+    }
+
+    private void optimize() {
+      projects.values().forEach(Roaring64Bitmap::runOptimize);
+      users.values().forEach(Roaring64Bitmap::runOptimize);
+    }
+
+    private long memberships() {
+      return projects.values().stream().mapToLong(Roaring64Bitmap::getLongCardinality).sum();
+    }
+
+    private long sizeInBytes() {
+      return projects.values().stream().mapToLong(Roaring64Bitmap::getLongSizeInBytes).sum()
+          + users.values().stream().mapToLong(Roaring64Bitmap::getLongSizeInBytes).sum();
+    }
+  }
+}
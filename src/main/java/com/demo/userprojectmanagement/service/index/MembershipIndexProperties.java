@@ -0,0 +1,15 @@
+package com.demo.userprojectmanagement.service.index;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.membership.index")
+public class MembershipIndexProperties {
+  /**
+   * How often the index is rebuilt from the database, to pick up the changes made by other
+   * instances. Zero rebuilds it only at startup.
+   */
+  private Duration reloadInterval = Duration.ZERO;
+}
@@ -0,0 +1,11 @@
+package com.demo.userprojectmanagement.service.index;
+
+/** Combination of the members of several projects. */
+public enum SetOperation {
+  /** Users on every project. */
+  INTERSECTION,
+  /** Users on any of the projects. */
+  UNION,
+  /** Users on the first project and on none of the others. */
+  DIFFERENCE
+}
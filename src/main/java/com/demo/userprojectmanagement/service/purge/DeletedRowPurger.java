@@ -0,0 +1,187 @@
+package com.demo.userprojectmanagement.service.purge;
+
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes the users and projects flagged as deleted, along with their memberships. Deleting a
+ * heavily connected row only flags it, and its memberships are removed here, in the background.
+ *
+ * <p>Every shard is purged in batches of at most {@code app.purge.batch-size} rows, each in its own
+ * transaction: first the memberships of deleted users and projects, then the rows left without
+ * memberships. Batches are {@code app.purge.batch-delay} apart, so a large backlog does not keep
+ * requests away from the database, and purges run every {@code app.purge.interval}.
+ *
+ * <p>Exposes the {@code purge.rows} count per {@code table}, the {@code purge.batch} time and the
+ * {@code purge.pending} gauges of the deleted users and projects left, as of the last purge.
+ */
+@Slf4j
+@Component
+public class DeletedRowPurger {
+  private static final String MEMBERSHIPS = "project_by_user";
+  private static final String USERS = "users";
+  private static final String PROJECTS = "projects";
+
+  private final PurgeProperties properties;
+  private final UserRepository userRepository;
+  private final ProjectRepository projectRepository;
+  private final ShardTemplate shards;
+  private final TransactionTemplate transactionTemplate;
+  private final Timer batchTimer;
+  private final Map<String, Counter> purged;
+  private final AtomicLong pendingUsers = new AtomicLong();
+  private final AtomicLong pendingProjects = new AtomicLong();
+  private ScheduledExecutorService purger;
+
+  public DeletedRowPurger(
+      PurgeProperties properties,
+      UserRepository userRepository,
+      ProjectRepository projectRepository,
+      ShardTemplate shards,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.userRepository = userRepository;
+    this.projectRepository = projectRepository;
+    this.shards = shards;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchTimer =
+        Timer.builder("purge.batch")
+            .description("Time spent removing a batch of deleted rows")
+            .register(meterRegistry);
+    this.purged =
+        Map.of(
+            MEMBERSHIPS, purgedCounter(MEMBERSHIPS, meterRegistry),
+            USERS, purgedCounter(USERS, meterRegistry),
+            PROJECTS, purgedCounter(PROJECTS, meterRegistry));
+
+    Gauge.builder("purge.pending", pendingUsers, AtomicLong::get)
+        .description("Deleted rows not purged yet")
+        .tag("table", USERS)
+        .register(meterRegistry);
+    Gauge.builder("purge.pending", pendingProjects, AtomicLong::get)
+        .description("Deleted rows not purged yet")
+        .tag("table", PROJECTS)
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isEnabled()) return;
+
+    long interval = properties.getInterval().toNanos();
+    purger =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "deleted-row-purge");
+              thread.setDaemon(true);
+              return thread;
+            });
+    purger.scheduleWithFixedDelay(this::purgeQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (purger != null) purger.shutdownNow();
+  }
+
+  /**
+   * Removes the deleted users and projects of every shard, batch after batch.
+   *
+   * @return number of rows removed, memberships included
+   */
+  public long purge() {
+    long removed = 0;
+
+    for (int shard = 0; shard < shards.getShardCount(); shard++) {
+      removed += purgeBatches(shard, MEMBERSHIPS, userRepository::purgeMembershipsOfDeleted);
+      removed += purgeBatches(shard, MEMBERSHIPS, projectRepository::purgeMembershipsOfDeleted);
+      removed += purgeBatches(shard, USERS, userRepository::purgeDeleted);
+      removed += purgeBatches(shard, PROJECTS, projectRepository::purgeDeleted);
+    }
+
+    pendingUsers.set(
+        shards.scatter(shard -> count(userRepository::countDeleted)).stream()
+            .mapToLong(Long::longValue)
+            .sum());
+    pendingProjects.set(
+        shards.onShard(
+            ShardTemplate.REFERENCE_SHARD, () -> count(projectRepository::countDeleted)));
+
+    return removed;
+  }
+
+  /** Runs batches until one removes less than a full batch, or the purger is stopped. */
+  private long purgeBatches(int shard, String table, IntUnaryOperator batch) {
+    int batchSize = properties.getBatchSize();
+    long removed = 0;
+    int count;
+
+    do {
+      count =
+          batchTimer.record(
+              () ->
+                  transactionTemplate.execute(
+                      status -> shards.onShard(shard, () -> batch.applyAsInt(batchSize))));
+      removed += count;
+      purged.get(table).increment(count);
+    } while (count == batchSize && pause());
+
+    return removed;
+  }
+
+  /**
+   * @return false when the purger was stopped meanwhile
+   */
+  private boolean pause() {
+    try {
+      Thread.sleep(properties.getBatchDelay().toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private long count(CountQuery query) {
+    return transactionTemplate.execute(status -> query.count());
+  }
+
+  private void purgeQuietly() {
+    try {
+      long removed = purge();
+      if (removed > 0) log.debug("Purged {} deleted rows and memberships", removed);
+    } catch (RuntimeException e) {
+      log.warn("Purge of deleted rows failed", e);
+    }
+  }
+
+  private static Counter purgedCounter(String table, MeterRegistry meterRegistry) {
+    return Counter.builder("purge.rows")
+        .description("Deleted rows and memberships removed by the purger")
+        .tag("table", table)
+        .register(meterRegistry);
+  }
+
+  @FunctionalInterface
+  private interface CountQuery {
+    long count();
+  }
+}
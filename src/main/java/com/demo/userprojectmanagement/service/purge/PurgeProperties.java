@@ -0,0 +1,23 @@
+package com.demo.userprojectmanagement.service.purge;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.purge")
+public class PurgeProperties {
+  /**
+   * Whether deleted users and projects are purged in the background. Otherwise they stay hidden.
+   */
+  private boolean enabled = true;
+
+  /** Time between the end of a purge and the start of the next one. */
+  private Duration interval = Duration.ofMinutes(1);
+
+  /** Rows removed per batch, each batch being its own transaction. */
+  private int batchSize = 1000;
+
+  /** Pause between two batches, which leaves the database to requests while a backlog is purged. */
+  private Duration batchDelay = Duration.ofMillis(50);
+}
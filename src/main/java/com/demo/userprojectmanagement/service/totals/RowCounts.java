@@ -0,0 +1,117 @@
+package com.demo.userprojectmanagement.service.totals;
+
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Number of users and projects not deleted, kept in memory so listings do not count them on every
+ * page. A count is taken from the database on first use and again once older than {@code
+ * app.totals.max-age}; in between, the creations and deletions of this instance are added to it
+ * once their transaction commits.
+ *
+ * <p>Writes of other instances, or committed while a count is taken, are missing until the next
+ * count, hence approximate totals.
+ *
+ * <p>Exposes the {@code totals.recount} count per {@code type}.
+ */
+@Component
+public class RowCounts {
+  private final TotalsProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<EntityType, Count> counts = new ConcurrentHashMap<>();
+
+  public RowCounts(TotalsProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Builds the page of a listing read without counting.
+   *
+   * @param type of the rows listed
+   * @param totals requested, {@link Totals#EXACT} is counted with the page instead
+   * @param pageable requested page
+   * @param content of the page
+   * @param exactCount counting the rows in the database, when the kept count is missing or too old
+   * @return the page with the kept count as total, or the rows up to this page with {@link
+   *     Totals#NONE}
+   */
+  public <T> Page<T> page(
+      EntityType type, Totals totals, Pageable pageable, List<T> content, LongSupplier exactCount) {
+    long total =
+        totals == Totals.NONE ? pageable.getOffset() + content.size() : count(type, exactCount);
+
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  /**
+   * @return the kept count of the type, counted again first when missing or too old
+   */
+  public long count(EntityType type, LongSupplier exactCount) {
+    var count = counts.get(type);
+
+    if (count != null && System.nanoTime() - count.countedAt < properties.getMaxAge().toNanos())
+      return Math.max(0, count.value.get());
+
+    long value = exactCount.getAsLong();
+    reset(type, value);
+    Counter.builder("totals.recount")
+        .description("Counts of users or projects taken from the database for the totals")
+        .tag("type", type.name().toLowerCase(Locale.ROOT))
+        .register(meterRegistry)
+        .increment();
+
+    return value;
+  }
+
+  /** Replaces the kept count of the type with one just taken from the database. */
+  public void reset(EntityType type, long value) {
+    counts.put(type, new Count(new AtomicLong(value), System.nanoTime()));
+  }
+
+  /** Adds created rows to the kept count, once the current transaction commits. */
+  public void created(EntityType type, long rows) {
+    afterCommit(type, rows);
+  }
+
+  /** Removes deleted rows from the kept count, once the current transaction commits. */
+  public void deleted(EntityType type, long rows) {
+    afterCommit(type, -rows);
+  }
+
+  private void afterCommit(EntityType type, long delta) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      add(type, delta);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            add(type, delta);
+          }
+        });
+  }
+
+  private void add(EntityType type, long delta) {
+    var count = counts.get(type);
+
+    if (count != null) count.value.addAndGet(delta);
+  }
+
+  private record Count(AtomicLong value, long countedAt) {}
+}
@@ -0,0 +1,29 @@
+package com.demo.userprojectmanagement.service.totals;
+
+import com.demo.userprojectmanagement.exception.TotalsNotValidException;
+import java.util.Locale;
+
+/** How the {@code total-items} and {@code total-pages} of a listing are computed. */
+public enum Totals {
+  /** Left out of the response, nothing is counted. */
+  NONE,
+  /** Served from the counts kept by {@link RowCounts}, the default. */
+  APPROX,
+  /** Counted with the page, one more query. */
+  EXACT;
+
+  /**
+   * @param value of the {@code totals} parameter, {@code null} when not given
+   * @return the matching option, {@link #APPROX} by default
+   * @throws TotalsNotValidException when the value is none of the options
+   */
+  public static Totals of(String value) {
+    if (value == null) return APPROX;
+
+    try {
+      return valueOf(value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new TotalsNotValidException(value);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.demo.userprojectmanagement.service.totals;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.totals")
+public class TotalsProperties {
+  /**
+   * Age after which a count is taken again from the database. Bounds how long writes of other
+   * instances, or made around a recount, are missing from the totals.
+   */
+  private Duration maxAge = Duration.ofMinutes(1);
+}
@@ -0,0 +1,7 @@
+package com.demo.userprojectmanagement.service.writebehind;
+
+/** Membership change requested for a user of a project. */
+public enum MembershipOperation {
+  ASSIGN,
+  UNASSIGN
+}
@@ -0,0 +1,48 @@
+package com.demo.userprojectmanagement.service.writebehind;
+
+import com.demo.userprojectmanagement.dto.MembershipTicketDTO;
+import java.util.UUID;
+
+/**
+ * Status handle of a queued assign/unassign request. It is applied once the request has been
+ * committed, or replaced by a later assign that has been, and failed when it could not be applied.
+ */
+public class MembershipTicket {
+  public enum Status {
+    PENDING,
+    APPLIED,
+    FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final long projectId;
+  private final MembershipOperation operation;
+  private volatile Status status = Status.PENDING;
+  private volatile String message;
+
+  MembershipTicket(long projectId, MembershipOperation operation) {
+    this.projectId = projectId;
+    this.operation = operation;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  void applied() {
+    if (status == Status.PENDING) status = Status.APPLIED;
+  }
+
+  void failed(String message) {
+    this.message = message;
+    this.status = Status.FAILED;
+  }
+
+  public MembershipTicketDTO toDTO() {
+    return new MembershipTicketDTO(id, projectId, operation.name(), status.name(), message);
+  }
+}
@@ -0,0 +1,459 @@
+package com.demo.userprojectmanagement.service.writebehind;
+
+import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.PROJECT_ASSIGN_USERS_NOT_FOUND_MESSAGE;
+import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.PROJECT_NOT_FOUND_MESSAGE;
+import static com.demo.userprojectmanagement.exception.ApiExceptionHandler.PROJECT_UNASSIGN_USERS_NOT_FOUND_MESSAGE;
+
+import com.demo.userprojectmanagement.exception.MembershipQueueFullException;
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Queues assign/unassign requests and writes them in batches, with the outcome of the synchronous
+ * requests: an assign replaces the users of the project, an unassign removes users that must all be
+ * members. Pending changes are kept per project in arrival order and applied in that order. As an
+ * assign replaces the whole user list, it also replaces every change of the project still pending,
+ * whose tickets complete with it. Every flush commits all the drained projects in one transaction.
+ * When users are sharded, each shard writes the users of its own shard in its own transaction.
+ *
+ * <p>Exposes {@code membership.writebehind.lag} (time from queuing to commit), the {@code
+ * membership.writebehind.pending} gauge, {@code membership.writebehind.batch.size} and {@code
+ * membership.writebehind.merged}.
+ */
+@Slf4j
+@Component
+public class MembershipWriteBehind {
+  private final WriteBehindProperties properties;
+  private final ProjectRepository projectRepository;
+  private final UserRepository userRepository;
+  private final ShardTemplate shards;
+  private final MembershipIndex membershipIndex;
+  private final TransactionTemplate transactionTemplate;
+  private final LongSupplier clock;
+  private final Cache<String, MembershipTicket> tickets;
+
+  /** Pending changes per project, in arrival order. Guarded by {@code this}. */
+  private final Map<Long, List<Change>> pending = new LinkedHashMap<>();
+
+  private int pendingCount;
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private ScheduledExecutorService flusher;
+
+  private final Timer lag;
+  private final DistributionSummary batchSize;
+  private final Counter merged;
+
+  @Autowired
+  public MembershipWriteBehind(
+      WriteBehindProperties properties,
+      ProjectRepository projectRepository,
+      UserRepository userRepository,
+      ShardTemplate shards,
+      MembershipIndex membershipIndex,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this(
+        properties,
+        projectRepository,
+        userRepository,
+        shards,
+        membershipIndex,
+        transactionManager,
+        meterRegistry,
+        System::nanoTime);
+  }
+
+  MembershipWriteBehind(
+      WriteBehindProperties properties,
+      ProjectRepository projectRepository,
+      UserRepository userRepository,
+      ShardTemplate shards,
+      MembershipIndex membershipIndex,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      LongSupplier clock) {
+    this.properties = properties;
+    this.projectRepository = projectRepository;
+    this.userRepository = userRepository;
+    this.shards = shards;
+    this.membershipIndex = membershipIndex;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.tickets = Caffeine.newBuilder().expireAfterWrite(properties.getTicketTtl()).build();
+
+    Gauge.builder("membership.writebehind.pending", this, MembershipWriteBehind::getPendingCount)
+        .description("Membership changes waiting to be written")
+        .register(meterRegistry);
+    this.lag =
+        Timer.builder("membership.writebehind.lag")
+            .description("Time from queuing a membership change to its commit")
+            .register(meterRegistry);
+    this.batchSize =
+        DistributionSummary.builder("membership.writebehind.batch.size")
+            .description("Membership changes written per transaction")
+            .register(meterRegistry);
+    this.merged =
+        Counter.builder("membership.writebehind.merged")
+            .description("Membership changes replaced by a later change before being written")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isEnabled()) return;
+
+    long interval = properties.getFlushInterval().toNanos();
+    flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "membership-write-behind");
+              thread.setDaemon(true);
+              return thread;
+            });
+    flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  /** Stops the scheduled flushes and writes whatever is still pending. */
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (flusher == null) return;
+
+    flusher.shutdown();
+    flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+    while (flush() > 0) {}
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Queues a membership change of the given users.
+   *
+   * @param projectId of the project
+   * @param operation to apply
+   * @param userIds affected by the change
+   * @return ticket to follow the change
+   * @throws MembershipQueueFullException when the queue has no room for the change
+   */
+  public MembershipTicket submit(
+      long projectId, MembershipOperation operation, Collection<Long> userIds) {
+    var ticket = new MembershipTicket(projectId, operation);
+    var change =
+        new Change(operation, List.copyOf(new LinkedHashSet<>(userIds)), clock.getAsLong(), ticket);
+    boolean flushNow;
+
+    synchronized (this) {
+      var changes = pending.computeIfAbsent(projectId, id -> new ArrayList<>());
+      int replaced =
+          operation == MembershipOperation.ASSIGN
+              ? changes.stream().mapToInt(Change::size).sum()
+              : 0;
+
+      if (pendingCount - replaced + change.size() > properties.getCapacity()) {
+        if (changes.isEmpty()) pending.remove(projectId);
+        throw new MembershipQueueFullException();
+      }
+
+      if (operation == MembershipOperation.ASSIGN && !changes.isEmpty()) {
+        change.replace(changes);
+        changes.clear();
+        merged.increment(replaced);
+      }
+
+      changes.add(change);
+      pendingCount += change.size() - replaced;
+      flushNow = pendingCount >= properties.getMaxBatchSize();
+    }
+
+    tickets.put(ticket.getId(), ticket);
+    if (flushNow) requestFlush();
+
+    return ticket;
+  }
+
+  public Optional<MembershipTicket> findTicket(String id) {
+    return Optional.ofNullable(tickets.getIfPresent(id));
+  }
+
+  /**
+   * Writes up to {@code maxBatchSize} pending changes, whole projects at a time, in a single
+   * transaction.
+   *
+   * @return number of changes written or failed
+   */
+  public int flush() {
+    Map<Long, List<Change>> batch = drain();
+
+    if (batch.isEmpty()) return 0;
+
+    int size = batch.values().stream().flatMap(List::stream).mapToInt(Change::size).sum();
+    Map<Change, String> failures = new HashMap<>();
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> write(batch, failures));
+    } catch (RuntimeException e) {
+      log.error(String.format("Membership batch of %s change/s not written", size), e);
+      batch.values().forEach(changes -> changes.forEach(change -> change.failed(e.getMessage())));
+      return size;
+    }
+
+    long now = clock.getAsLong();
+    batchSize.record(size);
+
+    for (List<Change> changes : batch.values()) {
+      for (Change change : changes) {
+        var failure = failures.get(change);
+
+        if (failure != null) {
+          change.failed(failure);
+        } else {
+          change.applied();
+          lag.record(now - change.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+
+    return size;
+  }
+
+  synchronized int getPendingCount() {
+    return pendingCount;
+  }
+
+  private synchronized Map<Long, List<Change>> drain() {
+    Map<Long, List<Change>> batch = new LinkedHashMap<>();
+    var iterator = pending.entrySet().iterator();
+    int drained = 0;
+
+    while (iterator.hasNext() && drained < properties.getMaxBatchSize()) {
+      var entry = iterator.next();
+      iterator.remove();
+
+      if (entry.getValue().isEmpty()) continue;
+
+      batch.put(entry.getKey(), entry.getValue());
+      drained += entry.getValue().stream().mapToInt(Change::size).sum();
+    }
+
+    pendingCount -= drained;
+    flushRequested.set(false);
+
+    return batch;
+  }
+
+  /**
+   * Reads the members of the drained projects, applies their changes in order and writes the
+   * resulting user lists.
+   */
+  private void write(Map<Long, List<Change>> batch, Map<Change, String> failures) {
+    Map<Long, Set<Long>> members = new HashMap<>();
+    Set<Long> missing = new HashSet<>();
+
+    shards.onEachShard(
+        shard -> {
+          for (Long projectId : batch.keySet()) {
+            var project = projectRepository.findById(projectId);
+
+            if (project.isEmpty()) missing.add(projectId);
+            else
+              members
+                  .computeIfAbsent(projectId, id -> new LinkedHashSet<>())
+                  .addAll(userIds(project.get()));
+          }
+          return null;
+        });
+
+    Map<Long, Set<Long>> targets = new LinkedHashMap<>();
+    batch.forEach(
+        (projectId, changes) -> {
+          if (missing.contains(projectId))
+            changes.forEach(change -> failures.put(change, PROJECT_NOT_FOUND_MESSAGE));
+          else targets.put(projectId, resolve(members.get(projectId), changes, failures));
+        });
+
+    Map<Long, Set<Long>> notFound = new HashMap<>();
+    shards.onEachShard(
+        shard -> {
+          targets.forEach(
+              (projectId, target) ->
+                  notFound
+                      .computeIfAbsent(projectId, id -> new LinkedHashSet<>())
+                      .addAll(apply(projectId, idsOnShard(target, shard))));
+          return null;
+        });
+
+    targets.forEach(
+        (projectId, target) -> {
+          var absent = notFound.get(projectId);
+          target.removeAll(absent);
+          membershipIndex.replaceMembers(projectId, target);
+
+          for (Change change : batch.get(projectId)) {
+            if (change.operation != MembershipOperation.ASSIGN || failures.containsKey(change))
+              continue;
+
+            var ids = change.userIds.stream().filter(absent::contains).map(String::valueOf);
+            var message = ids.collect(Collectors.joining(","));
+            if (!message.isEmpty())
+              failures.put(change, String.format(PROJECT_ASSIGN_USERS_NOT_FOUND_MESSAGE, message));
+          }
+        });
+  }
+
+  /**
+   * Applies the changes of a project, in arrival order, to its members. An unassign of users that
+   * are not all members fails, as the synchronous request does, and leaves the members unchanged.
+   *
+   * @return the members once every change is applied
+   */
+  private static Set<Long> resolve(
+      Set<Long> members, List<Change> changes, Map<Change, String> failures) {
+    Set<Long> target = new LinkedHashSet<>(members);
+
+    for (Change change : changes) {
+      if (change.operation == MembershipOperation.ASSIGN) {
+        target = new LinkedHashSet<>(change.userIds);
+      } else if (target.containsAll(change.userIds)) {
+        target.removeAll(change.userIds);
+      } else {
+        var current = target;
+        var notMembers =
+            change.userIds.stream()
+                .filter(id -> !current.contains(id))
+                .map(String::valueOf)
+                .distinct()
+                .collect(Collectors.joining(","));
+        failures.put(change, String.format(PROJECT_UNASSIGN_USERS_NOT_FOUND_MESSAGE, notMembers));
+      }
+    }
+
+    return target;
+  }
+
+  /**
+   * Sets the users of the project copy of the current shard to the given ones.
+   *
+   * @return ids of the users that were not found
+   */
+  private Set<Long> apply(long projectId, Set<Long> target) {
+    var project = projectRepository.findById(projectId).orElseThrow();
+
+    List<User> users = project.getUsers();
+    if (users == null) {
+      users = new ArrayList<>();
+      project.setUsers(users);
+    }
+
+    users.removeIf(user -> !target.contains(user.getId()));
+
+    Set<Long> additions = new LinkedHashSet<>(target);
+    additions.removeAll(userIds(project));
+    if (additions.isEmpty()) return Set.of();
+
+    var found = userRepository.findAllById(additions);
+    users.addAll(found);
+    found.forEach(user -> additions.remove(user.getId()));
+
+    return additions;
+  }
+
+  private Set<Long> idsOnShard(Set<Long> userIds, int shard) {
+    if (!shards.isEnabled()) return userIds;
+
+    return userIds.stream()
+        .filter(id -> shards.shardOf(id) == shard)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  private static Set<Long> userIds(Project project) {
+    if (project.getUsers() == null) return Set.of();
+
+    return project.getUsers().stream().map(User::getId).collect(Collectors.toSet());
+  }
+
+  private void requestFlush() {
+    if (flusher != null && flushRequested.compareAndSet(false, true)) {
+      flusher.execute(this::flushQuietly);
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      while (flush() >= properties.getMaxBatchSize()) {}
+    } catch (RuntimeException e) {
+      log.error("Membership flush failed", e);
+    }
+  }
+
+  /** Pending assign or unassign of a project and the tickets waiting for it. */
+  private static final class Change {
+    private final MembershipOperation operation;
+    private final List<Long> userIds;
+    private final List<MembershipTicket> waiting = new ArrayList<>(1);
+    private long enqueuedAt;
+
+    private Change(
+        MembershipOperation operation,
+        List<Long> userIds,
+        long enqueuedAt,
+        MembershipTicket ticket) {
+      this.operation = operation;
+      this.userIds = userIds;
+      this.enqueuedAt = enqueuedAt;
+      this.waiting.add(ticket);
+    }
+
+    private int size() {
+      return userIds.size();
+    }
+
+    /** Takes over the earlier changes of the project, which this one replaces. */
+    private void replace(List<Change> earlier) {
+      earlier.forEach(change -> waiting.addAll(change.waiting));
+      enqueuedAt = earlier.get(0).enqueuedAt;
+    }
+
+    private void applied() {
+      waiting.forEach(MembershipTicket::applied);
+    }
+
+    private void failed(String message) {
+      waiting.forEach(ticket -> ticket.failed(message));
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.demo.userprojectmanagement.service.writebehind;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.membership.write-behind")
+public class WriteBehindProperties {
+  /** Whether assign/unassign requests sent with {@code Prefer: respond-async} are queued. */
+  private boolean enabled = false;
+
+  /** Maximum number of pending membership changes, further requests are rejected with 503. */
+  private int capacity = 10_000;
+
+  /** Time between two flushes of the pending changes. */
+  private Duration flushInterval = Duration.ofMillis(100);
+
+  /** Number of pending changes that triggers a flush before the interval elapses. */
+  private int maxBatchSize = 500;
+
+  /** How long the status of a change can be looked up. */
+  private Duration ticketTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,128 @@
+package com.demo.userprojectmanagement.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces identical concurrent lookups: while a call for a given name and key is in flight, other
+ * callers asking for the same key wait for its result instead of running the lookup again. Nothing
+ * is cached, the next call after completion runs the lookup again.
+ *
+ * <p>The result is handed to several threads, so loaders must return values not attached to a
+ * persistence context: DTOs or detached copies of the entities. A caller waits at most {@code
+ * app.single-flight.wait-timeout} for the call in flight, then runs the lookup itself.
+ *
+ * <p>Exposes {@code singleflight.calls} (tagged with {@code outcome} leader, coalesced or timeout),
+ * the {@code singleflight.wait} time of coalesced callers and the {@code singleflight.inflight}
+ * gauge.
+ */
+@Component
+public class SingleFlight {
+  private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+  private final SingleFlightProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  public SingleFlight(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("singleflight.inflight", inFlight, Map::size)
+        .description("Lookups currently in flight")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the loader unless an identical call is already in flight, in which case its result, or its
+   * exception, is shared. The loader is run anyway when the call in flight outlasts the wait
+   * timeout.
+   *
+   * @param name of the lookup, e.g. {@code user.id}
+   * @param key of the lookup, e.g. the id
+   * @param loader performing the lookup
+   * @return the loaded value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String name, Object key, Supplier<T> loader) {
+    var flightKey = new FlightKey(name, key);
+    var flight = new CompletableFuture<Object>();
+    var existing = inFlight.putIfAbsent(flightKey, flight);
+    var flightMeters = meters.computeIfAbsent(name, Meters::new);
+
+    if (existing != null) {
+      flightMeters.coalesced.increment();
+      long start = System.nanoTime();
+
+      try {
+        return (T) existing.get(properties.getWaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) throw cause;
+        if (e.getCause() instanceof Error cause) throw cause;
+        throw new IllegalStateException(e.getCause());
+      } catch (TimeoutException e) {
+        flightMeters.timeout.increment();
+        return loader.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } finally {
+        flightMeters.wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    flightMeters.leader.increment();
+
+    try {
+      T value = loader.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(flightKey, flight);
+    }
+  }
+
+  private record FlightKey(String name, Object key) {}
+
+  private final class Meters {
+    private final Counter leader;
+    private final Counter coalesced;
+    private final Counter timeout;
+    private final Timer wait;
+
+    private Meters(String name) {
+      this.leader =
+          Counter.builder("singleflight.calls")
+              .tag("name", name)
+              .tag("outcome", "leader")
+              .register(meterRegistry);
+      this.coalesced =
+          Counter.builder("singleflight.calls")
+              .tag("name", name)
+              .tag("outcome", "coalesced")
+              .register(meterRegistry);
+      this.timeout =
+          Counter.builder("singleflight.calls")
+              .tag("name", name)
+              .tag("outcome", "timeout")
+              .register(meterRegistry);
+      this.wait =
+          Timer.builder("singleflight.wait")
+              .description("Time coalesced callers waited for the call in flight")
+              .tag("name", name)
+              .register(meterRegistry);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.demo.userprojectmanagement.util;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.single-flight")
+public class SingleFlightProperties {
+  /**
+   * How long a caller waits for the identical lookup in flight before running the lookup itself.
+   */
+  private Duration waitTimeout = Duration.ofSeconds(5);
+}
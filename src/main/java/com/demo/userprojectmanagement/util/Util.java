@@ -1,19 +1,106 @@
 package com.demo.userprojectmanagement.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.demo.userprojectmanagement.dto.PageDTO;
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
+import com.demo.userprojectmanagement.exception.BulkRequestNotValidException;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 public class Util {
   public static final String TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+  public static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(TIME_PATTERN);
 
-  public static Map<String, Object> convertToResponse(
-      final Page<?> objects, String collectionName) {
-    Map<String, Object> response = new HashMap<>();
-    response.put(collectionName, objects.getContent());
-    response.put("current-page", objects.getNumber());
-    response.put("total-items", objects.getTotalElements());
-    response.put("total-pages", objects.getTotalPages());
-    return response;
+  /** Last formatted timestamp, reused by the calls made within the same millisecond. */
+  private static volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, null);
+
+  /** Maximum number of items accepted by a bulk request. */
+  public static final int MAX_BULK_ITEMS = 1000;
+
+  /** Ids flagged per transaction by a bulk delete, which keeps the row locks of each one short. */
+  public static final int DELETE_CHUNK_SIZE = 100;
+
+  /**
+   * @return the current local time formatted with {@link #TIME_PATTERN}
+   */
+  public static String timestamp() {
+    long millis = System.currentTimeMillis();
+    var last = lastTimestamp;
+
+    if (last.millis() == millis) return last.text();
+
+    var text =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault())
+            .format(TIME_FORMATTER);
+    lastTimestamp = new Timestamp(millis, text);
+
+    return text;
+  }
+
+  public static <T> PageDTO<T> convertToResponse(final Page<T> objects, String collectionName) {
+    return new PageDTO<>(objects, collectionName);
+  }
+
+  /**
+   * @param totals of the listing, left out of the response with {@link Totals#NONE}
+   * @return the page envelope of a listing
+   */
+  public static <T> PageDTO<T> convertToResponse(
+      final Page<T> objects, String collectionName, Totals totals) {
+    return new PageDTO<>(objects, collectionName, totals != Totals.NONE);
   }
+
+  /**
+   * Builds the response of a bulk request: 200 when every item succeeded, 207 otherwise.
+   *
+   * @param results of every item
+   * @return response with the results as body
+   */
+  public static ResponseEntity<List<PatchResultDTO>> convertToBulkResponse(
+      List<PatchResultDTO> results) {
+    var status =
+        results.stream().allMatch(PatchResultDTO::isSuccessful)
+            ? HttpStatus.OK
+            : HttpStatus.MULTI_STATUS;
+
+    return ResponseEntity.status(status).body(results);
+  }
+
+  /**
+   * Checks the number of items of a bulk request.
+   *
+   * @param items of the request
+   * @throws BulkRequestNotValidException when there are no items or more than {@link
+   *     #MAX_BULK_ITEMS}
+   */
+  public static void validateBulkSize(Collection<?> items) {
+    if (items == null || items.isEmpty() || items.size() > MAX_BULK_ITEMS)
+      throw new BulkRequestNotValidException(MAX_BULK_ITEMS);
+  }
+
+  /**
+   * Splits a list into consecutive chunks.
+   *
+   * @param items to split
+   * @param size of every chunk but the last one
+   * @return views of the list, in order
+   */
+  public static <T> List<List<T>> chunks(List<T> items, int size) {
+    List<List<T>> chunks = new ArrayList<>();
+
+    for (int from = 0; from < items.size(); from += size)
+      chunks.add(items.subList(from, Math.min(from + size, items.size())));
+
+    return chunks;
+  }
+
+  private record Timestamp(long millis, String text) {}
 }
@@ -0,0 +1,7 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+/** Datasource a connection is routed to. */
+public enum DataSourceTarget {
+  PRIMARY,
+  REPLICA
+}
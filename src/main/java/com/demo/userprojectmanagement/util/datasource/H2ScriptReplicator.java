@@ -0,0 +1,181 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for database replication: copies the primary H2 database into the replica with {@code
+ * SCRIPT}, either on demand or at a fixed interval, so reads routed to the replica lag behind the
+ * writes by up to that interval. The whole database is copied every time, which is only meant for
+ * development and tests.
+ *
+ * <p>The data of every table is replaced within one replica transaction, so readers see either the
+ * previous or the new copy. When the schema changes the replica is rebuilt from scratch.
+ *
+ * <p>Exposes the {@code datasource.replica.sync} time and the {@code datasource.replica.lag} gauge,
+ * the seconds since the copy currently served by the replica was taken.
+ */
+@Slf4j
+public class H2ScriptReplicator {
+  private static final Pattern IDENTITY_RESTART = Pattern.compile(" RESTART WITH \\d+");
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final ReplicaProperties properties;
+  private final Timer syncTimer;
+  private volatile long lastCopyNanos = System.nanoTime();
+  private String appliedSchema;
+  private ScheduledExecutorService scheduler;
+
+  public H2ScriptReplicator(
+      DataSource primary,
+      DataSource replica,
+      ReplicaProperties properties,
+      MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.properties = properties;
+    this.syncTimer =
+        Timer.builder("datasource.replica.sync")
+            .description("Time spent copying the primary database into the replica")
+            .register(meterRegistry);
+
+    Gauge.builder("datasource.replica.lag", this, H2ScriptReplicator::getLagSeconds)
+        .description("Age of the copy served by the replica")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    sync();
+
+    if (properties.getSyncInterval().isZero()) return;
+
+    long interval = properties.getSyncInterval().toNanos();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "replica-sync");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (scheduler != null) scheduler.shutdownNow();
+  }
+
+  /** Copies the current content of the primary into the replica. */
+  public synchronized void sync() {
+    syncTimer.record(
+        () -> {
+          long copyStart = System.nanoTime();
+
+          try {
+            var statements = script();
+            var schema = new ArrayList<String>();
+            var data = new ArrayList<String>();
+
+            for (String statement : statements) {
+              if (statement.startsWith("INSERT INTO ")) data.add(statement);
+              else schema.add(statement);
+            }
+
+            var schemaKey = IDENTITY_RESTART.matcher(String.join("\n", schema)).replaceAll("");
+
+            if (schemaKey.equals(appliedSchema)) {
+              replaceData(data);
+            } else {
+              rebuild(statements);
+              appliedSchema = schemaKey;
+            }
+
+            lastCopyNanos = copyStart;
+          } catch (SQLException e) {
+            throw new IllegalStateException("Replica sync failed", e);
+          }
+        });
+  }
+
+  double getLagSeconds() {
+    return (System.nanoTime() - lastCopyNanos) / 1e9;
+  }
+
+  private List<String> script() throws SQLException {
+    List<String> statements = new ArrayList<>();
+
+    try (Connection connection = primary.getConnection();
+        Statement statement = connection.createStatement();
+        var result = statement.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS")) {
+      while (result.next()) {
+        var sql = result.getString(1);
+        if (!sql.startsWith("--")) statements.add(sql);
+      }
+    }
+
+    return statements;
+  }
+
+  private void rebuild(List<String> statements) throws SQLException {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP ALL OBJECTS");
+
+      for (String sql : statements) statement.execute(sql);
+    }
+  }
+
+  private void replaceData(List<String> data) throws SQLException {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement()) {
+      List<String> tables = new ArrayList<>();
+
+      try (var result =
+          statement.executeQuery(
+              "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'")) {
+        while (result.next()) tables.add(result.getString(1));
+      }
+
+      // the tables are emptied and refilled in any order, then committed at once
+      statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+      connection.setAutoCommit(false);
+
+      try {
+        for (String table : tables) statement.execute("DELETE FROM \"PUBLIC\".\"" + table + "\"");
+        for (String sql : data) statement.execute(sql);
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+        statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+      }
+    }
+  }
+
+  private void syncQuietly() {
+    try {
+      sync();
+    } catch (RuntimeException e) {
+      log.error("Replica sync failed", e);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resizes a Hikari pool from its load, in a feedback loop. Every sample measures, since the
+ * previous one, the mean time spent getting a connection, the connections in use on average and the
+ * mean latency of the HTTP requests, then the pool grows, shrinks or keeps its size:
+ *
+ * <ul>
+ *   <li>it grows by {@code step} connections while the wait is above {@code target-wait} or threads
+ *       are waiting, up to {@code max-size};
+ *   <li>when the request latency after a growth is worse than before it by more than {@code
+ *       latency-tolerance}, the growth is undone and the pool does not grow past that size until it
+ *       shrinks again: connections beyond what the database can serve only queue on it;
+ *   <li>it shrinks by one connection after {@code shrink-after} samples with less than {@code
+ *       idle-ratio} of its connections in use, down to {@code min-size}.
+ * </ul>
+ *
+ * The pool is kept at a fixed size, its minimum idle connections equal to its maximum, so the
+ * connections of a growth are opened right away. Lowering the maximum does not stop Hikari from
+ * lending the connections it already has, so after a shrink every sample closes the idle
+ * connections beyond the size, one by one; those in use are closed on a later sample. The pool is
+ * never emptied, which would close an in-memory database with its last connection.
+ *
+ * <p>Signals come from the {@code hikaricp.connections.acquire} and {@code
+ * hikaricp.connections.usage} timers of the pool and the {@code http.server.requests} timers.
+ * Exposes, per {@code pool}, the {@code datasource.pool.size} gauge, the {@code
+ * datasource.pool.decisions} count per {@code decision} and {@code reason}, and the {@code
+ * datasource.pool.wait} and {@code datasource.pool.busy} gauges of the last sample.
+ */
+@Slf4j
+public class PoolSizeController {
+  enum Decision {
+    GROW,
+    SHRINK,
+    HOLD
+  }
+
+  /**
+   * Load of the pool between two samples.
+   *
+   * @param waitMillis mean time spent getting a connection
+   * @param busy connections in use, on average
+   * @param waiting threads waiting for a connection when sampled
+   * @param latencyMillis mean latency of the requests, NaN without requests
+   */
+  record Sample(double waitMillis, double busy, int waiting, double latencyMillis) {}
+
+  private final HikariDataSource pool;
+  private final PoolSizingProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final String poolName;
+
+  private volatile int size;
+  private int ceiling;
+  private int idleSamples;
+  private boolean grew;
+  private double latencyBeforeGrowth = Double.NaN;
+  private volatile Sample lastSample = new Sample(0, 0, 0, Double.NaN);
+
+  private long lastNanos = System.nanoTime();
+  private Totals lastAcquire = Totals.NONE;
+  private Totals lastUsage = Totals.NONE;
+  private Totals lastRequests = Totals.NONE;
+
+  public PoolSizeController(
+      HikariDataSource pool, PoolSizingProperties properties, MeterRegistry meterRegistry) {
+    this.pool = pool;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.poolName = pool.getPoolName();
+    this.size =
+        Math.max(
+            properties.getMinSize(), Math.min(properties.getMaxSize(), pool.getMaximumPoolSize()));
+    this.ceiling = properties.getMaxSize();
+    resize(size);
+
+    Gauge.builder("datasource.pool.size", this, PoolSizeController::getSize)
+        .description("Connections of the pool, as last resized")
+        .tag("pool", poolName)
+        .register(meterRegistry);
+    Gauge.builder("datasource.pool.wait", this, controller -> controller.lastSample.waitMillis())
+        .description("Mean time spent getting a connection, as of the last sample")
+        .tag("pool", poolName)
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    Gauge.builder("datasource.pool.busy", this, controller -> controller.lastSample.busy())
+        .description("Connections in use on average, as of the last sample")
+        .tag("pool", poolName)
+        .register(meterRegistry);
+  }
+
+  /** Samples the load of the pool, then grows, shrinks or keeps it. */
+  public synchronized Decision adjust() {
+    var sample = sample();
+    int previous = size;
+    var decision = decide(sample);
+
+    if (size != previous) {
+      resize(size);
+      log.debug("Pool {} resized from {} to {} after {}", poolName, previous, size, sample);
+    }
+    retireSurplus();
+
+    return decision;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /** Decides the size of the pool after a sample, see the class comment. */
+  synchronized Decision decide(Sample sample) {
+    lastSample = sample;
+
+    if (grew
+        && sample.latencyMillis() > latencyBeforeGrowth * (1 + properties.getLatencyTolerance())) {
+      grew = false;
+      ceiling = Math.max(properties.getMinSize(), size - properties.getStep());
+      return record(Decision.SHRINK, "latency", ceiling);
+    }
+    grew = false;
+
+    double targetWait = properties.getTargetWait().toNanos() / 1e6;
+
+    if (sample.waitMillis() > targetWait || sample.waiting() > 0) {
+      idleSamples = 0;
+
+      if (size >= properties.getMaxSize()) return record(Decision.HOLD, "max", size);
+      if (size >= ceiling) return record(Decision.HOLD, "latency", size);
+
+      grew = true;
+      latencyBeforeGrowth = sample.latencyMillis();
+      return record(Decision.GROW, "wait", Math.min(ceiling, size + properties.getStep()));
+    }
+
+    if (sample.busy() < size * properties.getIdleRatio()) {
+      if (size <= properties.getMinSize()) return record(Decision.HOLD, "min", size);
+      if (++idleSamples < properties.getShrinkAfter()) return record(Decision.HOLD, "idle", size);
+
+      idleSamples = 0;
+      ceiling = properties.getMaxSize();
+      return record(Decision.SHRINK, "idle", size - 1);
+    }
+
+    idleSamples = 0;
+    return record(Decision.HOLD, "steady", size);
+  }
+
+  private Decision record(Decision decision, String reason, int newSize) {
+    size = newSize;
+    Counter.builder("datasource.pool.decisions")
+        .description("Decisions taken on the size of the pool")
+        .tag("pool", poolName)
+        .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+
+    return decision;
+  }
+
+  private Sample sample() {
+    long now = System.nanoTime();
+    var acquire =
+        Totals.of(meterRegistry.find("hikaricp.connections.acquire").tag("pool", poolName));
+    var usage = Totals.of(meterRegistry.find("hikaricp.connections.usage").tag("pool", poolName));
+    var requests = Totals.of(meterRegistry.find("http.server.requests"));
+    var poolBean = pool.getHikariPoolMXBean();
+
+    double wait = acquire.minus(lastAcquire).mean();
+    var sample =
+        new Sample(
+            Double.isNaN(wait) ? 0 : wait,
+            usage.minus(lastUsage).totalMillis() / ((now - lastNanos) / 1e6),
+            poolBean == null ? 0 : poolBean.getThreadsAwaitingConnection(),
+            requests.minus(lastRequests).mean());
+
+    lastNanos = now;
+    lastAcquire = acquire;
+    lastUsage = usage;
+    lastRequests = requests;
+
+    return sample;
+  }
+
+  private void resize(int newSize) {
+    var config = pool.getHikariConfigMXBean();
+
+    if (newSize < config.getMaximumPoolSize()) {
+      config.setMinimumIdle(newSize);
+      config.setMaximumPoolSize(newSize);
+    } else {
+      config.setMaximumPoolSize(newSize);
+      config.setMinimumIdle(newSize);
+    }
+  }
+
+  /**
+   * Closes the idle connections beyond the size of the pool. Each one is borrowed without waiting,
+   * then evicted; Hikari does not replace it as the pool is at its maximum.
+   */
+  private void retireSurplus() {
+    if (!(pool.getHikariPoolMXBean() instanceof HikariPool hikariPool)) return;
+
+    while (hikariPool.getTotalConnections() > size && hikariPool.getIdleConnections() > 0) {
+      try {
+        hikariPool.evictConnection(hikariPool.getConnection(0));
+      } catch (SQLException e) {
+        log.debug("Pool {} has no idle connection left to retire", poolName);
+        return;
+      }
+    }
+  }
+
+  /** Cumulative count and time of timers. */
+  private record Totals(long count, double totalMillis) {
+    static final Totals NONE = new Totals(0, 0);
+
+    static Totals of(Search search) {
+      long count = 0;
+      double totalMillis = 0;
+
+      for (Timer timer : search.timers()) {
+        count += timer.count();
+        totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+      }
+
+      return new Totals(count, totalMillis);
+    }
+
+    Totals minus(Totals previous) {
+      return new Totals(count - previous.count, totalMillis - previous.totalMillis);
+    }
+
+    double mean() {
+      return count == 0 ? Double.NaN : totalMillis / count;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/** Runs the {@link PoolSizeController} of every pool at a fixed interval. */
+@Slf4j
+public class PoolSizer {
+  private final List<PoolSizeController> controllers;
+  private final Duration interval;
+  private ScheduledExecutorService scheduler;
+
+  public PoolSizer(List<PoolSizeController> controllers, Duration interval) {
+    this.controllers = controllers;
+    this.interval = interval;
+  }
+
+  @PostConstruct
+  void start() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "pool-sizing");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::adjustQuietly, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (scheduler != null) scheduler.shutdownNow();
+  }
+
+  public List<PoolSizeController> getControllers() {
+    return controllers;
+  }
+
+  private void adjustQuietly() {
+    for (var controller : controllers) {
+      try {
+        controller.adjust();
+      } catch (RuntimeException e) {
+        log.warn("Pool sizing failed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.pool-sizing")
+public class PoolSizingProperties {
+  /** Whether the connection pools are resized from their load, within the bounds below. */
+  private boolean enabled = false;
+
+  /** Smallest size a pool is shrunk to. */
+  private int minSize = 2;
+
+  /** Largest size a pool is grown to. */
+  private int maxSize = 20;
+
+  /** Time between two samples of a pool, each followed by a decision. */
+  private Duration interval = Duration.ofSeconds(5);
+
+  /** Mean time to get a connection above which the pool grows. */
+  private Duration targetWait = Duration.ofMillis(5);
+
+  /** Connections added by a growth. Shrinking removes one at a time. */
+  private int step = 2;
+
+  /** Share of the connections in use, on average, below which the pool is idle. */
+  private double idleRatio = 0.5;
+
+  /** Consecutive idle samples before the pool shrinks. */
+  private int shrinkAfter = 3;
+
+  /**
+   * Increase of the request latency after a growth, as a fraction, beyond which the growth is
+   * undone: more connections only made them compete for the same database.
+   */
+  private double latencyTolerance = 0.25;
+}
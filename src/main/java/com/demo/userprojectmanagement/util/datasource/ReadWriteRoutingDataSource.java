@@ -0,0 +1,51 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to the replica and every other connection to the
+ * primary. The routing decision is taken when the connection is obtained, so it has to be wrapped
+ * in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the read-only
+ * flag of the transaction to be known at that point.
+ *
+ * <p>Every routed connection is counted by {@code datasource.routing}, tagged with the {@code
+ * target}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+  private final Map<DataSourceTarget, Counter> routed = new EnumMap<>(DataSourceTarget.class);
+
+  public ReadWriteRoutingDataSource(
+      DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+    setTargetDataSources(
+        Map.of(DataSourceTarget.PRIMARY, primary, DataSourceTarget.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+
+    for (DataSourceTarget target : DataSourceTarget.values()) {
+      routed.put(
+          target,
+          Counter.builder("datasource.routing")
+              .description("Connections obtained from the primary or the replica datasource")
+              .tag("target", target.name().toLowerCase())
+              .register(meterRegistry));
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    var target =
+        TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            ? DataSourceTarget.REPLICA
+            : DataSourceTarget.PRIMARY;
+
+    routed.get(target).increment();
+
+    return target;
+  }
+}
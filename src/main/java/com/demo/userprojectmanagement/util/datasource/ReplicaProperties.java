@@ -0,0 +1,19 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+  /** JDBC url of the read datasource, read/write routing is enabled only when it is set. */
+  private String url;
+
+  private String username = "sa";
+
+  private String password = "";
+
+  /** Time between two copies of the primary into the replica, zero to copy only on demand. */
+  private Duration syncInterval = Duration.ofSeconds(1);
+}
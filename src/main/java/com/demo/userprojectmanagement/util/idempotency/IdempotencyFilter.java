@@ -0,0 +1,258 @@
+package com.demo.userprojectmanagement.util.idempotency;
+
+import com.demo.userprojectmanagement.exception.ApiError;
+import com.demo.userprojectmanagement.exception.ApiExceptionHandler;
+import com.demo.userprojectmanagement.util.idempotency.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Makes the create and membership endpoints safe to retry. A request carrying an {@code
+ * Idempotency-Key} header is executed once per authenticated user, method, path and key; retries
+ * get the stored response back without reaching the controllers, and duplicates that arrive while
+ * the first request is still running wait for its response.
+ *
+ * <p>Reusing a key with a different body is rejected with 422. Responses with a 5xx status are not
+ * stored so that the request can be retried.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final List<Endpoint> ENDPOINTS =
+      List.of(
+          new Endpoint(HttpMethod.POST, "/v1/users"),
+          new Endpoint(HttpMethod.POST, "/v1/projects"),
+          new Endpoint(HttpMethod.PUT, "/v1/projects/*/users/assign"),
+          new Endpoint(HttpMethod.PUT, "/v1/projects/*/users/unassign"));
+
+  private final IdempotencyStore store;
+  private final IdempotencyProperties properties;
+  private final ObjectMapper objectMapper;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  public IdempotencyFilter(
+      IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper) {
+    this.store = store;
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!properties.isEnabled() || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) return true;
+
+    String path = urlPathHelper.getPathWithinApplication(request);
+
+    return ENDPOINTS.stream().noneMatch(e -> e.matches(request.getMethod(), path, pathMatcher));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+    byte[] fingerprint = digest(body);
+    String key = scopedKey(request);
+
+    while (true) {
+      var entry = store.reserve(key, fingerprint);
+
+      if (entry.isOwner()) {
+        execute(entry, new CachedBodyRequest(request, body), response, filterChain);
+        return;
+      }
+
+      if (!entry.matches(fingerprint)) {
+        log.error(
+            String.format("status %s. idempotency key reused", HttpStatus.UNPROCESSABLE_ENTITY));
+        writeError(
+            response,
+            HttpStatus.UNPROCESSABLE_ENTITY,
+            ApiExceptionHandler.IDEMPOTENCY_KEY_REUSED_MESSAGE);
+        return;
+      }
+
+      StoredResponse stored;
+      try {
+        stored =
+            entry.getResponse().get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        log.error(String.format("status %s. idempotent request in progress", HttpStatus.CONFLICT));
+        writeError(
+            response, HttpStatus.CONFLICT, ApiExceptionHandler.IDEMPOTENCY_KEY_IN_PROGRESS_MESSAGE);
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        writeError(
+            response, HttpStatus.CONFLICT, ApiExceptionHandler.IDEMPOTENCY_KEY_IN_PROGRESS_MESSAGE);
+        return;
+      } catch (ExecutionException e) {
+        throw new ServletException(e.getCause());
+      }
+
+      if (stored != null) {
+        replay(stored, response);
+        return;
+      }
+      // the first request failed and released the key: execute this one instead
+    }
+  }
+
+  private void execute(
+      IdempotencyStore.Entry entry,
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain)
+      throws ServletException, IOException {
+    var responseWrapper = new ContentCachingResponseWrapper(response);
+    boolean stored = false;
+
+    try {
+      filterChain.doFilter(request, responseWrapper);
+
+      if (responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+        store.complete(
+            entry,
+            new StoredResponse(
+                responseWrapper.getStatus(),
+                responseWrapper.getContentType(),
+                responseWrapper.getContentAsByteArray()));
+        stored = true;
+      }
+    } finally {
+      if (!stored) store.release(entry);
+
+      responseWrapper.copyBodyToResponse();
+    }
+  }
+
+  private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+    log.info(String.format("Idempotent response replayed. Response status: %s", stored.status()));
+
+    response.setStatus(stored.status());
+    response.setHeader(IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString());
+    if (stored.contentType() != null) response.setContentType(stored.contentType());
+    response.setContentLength(stored.body().length);
+    response.getOutputStream().write(stored.body());
+  }
+
+  private void writeError(HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    ApiError.of(status, message).writeTo(response, objectMapper);
+  }
+
+  private String scopedKey(HttpServletRequest request) {
+    String principal =
+        request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : "anonymous";
+
+    return String.join(
+        " ",
+        principal,
+        request.getMethod(),
+        urlPathHelper.getPathWithinApplication(request),
+        request.getHeader(IDEMPOTENCY_KEY_HEADER));
+  }
+
+  private static byte[] digest(byte[] body) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(body);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Endpoint(HttpMethod method, String pattern) {
+    boolean matches(String requestMethod, String path, AntPathMatcher pathMatcher) {
+      return method.matches(requestMethod) && pathMatcher.match(pattern, path);
+    }
+  }
+
+  /** Request whose body was already read and is served again from memory. */
+  private static class CachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      var input = new ByteArrayInputStream(body);
+
+      return new ServletInputStream() {
+        @Override
+        public boolean isFinished() {
+          return input.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        /** The whole body is already available: notifies the listener at once. */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          try {
+            readListener.onDataAvailable();
+            readListener.onAllDataRead();
+          } catch (IOException e) {
+            readListener.onError(e);
+          }
+        }
+
+        @Override
+        public int read() {
+          return input.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return input.read(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      Charset charset =
+          getCharacterEncoding() != null
+              ? Charset.forName(getCharacterEncoding())
+              : StandardCharsets.UTF_8;
+
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+  }
+}
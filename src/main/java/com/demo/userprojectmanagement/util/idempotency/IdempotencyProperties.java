@@ -0,0 +1,21 @@
+package com.demo.userprojectmanagement.util.idempotency;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+  /** Whether the {@code Idempotency-Key} header is honoured. */
+  private boolean enabled = true;
+
+  /** Maximum number of stored responses, least recently written ones are evicted first. */
+  private long maxEntries = 10_000;
+
+  /** How long a stored response can be replayed. */
+  private Duration ttl = Duration.ofHours(1);
+
+  /** How long a duplicate request waits for the first one before giving up with 409. */
+  private Duration waitTimeout = Duration.ofSeconds(30);
+}
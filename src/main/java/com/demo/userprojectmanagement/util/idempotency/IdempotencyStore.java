@@ -0,0 +1,109 @@
+package com.demo.userprojectmanagement.util.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory store of the responses produced for idempotency keys. Entries expire after the
+ * configured TTL and the store never holds more than the configured number of keys.
+ *
+ * <p>A key is reserved by the first request that uses it; concurrent duplicates receive the same
+ * {@link Entry} and wait on its response future instead of executing again.
+ */
+@Component
+public class IdempotencyStore {
+  private final Cache<String, Entry> entries;
+
+  public IdempotencyStore(IdempotencyProperties properties) {
+    this.entries =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .expireAfterWrite(properties.getTtl())
+            .build();
+  }
+
+  /**
+   * Reserves the given key for a request with the given fingerprint.
+   *
+   * @param key scoped idempotency key
+   * @param fingerprint digest of the request body
+   * @return a new entry owned by the caller, or the entry of the request that used the key first
+   */
+  public Entry reserve(String key, byte[] fingerprint) {
+    var candidate = new Entry(key, fingerprint, true);
+    var existing = entries.asMap().putIfAbsent(key, candidate);
+    return existing == null ? candidate : existing.asFollower();
+  }
+
+  /**
+   * Stores the response of an owned entry and releases the requests waiting on it.
+   *
+   * @param entry owned entry
+   * @param response to be replayed
+   */
+  public void complete(Entry entry, StoredResponse response) {
+    entry.response.complete(response);
+  }
+
+  /**
+   * Forgets an owned entry whose request failed, so that a retry executes again.
+   *
+   * @param entry owned entry
+   */
+  public void release(Entry entry) {
+    entries.asMap().remove(entry.key, entry);
+    entry.response.complete(null);
+  }
+
+  public long size() {
+    entries.cleanUp();
+    return entries.estimatedSize();
+  }
+
+  /** Reservation of an idempotency key. */
+  public static final class Entry {
+    private final String key;
+    private final byte[] fingerprint;
+    private final boolean owner;
+    private final CompletableFuture<StoredResponse> response;
+
+    private Entry(String key, byte[] fingerprint, boolean owner) {
+      this(key, fingerprint, owner, new CompletableFuture<>());
+    }
+
+    private Entry(
+        String key, byte[] fingerprint, boolean owner, CompletableFuture<StoredResponse> response) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.owner = owner;
+      this.response = response;
+    }
+
+    private Entry asFollower() {
+      return new Entry(key, fingerprint, false, response);
+    }
+
+    /** True when the caller reserved the key and has to execute the request. */
+    public boolean isOwner() {
+      return owner;
+    }
+
+    public boolean matches(byte[] otherFingerprint) {
+      return Arrays.equals(fingerprint, otherFingerprint);
+    }
+
+    /**
+     * Response of the request that owns the key. Completes with {@code null} when that request
+     * failed and the key was released.
+     */
+    public CompletableFuture<StoredResponse> getResponse() {
+      return response;
+    }
+  }
+
+  /** Status, content type and body of a completed request. */
+  public record StoredResponse(int status, String contentType, byte[] body) {}
+}
@@ -0,0 +1,13 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+/** Kind of endpoint a request targets, each one with its own bucket per principal. */
+public enum EndpointClass {
+  READ,
+  WRITE;
+
+  public static EndpointClass of(String method) {
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? READ : WRITE;
+  }
+}
@@ -0,0 +1,42 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to read and change the rate limits at runtime, e.g. {@code POST
+ * /actuator/ratelimits/write} with {@code {"capacity": 100, "refillPerSecond": 50}}.
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+  private final RateLimiter rateLimiter;
+
+  public RateLimitEndpoint(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  @ReadOperation
+  public Map<EndpointClass, RateLimitProperties.Limit> limits() {
+    Map<EndpointClass, RateLimitProperties.Limit> limits = new EnumMap<>(EndpointClass.class);
+
+    for (EndpointClass endpointClass : EndpointClass.values()) {
+      limits.put(endpointClass, rateLimiter.getLimit(endpointClass));
+    }
+
+    return limits;
+  }
+
+  @WriteOperation
+  public RateLimitProperties.Limit update(
+      @Selector EndpointClass endpointClass, long capacity, double refillPerSecond) {
+    rateLimiter.updateLimit(endpointClass, capacity, refillPerSecond);
+
+    return rateLimiter.getLimit(endpointClass);
+  }
+}
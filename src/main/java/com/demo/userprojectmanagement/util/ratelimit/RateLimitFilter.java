@@ -0,0 +1,75 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import com.demo.userprojectmanagement.exception.ApiError;
+import com.demo.userprojectmanagement.exception.ApiExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Rejects API requests of a principal that exhausted its bucket with 429 and a {@code Retry-After}
+ * header. Registered in the security filter chain right after authentication, so no request reaches
+ * the controllers or the database once the limit is hit.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final String API_PATH_PREFIX = "/v1/";
+
+  private final RateLimiter rateLimiter;
+  private final ObjectMapper objectMapper;
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+    this.rateLimiter = rateLimiter;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !rateLimiter.isEnabled()
+        || !urlPathHelper.getPathWithinApplication(request).startsWith(API_PATH_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    if (authentication == null
+        || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long wait =
+        rateLimiter.tryAcquire(authentication.getName(), EndpointClass.of(request.getMethod()));
+
+    if (wait == 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+
+    log.error(String.format("status %s. rate limit exceeded", HttpStatus.TOO_MANY_REQUESTS));
+
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    ApiError.of(
+            HttpStatus.TOO_MANY_REQUESTS,
+            String.format(ApiExceptionHandler.RATE_LIMIT_EXCEEDED_MESSAGE, retryAfter))
+        .writeTo(response, objectMapper);
+  }
+}
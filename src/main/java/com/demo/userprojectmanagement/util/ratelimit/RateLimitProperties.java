@@ -0,0 +1,34 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+  /** Whether requests are rate limited. */
+  private boolean enabled = true;
+
+  /** Limit applied to GET and HEAD requests of each principal. */
+  private volatile Limit read = new Limit(200, 100);
+
+  /** Limit applied to the remaining requests of each principal. */
+  private volatile Limit write = new Limit(50, 25);
+
+  public Limit get(EndpointClass endpointClass) {
+    return endpointClass == EndpointClass.READ ? read : write;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+    /** Maximum burst of requests. */
+    private long capacity;
+
+    /** Sustained number of requests per second. */
+    private double refillPerSecond;
+  }
+}
@@ -0,0 +1,95 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps one {@link TokenBucket} per principal and endpoint class. Buckets of principals that stop
+ * sending requests are evicted after a while; a new bucket starts full.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+  private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(10);
+
+  private final RateLimitProperties properties;
+  private final LongSupplier clock;
+  private final Cache<BucketKey, TokenBucket> buckets =
+      Caffeine.newBuilder().expireAfterAccess(IDLE_BUCKET_EXPIRY).build();
+  private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+  @Autowired
+  public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+    this(properties, meterRegistry, System::nanoTime);
+  }
+
+  RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+    this.properties = properties;
+    this.clock = clock;
+
+    for (EndpointClass endpointClass : EndpointClass.values()) {
+      rejected.put(
+          endpointClass,
+          Counter.builder("ratelimit.rejected")
+              .description("Requests rejected with 429 by the rate limiter")
+              .tag("class", endpointClass.name().toLowerCase())
+              .register(meterRegistry));
+    }
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Takes a token from the bucket of the given principal and endpoint class.
+   *
+   * @param principal name of the authenticated user
+   * @param endpointClass of the request
+   * @return 0 when the request is allowed, otherwise the nanoseconds to wait before retrying
+   */
+  public long tryAcquire(String principal, EndpointClass endpointClass) {
+    long now = clock.getAsLong();
+    var limit = properties.get(endpointClass);
+    var bucket = buckets.get(new BucketKey(principal, endpointClass), k -> new TokenBucket(now));
+    long wait = bucket.tryAcquire(now, limit.getCapacity(), limit.getRefillPerSecond());
+
+    if (wait > 0) rejected.get(endpointClass).increment();
+
+    return wait;
+  }
+
+  /**
+   * Replaces the limit of an endpoint class. Existing buckets use it from their next request.
+   *
+   * @param endpointClass to be reconfigured
+   * @param capacity maximum burst of requests
+   * @param refillPerSecond sustained number of requests per second
+   */
+  public void updateLimit(EndpointClass endpointClass, long capacity, double refillPerSecond) {
+    if (capacity < 1 || refillPerSecond <= 0)
+      throw new IllegalArgumentException("capacity and refill rate must be positive");
+
+    var limit = new RateLimitProperties.Limit(capacity, refillPerSecond);
+
+    if (endpointClass == EndpointClass.READ) properties.setRead(limit);
+    else properties.setWrite(limit);
+
+    log.info(String.format("Rate limit for %s requests updated to %s", endpointClass, limit));
+  }
+
+  public RateLimitProperties.Limit getLimit(EndpointClass endpointClass) {
+    return properties.get(endpointClass);
+  }
+
+  private record BucketKey(String principal, EndpointClass endpointClass) {}
+}
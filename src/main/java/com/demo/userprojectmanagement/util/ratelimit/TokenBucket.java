@@ -0,0 +1,43 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the whole state is the
+ * theoretical arrival time of the next request, updated with a single compare-and-set.
+ *
+ * <p>The limit is passed on every call, so a reconfigured limit applies to existing buckets
+ * straight away.
+ */
+public class TokenBucket {
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final AtomicLong theoreticalArrival;
+
+  public TokenBucket(long nowNanos) {
+    this.theoreticalArrival = new AtomicLong(nowNanos);
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @param nowNanos current time in nanoseconds
+   * @param capacity maximum burst of requests
+   * @param refillPerSecond sustained number of requests per second
+   * @return 0 when a token was taken, otherwise the nanoseconds until the next token is available
+   */
+  public long tryAcquire(long nowNanos, long capacity, double refillPerSecond) {
+    long emissionInterval = Math.max(1L, (long) (NANOS_PER_SECOND / refillPerSecond));
+    long burstTolerance = emissionInterval * Math.max(0L, capacity - 1);
+
+    while (true) {
+      long current = theoreticalArrival.get();
+      long arrival = Math.max(current, nowNanos);
+      long wait = arrival - nowNanos - burstTolerance;
+
+      if (wait > 0) return wait;
+
+      if (theoreticalArrival.compareAndSet(current, arrival + emissionInterval)) return 0;
+    }
+  }
+}
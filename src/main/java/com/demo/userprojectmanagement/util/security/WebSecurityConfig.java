@@ -2,6 +2,10 @@ package com.demo.userprojectmanagement.util.security;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import com.demo.userprojectmanagement.util.ratelimit.RateLimitFilter;
+import com.demo.userprojectmanagement.util.ratelimit.RateLimiter;
+import com.demo.userprojectmanagement.util.timing.SecurityTimingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,17 +18,23 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 public class WebSecurityConfig {
 
   @Bean
-  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+  SecurityFilterChain securityFilterChain(
+      HttpSecurity http, RateLimiter rateLimiter, ObjectMapper objectMapper) throws Exception {
     return http.csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(authorizeRequests -> authorizeRequests.anyRequest().authenticated())
         .sessionManagement(
             session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .httpBasic(withDefaults())
+        .addFilterAfter(
+            new RateLimitFilter(rateLimiter, objectMapper), BasicAuthenticationFilter.class)
+        .addFilterAfter(new SecurityTimingFilter(), AuthorizationFilter.class)
         .build();
   }
 
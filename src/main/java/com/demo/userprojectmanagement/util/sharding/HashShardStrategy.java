@@ -0,0 +1,30 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+/** Shard {@code k} owns the ids {@code k + 1}, {@code k + 1 + n}, {@code k + 1 + 2n}... */
+public class HashShardStrategy implements ShardStrategy {
+  private final int shards;
+
+  public HashShardStrategy(int shards) {
+    this.shards = shards;
+  }
+
+  @Override
+  public int shardOf(long id) {
+    return (int) Math.floorMod(id - 1, (long) shards);
+  }
+
+  @Override
+  public long firstId(int shard) {
+    return shard + 1L;
+  }
+
+  @Override
+  public long increment() {
+    return shards;
+  }
+
+  @Override
+  public long lastId(int shard) {
+    return Long.MAX_VALUE - shards + shard + 1;
+  }
+}
@@ -0,0 +1,32 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+/** Shard {@code k} owns the ids from {@code k * size + 1} to {@code (k + 1) * size}. */
+public class RangeShardStrategy implements ShardStrategy {
+  private final int shards;
+  private final long size;
+
+  public RangeShardStrategy(int shards, long size) {
+    this.shards = shards;
+    this.size = size;
+  }
+
+  @Override
+  public int shardOf(long id) {
+    return (int) Math.min(Math.max(id - 1, 0) / size, shards - 1);
+  }
+
+  @Override
+  public long firstId(int shard) {
+    return shard * size + 1;
+  }
+
+  @Override
+  public long increment() {
+    return 1;
+  }
+
+  @Override
+  public long lastId(int shard) {
+    return (shard + 1) * size;
+  }
+}
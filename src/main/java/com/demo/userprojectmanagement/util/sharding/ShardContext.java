@@ -0,0 +1,26 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+/** Shard used by the connections obtained on the current thread, the first one by default. */
+public final class ShardContext {
+  private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {}
+
+  public static int current() {
+    Integer shard = CURRENT.get();
+    return shard == null ? 0 : shard;
+  }
+
+  /**
+   * @param shard to use from now on, null to go back to the default one
+   * @return the shard used before
+   */
+  static Integer set(Integer shard) {
+    Integer previous = CURRENT.get();
+
+    if (shard == null) CURRENT.remove();
+    else CURRENT.set(shard);
+
+    return previous;
+  }
+}
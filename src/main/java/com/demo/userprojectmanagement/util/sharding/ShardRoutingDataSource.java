@@ -0,0 +1,45 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the shard of the current {@link ShardContext}. Connections obtained outside
+ * of any shard, like the ones used to build the schema, go to the first shard.
+ *
+ * <p>Every routed connection is counted by {@code datasource.shard.routing}, tagged with the {@code
+ * shard} index.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+  private final Counter[] routed;
+
+  public ShardRoutingDataSource(List<DataSource> shards, MeterRegistry meterRegistry) {
+    Map<Object, Object> targets = new HashMap<>();
+    routed = new Counter[shards.size()];
+
+    for (int i = 0; i < shards.size(); i++) {
+      targets.put(i, shards.get(i));
+      routed[i] =
+          Counter.builder("datasource.shard.routing")
+              .description("Connections obtained from each shard")
+              .tag("shard", String.valueOf(i))
+              .register(meterRegistry);
+    }
+
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(shards.get(0));
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    int shard = ShardContext.current();
+    routed[shard].increment();
+    return shard;
+  }
+}
@@ -0,0 +1,77 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies the schema built by Hibernate on the first shard to the shards that have none yet, then
+ * configures the identity column of the users table of every shard so that it only generates the
+ * ids owned by the shard.
+ */
+@Slf4j
+public class ShardSchemaInitializer {
+  private final List<DataSource> shards;
+  private final ShardStrategy strategy;
+
+  public ShardSchemaInitializer(List<DataSource> shards, ShardStrategy strategy) {
+    this.shards = shards;
+    this.strategy = strategy;
+  }
+
+  @PostConstruct
+  void initialize() throws SQLException {
+    List<String> schema = new ArrayList<>();
+
+    try (Connection connection = shards.get(0).getConnection();
+        Statement statement = connection.createStatement();
+        var result = statement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+      while (result.next()) {
+        var sql = result.getString(1);
+        if (!sql.startsWith("--")) schema.add(sql);
+      }
+    }
+
+    for (int shard = 0; shard < shards.size(); shard++) {
+      try (Connection connection = shards.get(shard).getConnection();
+          Statement statement = connection.createStatement()) {
+        if (!hasUsersTable(statement)) {
+          for (String sql : schema) statement.execute(sql);
+          log.info(String.format("Schema copied to shard %s", shard));
+        }
+
+        long maxId;
+        try (var result = statement.executeQuery("SELECT COALESCE(MAX(ID), 0) FROM USERS")) {
+          result.next();
+          maxId = result.getLong(1);
+        }
+
+        statement.execute(
+            String.format(
+                "ALTER TABLE USERS ALTER COLUMN ID RESTART WITH %s",
+                strategy.nextId(shard, maxId)));
+        statement.execute(
+            String.format(
+                "ALTER TABLE USERS ALTER COLUMN ID SET INCREMENT BY %s", strategy.increment()));
+        statement.execute(
+            String.format(
+                "ALTER TABLE USERS ALTER COLUMN ID SET MAXVALUE %s", strategy.lastId(shard)));
+      }
+    }
+  }
+
+  private static boolean hasUsersTable(Statement statement) throws SQLException {
+    try (var result =
+        statement.executeQuery(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES"
+                + " WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'USERS'")) {
+      result.next();
+      return result.getInt(1) > 0;
+    }
+  }
+}
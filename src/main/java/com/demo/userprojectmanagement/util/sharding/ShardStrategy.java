@@ -0,0 +1,54 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+/**
+ * Maps ids to shards. Every shard generates the ids it owns, so the identity column of each shard
+ * is configured from {@link #firstId(int)} and {@link #increment()} and ids stay globally unique.
+ */
+public interface ShardStrategy {
+  /**
+   * @param id of a row
+   * @return index of the shard owning the id
+   */
+  int shardOf(long id);
+
+  /**
+   * @param shard index
+   * @return first id generated by the shard
+   */
+  long firstId(int shard);
+
+  /**
+   * @return step between two ids generated by the same shard
+   */
+  long increment();
+
+  /**
+   * @param shard index
+   * @return last id the shard may generate
+   */
+  long lastId(int shard);
+
+  /**
+   * Next id to generate on a shard that already holds rows.
+   *
+   * @param shard index
+   * @param maxId highest id already stored on the shard
+   * @return first id owned by the shard greater than {@code maxId}
+   */
+  default long nextId(int shard, long maxId) {
+    long first = firstId(shard);
+
+    if (maxId < first) return first;
+
+    return first + ((maxId - first) / increment() + 1) * increment();
+  }
+
+  static ShardStrategy of(ShardingProperties properties) {
+    int shards = properties.getShards().size();
+
+    return switch (properties.getStrategy()) {
+      case HASH -> new HashShardStrategy(shards);
+      case RANGE -> new RangeShardStrategy(shards, properties.getRangeSize());
+    };
+  }
+}
@@ -0,0 +1,285 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs repository work on the shard owning the data. Every call runs in its own transaction on the
+ * target shard, read-only when the calling transaction is read-only. Reads spanning all the shards
+ * run in parallel and their results are merged.
+ *
+ * <p>Callers are expected to run within a transaction, which is then left unused, so that the work
+ * of each shard gets its own persistence context.
+ *
+ * <p>When sharding is disabled there is a single shard and the work runs as is, in the calling
+ * transaction, so callers do not need to tell both cases apart.
+ *
+ * <p>Exposes the {@code sharding.scatter} time of the reads sent to every shard.
+ */
+@Component
+public class ShardTemplate {
+  /** Shard that answers reads of the data copied to every shard. */
+  public static final int REFERENCE_SHARD = 0;
+
+  private final boolean enabled;
+  private final int shardCount;
+  private final ShardStrategy strategy;
+  private final PlatformTransactionManager transactionManager;
+  private final AtomicInteger nextShard = new AtomicInteger();
+  private final ExecutorService scatterExecutor;
+  private final Timer scatterTimer;
+
+  public ShardTemplate(
+      ShardingProperties properties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.enabled = properties.isEnabled();
+    this.shardCount = enabled ? properties.getShards().size() : 1;
+    this.strategy = enabled ? ShardStrategy.of(properties) : null;
+    this.transactionManager = transactionManager;
+    this.scatterExecutor =
+        enabled
+            ? Executors.newFixedThreadPool(
+                shardCount,
+                runnable -> {
+                  var thread = new Thread(runnable, "shard-scatter");
+                  thread.setDaemon(true);
+                  return thread;
+                })
+            : null;
+    this.scatterTimer =
+        Timer.builder("sharding.scatter")
+            .description("Time spent reading from every shard and merging the results")
+            .register(meterRegistry);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (scatterExecutor != null) scatterExecutor.shutdownNow();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  /**
+   * @param id of a user
+   * @return index of the shard storing it
+   */
+  public int shardOf(long id) {
+    return enabled ? strategy.shardOf(id) : 0;
+  }
+
+  /**
+   * @return index of the shard where the next new user is stored, shards are used in turn
+   */
+  public int shardForNewRow() {
+    return enabled ? Math.floorMod(nextShard.getAndIncrement(), shardCount) : 0;
+  }
+
+  /**
+   * Runs the work on the given shard.
+   *
+   * @param shard index
+   * @param work to run
+   * @return result of the work
+   */
+  public <T> T onShard(int shard, Supplier<T> work) {
+    if (!enabled) return work.get();
+
+    return execute(shard, TransactionSynchronizationManager.isCurrentTransactionReadOnly(), work);
+  }
+
+  /**
+   * Runs work that opens its own connections, and manages its own transactions, against the given
+   * shard. Meant for maintenance work done below the repositories.
+   *
+   * @param shard index
+   * @param work to run
+   * @return result of the work
+   */
+  public <T> T withConnectionsOf(int shard, Supplier<T> work) {
+    if (!enabled) return work.get();
+
+    var previous = ShardContext.set(shard);
+
+    try {
+      return work.get();
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+
+  /**
+   * Runs the work on every shard, one after the other.
+   *
+   * @param work to run, receiving the shard index
+   * @return result of every shard, indexed by shard
+   */
+  public <T> List<T> onEachShard(IntFunction<T> work) {
+    List<T> results = new ArrayList<>(shardCount);
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      int current = shard;
+      results.add(onShard(shard, () -> work.apply(current)));
+    }
+
+    return results;
+  }
+
+  /**
+   * Runs a read on every shard in parallel.
+   *
+   * @param work to run, receiving the shard index
+   * @return result of every shard, indexed by shard
+   */
+  public <T> List<T> scatter(IntFunction<T> work) {
+    if (!enabled) return Collections.singletonList(work.apply(0));
+
+    long start = System.nanoTime();
+    var futures =
+        IntStream.range(0, shardCount)
+            .mapToObj(
+                shard ->
+                    CompletableFuture.supplyAsync(
+                        () -> execute(shard, true, () -> work.apply(shard)), scatterExecutor))
+            .toList();
+
+    try {
+      return futures.stream().map(CompletableFuture::join).toList();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    } finally {
+      scatterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Looks for a single row on every shard.
+   *
+   * @param lookup to run on each shard
+   * @return the first row found, in shard order
+   */
+  public <T> Optional<T> findFirst(Supplier<Optional<T>> lookup) {
+    return scatter(shard -> lookup.get()).stream().flatMap(Optional::stream).findFirst();
+  }
+
+  /**
+   * Loads rows by id, each id from its own shard.
+   *
+   * @param ids to load
+   * @param loader loading the ids of one shard
+   * @return the rows found on every shard
+   */
+  public <T> List<T> findAllById(Collection<Long> ids, Function<Collection<Long>, List<T>> loader) {
+    if (!enabled) return loader.apply(ids);
+
+    Map<Integer, List<Long>> idsByShard =
+        ids.stream().distinct().collect(Collectors.groupingBy(this::shardOf));
+
+    return scatter(
+            shard ->
+                idsByShard.containsKey(shard) ? loader.apply(idsByShard.get(shard)) : List.<T>of())
+        .stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  /**
+   * Reads a page from every shard and merges them. Each shard returns its first {@code offset +
+   * size} rows in the requested order, which are merged and cut to the requested page, so deep
+   * pages get more expensive. Rows are compared on their sort properties, or keys when they are
+   * maps.
+   *
+   * @param pageable requested page, sorted by id when no order is given
+   * @param query returning a page of one shard
+   * @return the merged page, with the total of all the shards
+   */
+  public <T> Page<T> findAll(Pageable pageable, Function<Pageable, Page<T>> query) {
+    if (!enabled) return query.apply(pageable);
+
+    var sort = pageable.getSort().and(Sort.by("id"));
+    int window = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+    var pages = scatter(shard -> query.apply(PageRequest.of(0, window, sort)));
+    long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+    List<T> content =
+        pages.stream()
+            .flatMap(page -> page.getContent().stream())
+            .sorted(comparator(sort))
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .toList();
+
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private <T> T execute(int shard, boolean readOnly, Supplier<T> work) {
+    var previous = ShardContext.set(shard);
+
+    try {
+      var transaction = new TransactionTemplate(transactionManager);
+      transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+      transaction.setReadOnly(readOnly);
+
+      return transaction.execute(status -> work.get());
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Comparator<T> comparator(Sort sort) {
+    Comparator<T> comparator = (a, b) -> 0;
+
+    for (Sort.Order order : sort) {
+      Comparator<T> byProperty =
+          Comparator.comparing(
+              row ->
+                  (Comparable)
+                      (row instanceof Map<?, ?> map
+                          ? map.get(order.getProperty())
+                          : new BeanWrapperImpl(row).getPropertyValue(order.getProperty())),
+              Comparator.nullsFirst(Comparator.naturalOrder()));
+
+      comparator =
+          comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+    }
+
+    return comparator;
+  }
+}
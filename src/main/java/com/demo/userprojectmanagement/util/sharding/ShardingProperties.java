@@ -0,0 +1,36 @@
+package com.demo.userprojectmanagement.util.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+  /** Whether users are spread across the configured shards instead of {@code spring.datasource}. */
+  private boolean enabled = false;
+
+  /** How a user id is mapped to its shard. */
+  private Strategy strategy = Strategy.HASH;
+
+  /** Number of consecutive ids owned by each shard with the range strategy. */
+  private long rangeSize = 1_000_000;
+
+  /** Datasources of the shards, the first one also builds the schema. */
+  private List<Shard> shards = new ArrayList<>();
+
+  public enum Strategy {
+    /** Ids are spread by their remainder modulo the number of shards. */
+    HASH,
+    /** Every shard owns a block of {@code range-size} consecutive ids. */
+    RANGE
+  }
+
+  @Data
+  public static class Shard {
+    private String url;
+    private String username = "sa";
+    private String password = "";
+  }
+}
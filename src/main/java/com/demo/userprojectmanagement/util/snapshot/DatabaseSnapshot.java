@@ -0,0 +1,216 @@
+package com.demo.userprojectmanagement.util.snapshot;
+
+import com.demo.userprojectmanagement.util.datasource.H2ScriptReplicator;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-memory database across restarts: users, projects, memberships and tombstones are
+ * written to a {@link SnapshotFile} every {@code app.snapshot.interval} and when the application
+ * stops, and restored into the empty database at startup, before the application is ready.
+ *
+ * <p>Each shard is written within a single repeatable read transaction, so the snapshot of a shard
+ * is consistent. A database that already holds users or projects is not restored. A snapshot that
+ * can not be read stops the startup, rather than going on with an empty database that would
+ * overwrite the snapshot on shutdown.
+ *
+ * <p>Exposes the {@code snapshot.write} and {@code snapshot.restore} times and the {@code
+ * snapshot.restore.rows} gauge.
+ */
+@Slf4j
+public class DatabaseSnapshot {
+  private final SnapshotProperties properties;
+  private final DataSource dataSource;
+  private final ShardTemplate shards;
+  private final H2ScriptReplicator replicator;
+  private final Timer writeTimer;
+  private final Timer restoreTimer;
+  private final AtomicLong restoredRows = new AtomicLong();
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param replicator of the read replica, refreshed once restored; {@code null} without replica
+   */
+  public DatabaseSnapshot(
+      SnapshotProperties properties,
+      DataSource dataSource,
+      ShardTemplate shards,
+      H2ScriptReplicator replicator,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.dataSource = dataSource;
+    this.shards = shards;
+    this.replicator = replicator;
+    this.writeTimer =
+        Timer.builder("snapshot.write")
+            .description("Time spent writing the database to the snapshot file")
+            .register(meterRegistry);
+    this.restoreTimer =
+        Timer.builder("snapshot.restore")
+            .description("Time spent restoring the database from the snapshot file")
+            .register(meterRegistry);
+
+    Gauge.builder("snapshot.restore.rows", restoredRows, AtomicLong::get)
+        .description("Rows restored from the snapshot file at startup")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (properties.isRestoreOnStartup()) restore();
+
+    if (properties.getInterval().isZero()) return;
+
+    long interval = properties.getInterval().toNanos();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "database-snapshot");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(this::writeQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (scheduler != null) scheduler.shutdownNow();
+    if (properties.isWriteOnShutdown()) writeQuietly();
+  }
+
+  /** Writes the snapshot file of every shard. */
+  public synchronized void write() {
+    writeTimer.record(
+        () -> {
+          for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            var path = pathOf(shard);
+            long start = System.nanoTime();
+
+            var counts =
+                onShard(
+                    shard,
+                    connection -> {
+                      connection.setAutoCommit(false);
+                      connection.setReadOnly(true);
+                      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+                      try {
+                        return SnapshotFile.write(connection, path);
+                      } finally {
+                        connection.rollback();
+                      }
+                    });
+
+            log.info(
+                "Snapshot {} written in {} ms: {}",
+                path,
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                counts);
+          }
+        });
+  }
+
+  /** Fills the empty database of every shard from its snapshot file, when there is one. */
+  public void restore() {
+    restoreTimer.record(
+        () -> {
+          long restored = 0;
+
+          for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            var path = pathOf(shard);
+
+            if (!Files.exists(path)) {
+              log.info("No snapshot at {}, starting with the current database", path);
+              continue;
+            }
+
+            long start = System.nanoTime();
+            var counts =
+                onShard(
+                    shard,
+                    connection -> {
+                      if (!isEmpty(connection)) return null;
+
+                      connection.setAutoCommit(false);
+                      return SnapshotFile.restore(path, connection, properties.getBatchSize());
+                    });
+
+            if (counts == null) {
+              log.warn("Snapshot {} not restored, the database already holds data", path);
+              continue;
+            }
+
+            long rows = counts.values().stream().mapToLong(Long::longValue).sum();
+            long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            restored += rows;
+
+            log.info(
+                "Snapshot {} restored in {} ms, {} rows/s: {}",
+                path,
+                millis,
+                millis == 0 ? rows : rows * 1000 / millis,
+                counts);
+          }
+
+          restoredRows.set(restored);
+        });
+
+    if (replicator != null && restoredRows.get() > 0) replicator.sync();
+  }
+
+  private void writeQuietly() {
+    try {
+      write();
+    } catch (RuntimeException e) {
+      log.error("Snapshot failed", e);
+    }
+  }
+
+  private Path pathOf(int shard) {
+    var path = properties.getPath();
+    return shards.isEnabled() ? path.resolveSibling(path.getFileName() + "." + shard) : path;
+  }
+
+  private <T> T onShard(int shard, ConnectionWork<T> work) {
+    return shards.withConnectionsOf(
+        shard,
+        () -> {
+          try (var connection = dataSource.getConnection()) {
+            return work.apply(connection);
+          } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Snapshot of shard " + shard + " failed", e);
+          }
+        });
+  }
+
+  private static boolean isEmpty(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement();
+        var result =
+            statement.executeQuery(
+                "SELECT (SELECT COUNT(*) FROM users) + (SELECT COUNT(*) FROM projects)")) {
+      result.next();
+      return result.getLong(1) == 0;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionWork<T> {
+    T apply(Connection connection) throws IOException, SQLException;
+  }
+}
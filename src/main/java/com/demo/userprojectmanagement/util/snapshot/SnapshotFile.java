@@ -0,0 +1,369 @@
+package com.demo.userprojectmanagement.util.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary copy of the tables of a database. The file starts with a header (magic number, version and
+ * creation time), then holds every table in turn: its name, each row prefixed by a marker byte, an
+ * end marker and the row count. It ends with the CRC32 of everything before it.
+ *
+ * <p>Values are written in their binary form: ids as 8 bytes, strings as their UTF-8 length and
+ * bytes ({@code -1} for null) and times as microseconds since the epoch ({@link Long#MIN_VALUE} for
+ * null). Files are read through a memory mapping, so they are limited to 2 GB.
+ */
+public final class SnapshotFile {
+  static final int MAGIC = 0x55504d53;
+  static final int VERSION = 2;
+
+  private static final byte ROW = 1;
+  private static final byte END = 0;
+  private static final long NULL_TIME = Long.MIN_VALUE;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int FETCH_SIZE = 1000;
+
+  /** Rows per insert statement: H2 parses and plans one statement for all of them. */
+  private static final int ROWS_PER_STATEMENT = 100;
+
+  private enum ColumnType {
+    LONG,
+    STRING,
+    TIME
+  }
+
+  /** Tables copied, in the order they are restored. */
+  enum Table {
+    USERS(
+        "users",
+        true,
+        new String[] {"id", "name", "email", "updated_at", "deleted_at"},
+        new ColumnType[] {
+          ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.TIME, ColumnType.TIME
+        }),
+    PROJECTS(
+        "projects",
+        true,
+        new String[] {"id", "name", "description", "updated_at", "deleted_at"},
+        new ColumnType[] {
+          ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.TIME, ColumnType.TIME
+        }),
+    PROJECT_BY_USER(
+        "project_by_user",
+        false,
+        new String[] {"project_id", "user_id"},
+        new ColumnType[] {ColumnType.LONG, ColumnType.LONG}),
+    TOMBSTONES(
+        "tombstones",
+        true,
+        new String[] {"id", "entity_type", "entity_id", "deleted_at"},
+        new ColumnType[] {ColumnType.LONG, ColumnType.STRING, ColumnType.LONG, ColumnType.TIME});
+
+    private final String tableName;
+    private final boolean identity;
+    private final String[] columns;
+    private final ColumnType[] types;
+
+    Table(String tableName, boolean identity, String[] columns, ColumnType[] types) {
+      this.tableName = tableName;
+      this.identity = identity;
+      this.columns = columns;
+      this.types = types;
+    }
+
+    String getTableName() {
+      return tableName;
+    }
+
+    private String select() {
+      return "SELECT " + String.join(", ", columns) + " FROM " + tableName;
+    }
+
+    private String insert(int rows) {
+      var row =
+          Arrays.stream(columns).map(column -> "?").collect(Collectors.joining(", ", "(", ")"));
+
+      return "INSERT INTO "
+          + tableName
+          + " ("
+          + String.join(", ", columns)
+          + ") VALUES "
+          + String.join(", ", Collections.nCopies(rows, row));
+    }
+  }
+
+  private SnapshotFile() {}
+
+  /**
+   * Copies the tables to a file. The copy is written next to it and then moved in place, so the
+   * previous file is kept until the new one is complete.
+   *
+   * @param connection to read from, within a transaction that sees every table at the same point
+   * @param path of the file
+   * @return number of rows written per table
+   */
+  public static Map<String, Long> write(Connection connection, Path path)
+      throws IOException, SQLException {
+    if (path.getParent() != null) Files.createDirectories(path.getParent());
+
+    var temp = path.resolveSibling(path.getFileName() + ".tmp");
+    var crc = new CRC32();
+    Map<String, Long> counts = new LinkedHashMap<>();
+
+    try (var file = new FileOutputStream(temp.toFile())) {
+      var out =
+          new DataOutputStream(
+              new BufferedOutputStream(new CheckedOutputStream(file, crc), BUFFER_SIZE));
+
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(System.currentTimeMillis());
+
+      for (Table table : Table.values()) {
+        writeString(out, table.tableName);
+        counts.put(table.tableName, writeRows(connection, table, out));
+      }
+
+      out.flush();
+      new DataOutputStream(file).writeInt((int) crc.getValue());
+      file.getFD().sync();
+    }
+
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    return Collections.unmodifiableMap(counts);
+  }
+
+  /**
+   * Inserts the rows of a file into empty tables, a hundred rows per statement and committing about
+   * every {@code batchSize} rows, then moves the identity columns past the restored ids.
+   *
+   * @param path of the file
+   * @param connection to write to, in manual commit mode
+   * @param batchSize rows per transaction
+   * @return number of rows restored per table
+   * @throws IOException when the file is not a complete snapshot
+   */
+  public static Map<String, Long> restore(Path path, Connection connection, int batchSize)
+      throws IOException, SQLException {
+    Map<String, Long> counts = new LinkedHashMap<>();
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IOException(path + " is larger than 2 GB");
+      if (size < 20) throw new IOException(path + " is not a snapshot");
+
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int end = (int) size - Integer.BYTES;
+
+      var crc = new CRC32();
+      crc.update(buffer.slice(0, end));
+      if ((int) crc.getValue() != buffer.getInt(end))
+        throw new IOException(path + " is corrupted, its checksum does not match");
+
+      if (buffer.getInt() != MAGIC) throw new IOException(path + " is not a snapshot");
+      int version = buffer.getInt();
+      if (version != VERSION)
+        throw new IOException(path + " has the unsupported version " + version);
+      buffer.getLong();
+
+      for (Table table : Table.values()) {
+        var name = readString(buffer);
+        if (!table.tableName.equals(name))
+          throw new IOException(path + " holds " + name + " where " + table.tableName + " was due");
+
+        counts.put(table.tableName, restoreRows(buffer, table, connection, batchSize));
+      }
+    }
+
+    for (Table table : Table.values()) {
+      if (table.identity) restartIdentity(connection, table);
+    }
+    connection.commit();
+
+    return Collections.unmodifiableMap(counts);
+  }
+
+  private static long writeRows(Connection connection, Table table, DataOutputStream out)
+      throws IOException, SQLException {
+    long count = 0;
+
+    try (var statement = connection.createStatement()) {
+      statement.setFetchSize(FETCH_SIZE);
+
+      try (ResultSet result = statement.executeQuery(table.select())) {
+        while (result.next()) {
+          out.writeByte(ROW);
+          for (int i = 0; i < table.types.length; i++)
+            writeValue(out, table.types[i], result, i + 1);
+          count++;
+        }
+      }
+    }
+
+    out.writeByte(END);
+    out.writeLong(count);
+    return count;
+  }
+
+  private static long restoreRows(
+      ByteBuffer buffer, Table table, Connection connection, int batchSize)
+      throws IOException, SQLException {
+    long count = 0;
+
+    try (var statement = connection.prepareStatement(table.insert(ROWS_PER_STATEMENT))) {
+      int pending = 0;
+      int inStatement = 0;
+      int statementStart = buffer.position();
+
+      while (buffer.get() == ROW) {
+        readRow(buffer, table, statement, inStatement * table.types.length);
+        count++;
+
+        if (++inStatement == ROWS_PER_STATEMENT) {
+          statement.addBatch();
+          inStatement = 0;
+          statementStart = buffer.position();
+          pending += ROWS_PER_STATEMENT;
+
+          if (pending >= batchSize) {
+            statement.executeBatch();
+            connection.commit();
+            pending = 0;
+          }
+        }
+      }
+
+      if (pending > 0) statement.executeBatch();
+
+      // The last rows do not fill a statement, they are read again one row per statement
+      if (inStatement > 0) {
+        buffer.position(statementStart);
+
+        try (var single = connection.prepareStatement(table.insert(1))) {
+          while (buffer.get() == ROW) {
+            readRow(buffer, table, single, 0);
+            single.addBatch();
+          }
+          single.executeBatch();
+        }
+      }
+
+      connection.commit();
+    }
+
+    long written = buffer.getLong();
+    if (written != count)
+      throw new IOException(table.tableName + " holds " + count + " rows instead of " + written);
+
+    return count;
+  }
+
+  /** Identity columns generate ids after the restored ones, with the step they were set up with. */
+  private static void restartIdentity(Connection connection, Table table) throws SQLException {
+    long maxId;
+    try (var statement = connection.createStatement();
+        var result = statement.executeQuery("SELECT MAX(id) FROM " + table.tableName)) {
+      result.next();
+      maxId = result.getLong(1);
+      if (result.wasNull()) return;
+    }
+
+    long increment;
+    try (var statement =
+        connection.prepareStatement(
+            "SELECT IDENTITY_INCREMENT FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = 'ID'")) {
+      statement.setString(1, table.tableName.toUpperCase());
+
+      try (var result = statement.executeQuery()) {
+        increment = result.next() ? result.getLong(1) : 1;
+      }
+    }
+
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          String.format(
+              "ALTER TABLE %s ALTER COLUMN id RESTART WITH %s",
+              table.tableName, maxId + Math.max(increment, 1)));
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, ColumnType type, ResultSet result, int index)
+      throws IOException, SQLException {
+    switch (type) {
+      case LONG -> out.writeLong(result.getLong(index));
+      case STRING -> writeString(out, result.getString(index));
+      case TIME -> {
+        var time = result.getObject(index, Instant.class);
+        out.writeLong(
+            time == null ? NULL_TIME : time.getEpochSecond() * 1_000_000 + time.getNano() / 1000);
+      }
+    }
+  }
+
+  private static void readRow(
+      ByteBuffer buffer, Table table, PreparedStatement statement, int offset) throws SQLException {
+    for (int i = 0; i < table.types.length; i++)
+      readValue(buffer, table.types[i], statement, offset + i + 1);
+  }
+
+  private static void readValue(
+      ByteBuffer buffer, ColumnType type, PreparedStatement statement, int index)
+      throws SQLException {
+    switch (type) {
+      case LONG -> statement.setLong(index, buffer.getLong());
+      case STRING -> statement.setString(index, readString(buffer));
+      case TIME -> {
+        long micros = buffer.getLong();
+        if (micros == NULL_TIME) statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        else
+          statement.setObject(
+              index,
+              Instant.ofEpochSecond(
+                  Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1000L));
+      }
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) return null;
+
+    var bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
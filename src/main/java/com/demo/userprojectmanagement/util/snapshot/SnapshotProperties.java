@@ -0,0 +1,28 @@
+package com.demo.userprojectmanagement.util.snapshot;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.snapshot")
+public class SnapshotProperties {
+  /** Whether the database is written to a snapshot file and restored from it. */
+  private boolean enabled;
+
+  /** Snapshot file. With sharding, every shard has its own file, suffixed with its index. */
+  private Path path = Path.of("data", "taskdb.snapshot");
+
+  /** How often a snapshot is written. Zero writes it only on shutdown. */
+  private Duration interval = Duration.ZERO;
+
+  /** Whether a snapshot is written when the application stops. */
+  private boolean writeOnShutdown = true;
+
+  /** Whether an empty database is filled from the snapshot at startup. */
+  private boolean restoreOnStartup = true;
+
+  /** Rows inserted per JDBC batch, and per transaction, when restoring. */
+  private int batchSize = 5000;
+}
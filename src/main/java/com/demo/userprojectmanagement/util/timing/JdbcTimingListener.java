@@ -0,0 +1,36 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the execution time of every SQL statement and JDBC batch of a Hibernate session to the
+ * timings of the current request. Hibernate creates one instance per session.
+ */
+public class JdbcTimingListener extends BaseSessionEventListener {
+  private long executeStart;
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    executeStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    record();
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    executeStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    record();
+  }
+
+  private void record() {
+    var timings = RequestTimings.current();
+    if (timings != null) timings.addStatement(System.nanoTime() - executeStart);
+  }
+}
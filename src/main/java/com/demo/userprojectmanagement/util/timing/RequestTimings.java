@@ -0,0 +1,84 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import java.util.Locale;
+
+/**
+ * Time spent by a sampled request in each layer, accumulated on the request thread and rendered as
+ * a {@code Server-Timing} header. The durations overlap: repository calls include their SQL
+ * statements, and serialization happens within the request total.
+ *
+ * <p>Only the request thread is measured, the reads that sharding runs in parallel on other threads
+ * are not counted.
+ */
+public final class RequestTimings {
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+  private final long start = System.nanoTime();
+  private long securityNanos = -1;
+  private long repositoryNanos;
+  private long jdbcNanos;
+  private int statements;
+  private long serializationNanos;
+
+  private RequestTimings() {}
+
+  /**
+   * @return the timings of the request running on this thread, {@code null} when it is not sampled
+   */
+  public static RequestTimings current() {
+    return CURRENT.get();
+  }
+
+  static RequestTimings start() {
+    var timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  static void clear() {
+    CURRENT.remove();
+  }
+
+  /** Marks the end of the security filter chain, only the first call counts. */
+  public void securityPassed() {
+    if (securityNanos < 0) securityNanos = System.nanoTime() - start;
+  }
+
+  public void addRepository(long nanos) {
+    repositoryNanos += nanos;
+  }
+
+  public void addStatement(long nanos) {
+    jdbcNanos += nanos;
+    statements++;
+  }
+
+  public void addSerialization(long nanos) {
+    serializationNanos += nanos;
+  }
+
+  /**
+   * @return the {@code Server-Timing} header value, the security time is the whole request when it
+   *     was rejected by the security filter chain
+   */
+  String toHeader() {
+    long total = System.nanoTime() - start;
+    long security = securityNanos < 0 ? total : securityNanos;
+
+    return metric("security", security)
+        + ", "
+        + metric("repo", repositoryNanos)
+        + ", "
+        + metric("db", jdbcNanos)
+        + ";desc=\""
+        + statements
+        + " statements\", "
+        + metric("ser", serializationNanos)
+        + ", "
+        + metric("total", total);
+  }
+
+  private static String metric(String name, long nanos) {
+    return name + ";dur=" + String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+}
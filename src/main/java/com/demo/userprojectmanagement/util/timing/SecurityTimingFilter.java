@@ -0,0 +1,22 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/** Last filter of the security filter chain, marks the end of the security time of the request. */
+public class SecurityTimingFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    var timings = RequestTimings.current();
+    if (timings != null) timings.securityPassed();
+
+    filterChain.doFilter(request, response);
+  }
+}
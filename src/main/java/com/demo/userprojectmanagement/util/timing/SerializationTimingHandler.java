@@ -0,0 +1,45 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Decorates a return value handler writing response bodies, adding the time spent converting and
+ * writing the body to the timings of the current request.
+ */
+public class SerializationTimingHandler implements HandlerMethodReturnValueHandler {
+  private final HandlerMethodReturnValueHandler delegate;
+
+  public SerializationTimingHandler(HandlerMethodReturnValueHandler delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean supportsReturnType(MethodParameter returnType) {
+    return delegate.supportsReturnType(returnType);
+  }
+
+  @Override
+  public void handleReturnValue(
+      Object returnValue,
+      MethodParameter returnType,
+      ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest)
+      throws Exception {
+    var timings = RequestTimings.current();
+
+    if (timings == null) {
+      delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+    } finally {
+      timings.addSerialization(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Measures a sample of the requests and adds a {@code Server-Timing} header with the time spent in
+ * the security filter chain, repositories, SQL statements and response serialization, and the
+ * number of statements.
+ *
+ * <p>Runs right before the security filter chain. The body of a sampled response is buffered so
+ * that the header can be added once it is written, or when an error is sent; requests outside the
+ * sample are not touched.
+ */
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+  private static final String EVENT_STREAM_PATH = "/v1/events";
+
+  private final ServerTimingProperties properties;
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  public ServerTimingFilter(ServerTimingProperties properties) {
+    this.properties = properties;
+  }
+
+  /** Event streams are left out, their body is never complete. */
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (urlPathHelper.getPathWithinApplication(request).startsWith(EVENT_STREAM_PATH)) return true;
+
+    double sampleRate = properties.getSampleRate();
+
+    return sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    var timings = RequestTimings.start();
+    var timedResponse = new TimedResponse(response, timings);
+
+    try {
+      filterChain.doFilter(request, timedResponse);
+    } finally {
+      RequestTimings.clear();
+    }
+
+    timedResponse.addServerTiming();
+    timedResponse.copyBodyToResponse();
+  }
+
+  /** Buffers the body and adds the header before the response gets committed. */
+  private static class TimedResponse extends ContentCachingResponseWrapper {
+    private final RequestTimings timings;
+
+    private TimedResponse(HttpServletResponse response, RequestTimings timings) {
+      super(response);
+      this.timings = timings;
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      addServerTiming();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      addServerTiming();
+      super.sendError(sc, msg);
+    }
+
+    private void addServerTiming() {
+      if (!isCommitted()) setHeader(SERVER_TIMING_HEADER, timings.toHeader());
+    }
+  }
+}
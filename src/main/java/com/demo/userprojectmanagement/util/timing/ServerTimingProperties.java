@@ -0,0 +1,14 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.server-timing")
+public class ServerTimingProperties {
+  /** Whether sampled responses carry a {@code Server-Timing} header. */
+  private boolean enabled = true;
+
+  /** Fraction of the requests that are measured, between 0 and 1. */
+  private double sampleRate = 0.01;
+}
@@ -0,0 +1,68 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import lombok.extern.slf4j.Slf4j;
+
+/** Appends the exported spans to a file as JSON lines, see {@link SpanRecord}. */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+  private final ObjectMapper objectMapper;
+  private final BufferedWriter writer;
+
+  public FileSpanExporter(Path path, ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+
+    try {
+      if (path.getParent() != null) Files.createDirectories(path.getParent());
+      this.writer =
+          Files.newBufferedWriter(
+              path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Span file " + path + " can not be opened", e);
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        writer.write(objectMapper.writeValueAsString(SpanRecord.of(span)));
+        writer.newLine();
+      }
+      writer.flush();
+
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.error(String.format("%s span/s not written", spans.size()), e);
+
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      writer.close();
+
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+}
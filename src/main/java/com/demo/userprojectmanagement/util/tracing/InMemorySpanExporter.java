@@ -0,0 +1,55 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/** Keeps the latest exported spans, dropping the oldest ones once the capacity is reached. */
+public class InMemorySpanExporter implements SpanExporter {
+  private final int capacity;
+
+  /** Guarded by {@code this}. */
+  private final Deque<SpanRecord> spans = new ArrayDeque<>();
+
+  public InMemorySpanExporter(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> exported) {
+    for (SpanData span : exported) {
+      if (spans.size() == capacity) spans.removeFirst();
+      spans.addLast(SpanRecord.of(span));
+    }
+
+    return CompletableResultCode.ofSuccess();
+  }
+
+  /**
+   * @return the spans kept, in export order
+   */
+  public synchronized List<SpanRecord> getSpans() {
+    return new ArrayList<>(spans);
+  }
+
+  public synchronized void clear() {
+    spans.clear();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    clear();
+
+    return CompletableResultCode.ofSuccess();
+  }
+}
@@ -0,0 +1,107 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+/**
+ * Observes a controller, service or repository call, so that the trace of a request shows the path
+ * it took down to each repository query. Each call becomes a span named after the class and method,
+ * which the tracer writes as {@code user-service.find-by-id}, and a {@value #OBSERVATION_NAME}
+ * timer tagged with the {@code layer}, {@code class} and {@code method}.
+ *
+ * <p>Spans carry the id arguments ({@code param.id}, {@code param.projectId}...), the number of
+ * items of collection arguments ({@code param.userIds.count}), the requested {@code page.number}
+ * and {@code page.size}, and the {@code rows} returned as a page, collection or optional. Names and
+ * emails are left out of the spans.
+ *
+ * <p>Controllers and services are observed by the {@link TracingAspect}, repositories by the {@link
+ * RepositoryInterceptor} added to their proxies.
+ */
+@Component
+public class InvocationObserver {
+  public static final String OBSERVATION_NAME = "app.invocation";
+
+  private final ObservationRegistry registry;
+
+  public InvocationObserver(ObservationRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * @param layer of the call, {@code controller}, {@code service} or {@code repository}
+   * @param className of the called bean, without proxy suffix
+   * @param method called
+   * @param args of the call
+   * @param invocation proceeding with the call
+   * @return the result of the call
+   */
+  public Object observe(
+      String layer, String className, Method method, Object[] args, Invocation invocation)
+      throws Throwable {
+    if (registry.isNoop()) return invocation.proceed();
+
+    var observation =
+        Observation.createNotStarted(OBSERVATION_NAME, registry)
+            .contextualName(className + "." + method.getName())
+            .lowCardinalityKeyValue("layer", layer)
+            .lowCardinalityKeyValue("class", className)
+            .lowCardinalityKeyValue("method", method.getName());
+
+    addArguments(observation, method.getParameters(), args);
+    observation.start();
+
+    try (var scope = observation.openScope()) {
+      var result = invocation.proceed();
+      rows(result).ifPresent(rows -> observation.highCardinalityKeyValue("rows", rows));
+      return result;
+    } catch (Throwable e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+  }
+
+  private static void addArguments(Observation observation, Parameter[] parameters, Object[] args) {
+    for (int i = 0; i < args.length; i++) {
+      String name = parameters[i].getName();
+      Object arg = args[i];
+
+      if (arg instanceof Pageable pageable && pageable.isPaged()) {
+        observation.highCardinalityKeyValue(
+            "page.number", Integer.toString(pageable.getPageNumber()));
+        observation.highCardinalityKeyValue("page.size", Integer.toString(pageable.getPageSize()));
+      } else if (arg instanceof Collection<?> collection) {
+        observation.highCardinalityKeyValue(
+            "param." + name + ".count", Integer.toString(collection.size()));
+      } else if ((arg instanceof Long || arg instanceof Integer)
+          && name.toLowerCase().endsWith("id")) {
+        observation.highCardinalityKeyValue("param." + name, arg.toString());
+      }
+    }
+  }
+
+  private static Optional<String> rows(Object result) {
+    if (result instanceof Slice<?> slice)
+      return Optional.of(Integer.toString(slice.getNumberOfElements()));
+    if (result instanceof Collection<?> collection)
+      return Optional.of(Integer.toString(collection.size()));
+    if (result instanceof Optional<?> optional)
+      return Optional.of(optional.isPresent() ? "1" : "0");
+
+    return Optional.empty();
+  }
+
+  /** The observed call, proceeding through an AspectJ join point or an AOP method invocation. */
+  @FunctionalInterface
+  public interface Invocation {
+    Object proceed() throws Throwable;
+  }
+}
@@ -0,0 +1,46 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import com.demo.userprojectmanagement.util.timing.RequestTimings;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Advice added to the proxy of every repository, the only wrapper of repository calls: it times the
+ * call for the {@code Server-Timing} header of a sampled request and observes it as a span of the
+ * {@code repository} layer.
+ */
+public class RepositoryInterceptor implements MethodInterceptor {
+  private final String repositoryName;
+  private final Supplier<InvocationObserver> observer;
+
+  /**
+   * @param repositoryName simple name of the repository interface, e.g. {@code UserRepository}
+   * @param observer of the calls, looked up on the first call as the repositories are created first
+   */
+  public RepositoryInterceptor(String repositoryName, ObjectProvider<InvocationObserver> observer) {
+    this.repositoryName = repositoryName;
+    this.observer = SingletonSupplier.of(observer::getObject);
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    var timings = RequestTimings.current();
+    long start = System.nanoTime();
+
+    try {
+      return observer
+          .get()
+          .observe(
+              "repository",
+              repositoryName,
+              invocation.getMethod(),
+              invocation.getArguments(),
+              invocation::proceed);
+    } finally {
+      if (timings != null) timings.addRepository(System.nanoTime() - start);
+    }
+  }
+}
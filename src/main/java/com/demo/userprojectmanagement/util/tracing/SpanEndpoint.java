@@ -0,0 +1,91 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+/**
+ * Actuator endpoint serving the spans kept by the {@link InMemorySpanExporter} as trees, latest
+ * trace first: {@code GET /actuator/spans} lists the traces and {@code GET
+ * /actuator/spans/{traceId}} returns a single one. {@code DELETE /actuator/spans} drops the spans
+ * kept so far.
+ *
+ * <p>A span whose parent was not kept, or not exported yet, is shown as a root of its trace.
+ */
+@Endpoint(id = "spans")
+public class SpanEndpoint {
+  private final InMemorySpanExporter exporter;
+
+  public SpanEndpoint(InMemorySpanExporter exporter) {
+    this.exporter = exporter;
+  }
+
+  @ReadOperation
+  public List<Trace> traces() {
+    Map<String, List<SpanRecord>> byTrace = new LinkedHashMap<>();
+
+    for (SpanRecord span : exporter.getSpans()) {
+      byTrace.computeIfAbsent(span.traceId(), id -> new ArrayList<>()).add(span);
+    }
+
+    return byTrace.entrySet().stream()
+        .map(entry -> Trace.of(entry.getKey(), entry.getValue()))
+        .sorted(Comparator.comparing(Trace::start).reversed())
+        .toList();
+  }
+
+  @ReadOperation
+  public Trace trace(@Selector String traceId) {
+    var spans = exporter.getSpans().stream().filter(s -> s.traceId().equals(traceId)).toList();
+
+    return spans.isEmpty() ? null : Trace.of(traceId, spans);
+  }
+
+  @DeleteOperation
+  public void clear() {
+    exporter.clear();
+  }
+
+  /**
+   * @param durationMicros from the first start to the last end of its spans
+   */
+  public record Trace(
+      String traceId, Instant start, long durationMicros, int spans, List<Node> roots) {
+
+    static Trace of(String traceId, List<SpanRecord> spans) {
+      Map<String, Node> nodes = new LinkedHashMap<>();
+      spans.stream()
+          .sorted(Comparator.comparing(SpanRecord::start))
+          .forEach(span -> nodes.put(span.spanId(), new Node(span, new ArrayList<>())));
+
+      List<Node> roots = new ArrayList<>();
+      var start = nodes.values().iterator().next().span().start();
+      long end = 0;
+
+      for (Node node : nodes.values()) {
+        var parent =
+            node.span().parentSpanId() == null ? null : nodes.get(node.span().parentSpanId());
+        if (parent != null) parent.children().add(node);
+        else roots.add(node);
+
+        end = Math.max(end, micros(node.span().start()) + node.span().durationMicros());
+      }
+
+      return new Trace(traceId, start, end - micros(start), spans.size(), roots);
+    }
+
+    private static long micros(Instant instant) {
+      return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+  }
+
+  /** Span with the spans it started, in start order. */
+  public record Node(SpanRecord span, List<Node> children) {}
+}
@@ -0,0 +1,42 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exported span, as written by the local exporters.
+ *
+ * @param parentSpanId {@code null} for the root span of a trace
+ * @param durationMicros from start to end of the span
+ * @param status {@code OK}, {@code ERROR} or {@code UNSET}
+ */
+public record SpanRecord(
+    String traceId,
+    String spanId,
+    String parentSpanId,
+    String name,
+    String kind,
+    Instant start,
+    long durationMicros,
+    String status,
+    Map<String, String> attributes) {
+
+  public static SpanRecord of(SpanData span) {
+    Map<String, String> attributes = new TreeMap<>();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value.toString()));
+
+    return new SpanRecord(
+        span.getTraceId(),
+        span.getSpanId(),
+        span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+        span.getName(),
+        span.getKind().name(),
+        Instant.EPOCH.plusNanos(span.getStartEpochNanos()),
+        TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()),
+        span.getStatus().getStatusCode().name(),
+        attributes);
+  }
+}
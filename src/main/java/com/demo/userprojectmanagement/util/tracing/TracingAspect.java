@@ -0,0 +1,43 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Observes every controller and service call with the {@link InvocationObserver}. Repository calls
+ * are observed by the {@link RepositoryInterceptor} of the repository proxies instead, which also
+ * times them for the {@code Server-Timing} header.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+  private final InvocationObserver observer;
+
+  public TracingAspect(InvocationObserver observer) {
+    this.observer = observer;
+  }
+
+  @Around(
+      "within(com.demo.userprojectmanagement.controller.*Controller) && execution(public * *(..))")
+  public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+    return observe(joinPoint, "controller");
+  }
+
+  @Around("within(com.demo.userprojectmanagement.service.*Service) && execution(public * *(..))")
+  public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return observe(joinPoint, "service");
+  }
+
+  private Object observe(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+    return observer.observe(
+        layer,
+        AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName(),
+        ((MethodSignature) joinPoint.getSignature()).getMethod(),
+        joinPoint.getArgs(),
+        joinPoint::proceed);
+  }
+}
@@ -0,0 +1,31 @@
+package com.demo.userprojectmanagement.util.tracing;
+
+import java.nio.file.Path;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Span exporters meant for local use, the OTLP exporter is configured with {@code
+ * management.otlp.tracing.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+  private Memory memory = new Memory();
+  private File file = new File();
+
+  @Data
+  public static class Memory {
+    /** Whether the latest spans are kept in memory and served by {@code /actuator/spans}. */
+    private boolean enabled;
+
+    /** Maximum number of spans kept, the oldest ones are dropped first. */
+    private int capacity = 10_000;
+  }
+
+  @Data
+  public static class File {
+    /** File the spans are appended to, one JSON object per line. */
+    private Path path;
+  }
+}
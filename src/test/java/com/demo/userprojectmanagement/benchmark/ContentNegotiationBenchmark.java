@@ -0,0 +1,74 @@
+package com.demo.userprojectmanagement.benchmark;
+
+import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.UserDTO;
+import com.demo.userprojectmanagement.util.Util;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares payload size and encode/decode time of a users page envelope in JSON, CBOR and Smile.
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContentNegotiationBenchmark {
+
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"10", "50"})
+  private int pageSize;
+
+  private ObjectMapper mapper;
+  private Object page;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper =
+        switch (format) {
+          case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+          case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+          default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+    List<UserDTO> users = new ArrayList<>();
+    for (long id = 1; id <= pageSize; id++) {
+      var project = new ProjectDTO(id, "JEP-" + id, "Local-variable syntax for lambda parameters");
+      users.add(new UserDTO(id, "User " + id, "user" + id + "@example.com", Set.of(project)));
+    }
+    page =
+        Util.convertToResponse(new PageImpl<>(users, PageRequest.of(0, pageSize), 1000), "users");
+    encoded = mapper.writeValueAsBytes(page);
+
+    System.out.printf("%s payload for %d users: %d bytes%n", format, pageSize, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public Map<?, ?> decode() throws IOException {
+    return mapper.readValue(encoded, Map.class);
+  }
+}
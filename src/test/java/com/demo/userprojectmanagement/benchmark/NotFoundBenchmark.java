@@ -0,0 +1,82 @@
+package com.demo.userprojectmanagement.benchmark;
+
+import static com.demo.userprojectmanagement.util.Util.TIME_PATTERN;
+
+import com.demo.userprojectmanagement.exception.ApiError;
+import com.demo.userprojectmanagement.exception.ApiExceptionHandler;
+import com.demo.userprojectmanagement.exception.UserIdNotFoundException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Throughput of a user lookup miss, from the throw to the error response, thrown below {@code
+ * depth} frames as it happens within the servlet, security and proxy stacks of a request. {@code
+ * before} fills in the stack trace and builds the formatter and the body on every call, {@code
+ * after} uses the stackless exception and the error templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NotFoundBenchmark {
+
+  @Param({"before", "after"})
+  private String errorPath;
+
+  @Param({"20", "150"})
+  private int depth;
+
+  private long id;
+
+  @Benchmark
+  public ResponseEntity<?> userNotFound() {
+    return lookupAt(depth, ++id);
+  }
+
+  private ResponseEntity<?> lookupAt(int remaining, long userId) {
+    if (remaining > 0) return lookupAt(remaining - 1, userId);
+
+    try {
+      if (errorPath.equals("before")) throw new StackTraceUserIdNotFoundException(userId);
+      throw new UserIdNotFoundException(userId);
+    } catch (StackTraceUserIdNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body(
+              Map.of(
+                  "timestamp",
+                  LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIME_PATTERN)),
+                  "status",
+                  HttpStatus.NOT_FOUND.value(),
+                  "error",
+                  HttpStatus.NOT_FOUND.getReasonPhrase(),
+                  "message",
+                  e.getMessage()));
+    } catch (UserIdNotFoundException e) {
+      return ApiError.of(HttpStatus.NOT_FOUND, e.getMessage()).toJSON();
+    }
+  }
+
+  /** The lookup miss as it was thrown before, capturing its stack trace. */
+  private static class StackTraceUserIdNotFoundException extends RuntimeException {
+    private final long userId;
+
+    private StackTraceUserIdNotFoundException(long userId) {
+      this.userId = userId;
+    }
+
+    @Override
+    public String getMessage() {
+      return String.format(ApiExceptionHandler.USER_ID_NOT_FOUND, userId);
+    }
+  }
+}
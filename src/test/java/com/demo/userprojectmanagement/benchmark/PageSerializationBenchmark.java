@@ -0,0 +1,86 @@
+package com.demo.userprojectmanagement.benchmark;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.util.Util;
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization throughput of a users page: the former {@code HashMap} envelope against the typed
+ * {@code PageDTO}, with and without the Blackbird module and the {@code @JsonIdentityInfo}
+ * bookkeeping the entities used to carry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PageSerializationBenchmark {
+
+  @Param({"map", "typed"})
+  private String envelope;
+
+  @Param({"false", "true"})
+  private boolean blackbird;
+
+  @Param({"false", "true"})
+  private boolean identityInfo;
+
+  @Param({"50"})
+  private int pageSize;
+
+  private ObjectMapper mapper;
+  private Page<User> page;
+
+  @Setup
+  public void setUp() {
+    var builder = Jackson2ObjectMapperBuilder.json();
+    if (blackbird) builder.modulesToInstall(new BlackbirdModule());
+    if (identityInfo) builder.mixIn(User.class, IdentityInfoMixIn.class);
+    mapper = builder.build();
+
+    List<User> users = new ArrayList<>();
+    for (long id = 1; id <= pageSize; id++) {
+      users.add(User.builder().id(id).name("User " + id).email("user" + id + "@mail.com").build());
+    }
+    page = new PageImpl<>(users, PageRequest.of(0, pageSize), 10_000);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    Object response =
+        "map".equals(envelope) ? mapResponse(page, "users") : Util.convertToResponse(page, "users");
+    return mapper.writeValueAsBytes(response);
+  }
+
+  /** Envelope as it was built before {@code PageDTO}. */
+  private static Map<String, Object> mapResponse(Page<?> objects, String collectionName) {
+    Map<String, Object> response = new HashMap<>();
+    response.put(collectionName, objects.getContent());
+    response.put("current-page", objects.getNumber());
+    response.put("total-items", objects.getTotalElements());
+    response.put("total-pages", objects.getTotalPages());
+    return response;
+  }
+
+  @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+  private abstract static class IdentityInfoMixIn {}
+}
@@ -0,0 +1,119 @@
+package com.demo.userprojectmanagement.benchmark;
+
+import com.demo.userprojectmanagement.util.snapshot.SnapshotFile;
+import com.demo.userprojectmanagement.util.snapshot.SnapshotFileTest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Time to fill an empty in-memory database with {@code users} users, one project per hundred users
+ * and one membership per user. {@code snapshot} restores the binary snapshot file, {@code script}
+ * runs the SQL script written by H2's {@code SCRIPT}, the other way to reload the database.
+ *
+ * <p>Run with {@code -Dbenchmark.options="-f 1 -wi 1 -i 3"}: every invocation restores the whole
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotRestoreBenchmark {
+
+  @Param({"snapshot", "script"})
+  private String format;
+
+  @Param({"1000000"})
+  private int users;
+
+  private Path directory;
+  private Path snapshot;
+  private Path script;
+  private Connection target;
+  private int invocation;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("snapshot-benchmark");
+    snapshot = directory.resolve("taskdb.snapshot");
+    script = directory.resolve("taskdb.sql");
+
+    try (var source = database("benchmark-source")) {
+      execute(
+          source,
+          String.format(
+              "INSERT INTO users (name, email, updated_at) SELECT 'User ' || X,"
+                  + " 'user' || X || '@sun.com', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, %s)",
+              users),
+          String.format(
+              "INSERT INTO projects (name, description, updated_at) SELECT 'Project ' || X,"
+                  + " 'Seeded for the restore benchmark', CURRENT_TIMESTAMP"
+                  + " FROM SYSTEM_RANGE(1, %s)",
+              users / 100),
+          String.format(
+              "INSERT INTO project_by_user SELECT MOD(X, %s) + 1, X FROM SYSTEM_RANGE(1, %s)",
+              users / 100, users),
+          String.format("SCRIPT NOPASSWORDS NOSETTINGS TO '%s'", script));
+
+      SnapshotFile.write(source, snapshot);
+      execute(source, "DROP ALL OBJECTS");
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void openTarget() throws SQLException {
+    target = DriverManager.getConnection("jdbc:h2:mem:benchmark-target-" + ++invocation);
+    if (format.equals("snapshot")) execute(target, SnapshotFileTest.SCHEMA.toArray(String[]::new));
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeTarget() throws SQLException {
+    execute(target, "DROP ALL OBJECTS");
+    target.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(snapshot);
+    Files.deleteIfExists(script);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public Object restore() throws Exception {
+    if (format.equals("script")) {
+      execute(target, String.format("RUNSCRIPT FROM '%s'", script));
+      return script;
+    }
+
+    target.setAutoCommit(false);
+    Map<String, Long> counts = SnapshotFile.restore(snapshot, target, 5000);
+    target.setAutoCommit(true);
+    return counts;
+  }
+
+  private static Connection database(String name) throws SQLException {
+    var connection = DriverManager.getConnection("jdbc:h2:mem:" + name);
+    execute(connection, SnapshotFileTest.SCHEMA.toArray(String[]::new));
+    return connection;
+  }
+
+  private static void execute(Connection connection, String... statements) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      for (String sql : statements) statement.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.demo.userprojectmanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demo.userprojectmanagement.controller.ProjectController;
+import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+public class ContentNegotiationConfigurationTest {
+  private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+  @Mock private ProjectService projectService;
+
+  @InjectMocks private ProjectController projectController;
+
+  private MockMvc mockMvc;
+  private MappingJackson2CborHttpMessageConverter cborConverter;
+  private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+  @BeforeEach
+  public void setUp() {
+    var configuration = new ContentNegotiationConfiguration();
+    cborConverter = configuration.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+    smileConverter = configuration.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(projectController)
+            .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+            .setMessageConverters(
+                new MappingJackson2HttpMessageConverter(), smileConverter, cborConverter)
+            .build();
+  }
+
+  @Test
+  public void testFindByName_cbor_Success() throws Exception {
+    // Given
+    var projectDTO = new ProjectDTO(1L, "JEP-121", "Sealed classes");
+    when(projectService.findByName("JEP-121")).thenReturn(projectDTO);
+
+    // Then
+    byte[] body =
+        mockMvc
+            .perform(
+                get("/v1/projects").param("name", "JEP-121").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    Map<?, ?> decoded = cborConverter.getObjectMapper().readValue(body, Map.class);
+    assertEquals("JEP-121", decoded.get("name"));
+    assertEquals("Sealed classes", decoded.get("description"));
+  }
+
+  @Test
+  public void testFindAll_smile_Success() throws Exception {
+    // Given
+    var pageable = PageRequest.of(0, 10);
+    var projects =
+        new PageImpl<>(List.of(new ProjectDTO(1L, "JEP-121", "Sealed classes")), pageable, 1);
+    when(projectService.findAll(any(), any())).thenReturn(projects);
+
+    // Then
+    byte[] body =
+        mockMvc
+            .perform(get("/v1/projects").accept(SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(SMILE))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    Map<?, ?> decoded = smileConverter.getObjectMapper().readValue(body, Map.class);
+    assertEquals(1, ((List<?>) decoded.get("projects")).size());
+    assertEquals(1, decoded.get("total-items"));
+  }
+
+  @Test
+  public void testFindByName_defaultsToJson_Success() throws Exception {
+    // Given
+    when(projectService.findByName("JEP-121"))
+        .thenReturn(new ProjectDTO(1L, "JEP-121", "Sealed classes"));
+
+    // Then
+    mockMvc
+        .perform(get("/v1/projects").param("name", "JEP-121").accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  public void testCreate_cborRequestBody_Success() throws Exception {
+    // Given
+    ObjectMapper cborMapper = cborConverter.getObjectMapper();
+    byte[] request =
+        cborMapper.writeValueAsBytes(Map.of("name", "JEP-390", "description", "Value classes"));
+    when(projectService.create(any(Project.class))).thenAnswer(i -> i.getArgument(0));
+
+    // Then
+    mockMvc
+        .perform(
+            post("/v1/projects")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(request))
+        .andExpect(status().isCreated())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+    ArgumentCaptor<Project> captor = ArgumentCaptor.forClass(Project.class);
+    verify(projectService).create(captor.capture());
+    assertEquals("JEP-390", captor.getValue().getName());
+    assertEquals("Value classes", captor.getValue().getDescription());
+  }
+}
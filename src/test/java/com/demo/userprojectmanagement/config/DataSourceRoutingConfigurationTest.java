@@ -0,0 +1,65 @@
+package com.demo.userprojectmanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.demo.userprojectmanagement.exception.UserEmailNotFoundException;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.util.datasource.H2ScriptReplicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** The replica is only synced on demand, so every write is visible to reads after a sync. */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+      "app.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+      "app.datasource.replica.sync-interval=0s",
+      "app.membership.write-behind.enabled=false"
+    })
+public class DataSourceRoutingConfigurationTest {
+  @Autowired private UserService userService;
+  @Autowired private H2ScriptReplicator replicator;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  public void readOnlyTransactions_useLaggingReplica_Success() {
+    // Given
+    var email = "ada.lovelace@example.com";
+    double replicaReads = routed("replica");
+    double primaryConnections = routed("primary");
+
+    // When
+    var user = userService.create(User.builder().name("Ada Lovelace").email(email).build());
+
+    // Then
+    assertThrows(UserEmailNotFoundException.class, () -> userService.findByEmail(email));
+
+    replicator.sync();
+
+    assertEquals(user.getId(), userService.findByEmail(email).getId());
+    assertTrue(routed("replica") >= replicaReads + 2);
+    assertTrue(routed("primary") >= primaryConnections + 1);
+  }
+
+  @Test
+  public void writeTransactions_readFromPrimary_Success() {
+    // Given
+    var user =
+        userService.create(User.builder().name("Alan Turing").email("alan@example.com").build());
+
+    // When
+    user.setName("Alan M. Turing");
+
+    // Then
+    assertEquals("Alan M. Turing", userService.update(user).getName());
+  }
+
+  private double routed(String target) {
+    return meterRegistry.get("datasource.routing").tag("target", target).counter().count();
+  }
+}
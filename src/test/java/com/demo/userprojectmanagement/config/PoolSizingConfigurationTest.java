@@ -0,0 +1,57 @@
+package com.demo.userprojectmanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.util.datasource.PoolSizer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+    properties = {
+      "app.datasource.pool-sizing.enabled=true",
+      "app.datasource.pool-sizing.min-size=3",
+      "app.datasource.pool-sizing.max-size=6",
+      "app.datasource.pool-sizing.interval=1h"
+    })
+public class PoolSizingConfigurationTest {
+  @Autowired private PoolSizer poolSizer;
+  @Autowired private DataSource dataSource;
+  @Autowired private UserService userService;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  public void adjust_readsTheMetricsOfThePool_Success() {
+    // Given
+    var pool = (HikariDataSource) dataSource;
+    var controller = poolSizer.getControllers().get(0);
+    userService.create(User.builder().name("Pool").email("pool@example.com").build());
+
+    // When
+    controller.adjust();
+
+    // Then
+    assertEquals(1, poolSizer.getControllers().size());
+    assertEquals(6, pool.getMaximumPoolSize());
+    assertTrue(
+        meterRegistry
+                .get("hikaricp.connections.acquire")
+                .tag("pool", pool.getPoolName())
+                .timer()
+                .count()
+            > 0);
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("datasource.pool.decisions")
+            .tag("pool", pool.getPoolName())
+            .counter()
+            .count());
+  }
+}
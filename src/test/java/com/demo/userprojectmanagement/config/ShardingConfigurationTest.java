@@ -0,0 +1,110 @@
+package com.demo.userprojectmanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/** Three in-memory shards, users are spread by hash of their id. */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+      "app.sharding.enabled=true",
+      "app.sharding.strategy=hash",
+      "app.sharding.shards[0].url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+      "app.sharding.shards[1].url=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+      "app.sharding.shards[2].url=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+      "app.membership.write-behind.enabled=false"
+    })
+public class ShardingConfigurationTest {
+  @Autowired private UserService userService;
+  @Autowired private ProjectService projectService;
+  @Autowired private ShardTemplate shards;
+
+  @Test
+  public void create_spreadsUsersWithUniqueIds_Success() {
+    // Given
+    var names = List.of("Grace", "Barbara", "Edsger", "Donald", "Niklaus", "Tony");
+
+    // When
+    var users =
+        names.stream()
+            .map(
+                name ->
+                    userService.create(
+                        User.builder().name(name).email(name + "@example.com").build()))
+            .toList();
+
+    // Then
+    var ids = users.stream().map(User::getId).collect(Collectors.toSet());
+    var usedShards = ids.stream().map(shards::shardOf).collect(Collectors.toSet());
+    assertEquals(names.size(), ids.size());
+    assertEquals(3, usedShards.size());
+    assertEquals(users.get(3).getId(), userService.findByEmail("Donald@example.com").getId());
+    assertEquals("Niklaus", userService.findById(users.get(4).getId()).getName());
+  }
+
+  @Test
+  public void findAll_mergesPagesOfEveryShard_Success() {
+    // Given
+    for (int i = 0; i < 7; i++)
+      userService.create(
+          User.builder().name("Page " + i).email("page" + i + "@example.com").build());
+
+    // When
+    var all = userService.findAll(PageRequest.of(0, 50, Sort.by("id")), Totals.EXACT);
+    var second = userService.findAll(PageRequest.of(1, 3, Sort.by("id")), Totals.APPROX);
+
+    // Then
+    var ids = all.getContent().stream().map(User::getId).toList();
+    assertEquals(ids.stream().sorted().toList(), ids);
+    assertEquals(all.getTotalElements(), second.getTotalElements());
+    assertEquals(ids.subList(3, 6), second.getContent().stream().map(User::getId).toList());
+
+    // When
+    var names = userService.findAll(PageRequest.of(1, 3, Sort.by("id")), Totals.NONE, "name", null);
+
+    // Then
+    assertEquals(
+        ids.subList(3, 6), names.getContent().stream().map(row -> (Long) row.get("id")).toList());
+  }
+
+  @Test
+  public void assignUsers_acrossShards_Success() {
+    // Given
+    var project = projectService.create(new Project(0, "JEP-444", "Virtual Threads"));
+    var first =
+        userService.create(User.builder().name("Ron").email("ron.shard@example.com").build());
+    var second =
+        userService.create(User.builder().name("Alan").email("alan.shard@example.com").build());
+    assertNotEquals(shards.shardOf(first.getId()), shards.shardOf(second.getId()));
+
+    // When
+    projectService.assignUsersToProject(project.getId(), List.of(first.getId(), second.getId()));
+
+    // Then
+    var assigned =
+        projectService.findById(project.getId()).getUsers().stream()
+            .map(User::getId)
+            .collect(Collectors.toSet());
+    assertEquals(new HashSet<>(List.of(first.getId(), second.getId())), assigned);
+    assertEquals(1, userService.findById(second.getId()).getProjects().size());
+
+    projectService.unassignUsersFromProject(project.getId(), List.of(first.getId()));
+
+    assertEquals(1, projectService.findById(project.getId()).getUsers().size());
+  }
+}
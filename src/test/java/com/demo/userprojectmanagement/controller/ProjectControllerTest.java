@@ -1,17 +1,24 @@
 package com.demo.userprojectmanagement.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.demo.userprojectmanagement.dto.MembershipTicketDTO;
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
 import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.ProjectPatchDTO;
 import com.demo.userprojectmanagement.model.Project;
 import com.demo.userprojectmanagement.service.ProjectService;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.service.writebehind.MembershipOperation;
 import com.demo.userprojectmanagement.util.Util;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +33,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @ExtendWith(MockitoExtension.class)
 public class ProjectControllerTest {
@@ -44,15 +54,15 @@ public class ProjectControllerTest {
     List<ProjectDTO> projectDTOList =
         List.of(new ProjectDTO(1L, name1, description1), new ProjectDTO(2L, name2, description2));
     Page<ProjectDTO> projects = new PageImpl<>(projectDTOList, pageable, projectDTOList.size());
-    when(projectService.findAll(pageable)).thenReturn(projects);
+    when(projectService.findAll(pageable, Totals.APPROX)).thenReturn(projects);
 
     // Then
-    ResponseEntity<?> response = projectController.findAll(pageable);
+    ResponseEntity<?> response = projectController.findAll(pageable, null, null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertTrue(response.getBody() != null);
     Assertions.assertEquals(Util.convertToResponse(projects, "projects"), response.getBody());
-    verify(projectService, times(1)).findAll(pageable);
+    verify(projectService, times(1)).findAll(pageable, Totals.APPROX);
   }
 
   @Test
@@ -141,7 +151,7 @@ public class ProjectControllerTest {
     when(projectService.assignUsersToProject(id, userIds)).thenReturn(project);
 
     // Then
-    ResponseEntity<?> response = projectController.assignUsersToProject(id, userIds);
+    ResponseEntity<?> response = projectController.assignUsersToProject(id, userIds, null);
 
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -161,7 +171,7 @@ public class ProjectControllerTest {
     when(projectService.unassignUsersFromProject(id, userIds)).thenReturn(project);
 
     // Then
-    ResponseEntity<?> response = projectController.unassignUsers(id, userIds);
+    ResponseEntity<?> response = projectController.unassignUsers(id, userIds, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(project, response.getBody());
@@ -179,4 +189,81 @@ public class ProjectControllerTest {
     assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     verify(projectService, times(1)).delete(id);
   }
+
+  @Test
+  public void testQueueAssignUsers_writeBehindDisabled_Success() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 2L);
+    Project project = new Project();
+    project.setId(id);
+
+    // When
+    when(projectService.isWriteBehindEnabled()).thenReturn(false);
+    when(projectService.assignUsersToProject(id, userIds)).thenReturn(project);
+
+    // Then
+    ResponseEntity<?> response =
+        projectController.assignUsersToProject(id, userIds, List.of("respond-async"));
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(project, response.getBody());
+    verify(projectService, times(1)).assignUsersToProject(id, userIds);
+  }
+
+  @Test
+  public void testUnassignUsers_preferRespondAsyncAmongOthers_Accepted() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 2L);
+    var ticket = new MembershipTicketDTO("t-1", id, "UNASSIGN", "PENDING", null);
+    var request = new MockHttpServletRequest();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    // When
+    when(projectService.isWriteBehindEnabled()).thenReturn(true);
+    when(projectService.queueMembershipChange(id, userIds, MembershipOperation.UNASSIGN))
+        .thenReturn(ticket);
+
+    // Then
+    try {
+      ResponseEntity<?> response =
+          projectController.unassignUsers(
+              id, userIds, List.of("return=minimal, Respond-Async; wait=10"));
+
+      assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+      assertEquals(ticket, response.getBody());
+      verify(projectService, never()).unassignUsersFromProject(id, userIds);
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+
+  @Test
+  public void testPrefersAsync() {
+    assertTrue(ProjectController.prefersAsync(List.of("respond-async")));
+    assertTrue(ProjectController.prefersAsync(List.of("respond-async, wait=10")));
+    assertTrue(ProjectController.prefersAsync(List.of("return=minimal", "respond-async")));
+    assertFalse(ProjectController.prefersAsync(List.of("return=minimal, wait=10")));
+    assertFalse(ProjectController.prefersAsync(List.of("foo=respond-async")));
+    assertFalse(ProjectController.prefersAsync(null));
+  }
+
+  @Test
+  public void testPatch_partialFailure_MultiStatus() {
+    // Given
+    List<ProjectPatchDTO> patches =
+        List.of(new ProjectPatchDTO(1L, "JEP-121", null), new ProjectPatchDTO(2L, "JEP-390", null));
+    List<PatchResultDTO> results =
+        List.of(PatchResultDTO.updated(1L), new PatchResultDTO(2L, 404, "project not found"));
+
+    // When
+    when(projectService.patch(patches)).thenReturn(results);
+
+    // Then
+    ResponseEntity<?> response = projectController.patch(patches);
+
+    assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+    assertEquals(results, response.getBody());
+  }
 }
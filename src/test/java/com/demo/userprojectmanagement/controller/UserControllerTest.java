@@ -10,6 +10,7 @@ import static org.mockito.Mockito.when;
 import com.demo.userprojectmanagement.dto.UserDTO;
 import com.demo.userprojectmanagement.model.User;
 import com.demo.userprojectmanagement.service.UserService;
+import com.demo.userprojectmanagement.service.totals.Totals;
 import com.demo.userprojectmanagement.util.Util;
 import java.util.List;
 import org.junit.jupiter.api.Assertions;
@@ -44,15 +45,15 @@ public class UserControllerTest {
     Page<User> users = new PageImpl<>(List.of(user1, user2));
 
     // When
-    when(userService.findAll(pageable)).thenReturn(users);
+    when(userService.findAll(pageable, Totals.APPROX)).thenReturn(users);
 
     // Then
-    ResponseEntity<?> response = userController.findAll(pageable);
+    ResponseEntity<?> response = userController.findAll(pageable, null, null, null);
 
     assertNotNull(response);
     assertEquals(HttpStatus.OK, response.getStatusCode());
     Assertions.assertEquals(Util.convertToResponse(users, "users"), response.getBody());
-    verify(userService, times(1)).findAll(pageable);
+    verify(userService, times(1)).findAll(pageable, Totals.APPROX);
   }
 
   @Test
@@ -0,0 +1,67 @@
+package com.demo.userprojectmanagement.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.util.Util;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+public class PageDTOSerializerTest {
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  public void serialize_Success() throws Exception {
+    // Given
+    var user1 = User.builder().id(1L).name("Rob").email("robpike@google.com").build();
+    var user2 = User.builder().id(2L).name("James").email("jgosling@sun.com").build();
+    var page = new PageImpl<>(List.of(user1, user2), PageRequest.of(0, 2), 5);
+
+    // Then
+    String json = mapper.writeValueAsString(Util.convertToResponse(page, "users"));
+
+    assertEquals(
+        "{\"users\":["
+            + "{\"id\":1,\"name\":\"Rob\",\"email\":\"robpike@google.com\"},"
+            + "{\"id\":2,\"name\":\"James\",\"email\":\"jgosling@sun.com\"}],"
+            + "\"current-page\":0,\"total-items\":5,\"total-pages\":3}",
+        json);
+  }
+
+  @Test
+  public void serialize_mixedAndNullElements_Success() throws Exception {
+    // Given
+    var project = new ProjectDTO(1L, "JEP-121", "Sealed classes");
+    var page = new PageImpl<Object>(Arrays.asList(project, null, "text"), PageRequest.of(1, 3), 6);
+
+    // Then
+    String json = mapper.writeValueAsString(Util.convertToResponse(page, "items"));
+
+    assertEquals(
+        "{\"items\":["
+            + "{\"id\":1,\"name\":\"JEP-121\",\"description\":\"Sealed classes\"},null,\"text\"],"
+            + "\"current-page\":1,\"total-items\":6,\"total-pages\":2}",
+        json);
+  }
+
+  @Test
+  public void serialize_withoutTotals_Success() throws Exception {
+    // Given
+    var project = new ProjectDTO(1L, "JEP-121", "Sealed classes");
+    var page = new PageImpl<>(List.of(project), PageRequest.of(4, 1), 5);
+
+    // Then
+    String json = mapper.writeValueAsString(Util.convertToResponse(page, "projects", Totals.NONE));
+
+    assertEquals(
+        "{\"projects\":["
+            + "{\"id\":1,\"name\":\"JEP-121\",\"description\":\"Sealed classes\"}],"
+            + "\"current-page\":4}",
+        json);
+  }
+}
@@ -0,0 +1,48 @@
+package com.demo.userprojectmanagement.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class ApiExceptionHandlerTest {
+  private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+  @Test
+  public void handle_userFieldNotValid_BadRequest() {
+    // When
+    var response = handler.handleApiRequestException(new UserFieldNotValidException("name"));
+
+    // Then
+    assertError(HttpStatus.BAD_REQUEST, "field name is not valid", response);
+  }
+
+  @Test
+  public void handle_userEmailExists_Conflict() {
+    // When
+    var response = handler.handleApiRequestException(new UserEmailExistsException());
+
+    // Then
+    assertError(HttpStatus.CONFLICT, ApiExceptionHandler.USER_EMAIL_ALREADY_EXISTS, response);
+  }
+
+  @Test
+  public void handle_userIdNotFound_NotFound() {
+    // When
+    var response = handler.handleApiRequestException(new UserIdNotFoundException(7));
+
+    // Then
+    assertError(HttpStatus.NOT_FOUND, "user with id=7 not found", response);
+  }
+
+  private static void assertError(HttpStatus status, String message, ResponseEntity<?> response) {
+    var body = (Map<?, ?>) response.getBody();
+
+    assertEquals(status, response.getStatusCode());
+    assertEquals(status.value(), body.get("status"));
+    assertEquals(status.getReasonPhrase(), body.get("error"));
+    assertEquals(message, body.get("message"));
+  }
+}
@@ -2,44 +2,92 @@ package com.demo.userprojectmanagement.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.demo.userprojectmanagement.dto.MembershipTicketDTO;
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
 import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.ProjectPatchDTO;
+import com.demo.userprojectmanagement.exception.BulkRequestNotValidException;
 import com.demo.userprojectmanagement.exception.ProjectAssignException;
 import com.demo.userprojectmanagement.exception.ProjectNameNotValidException;
 import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
 import com.demo.userprojectmanagement.exception.ProjectUnassignException;
 import com.demo.userprojectmanagement.exception.ProjectsNotLoadedException;
 import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
 import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.FieldQueries;
 import com.demo.userprojectmanagement.repository.ProjectRepository;
 import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.changes.ChangeFeed;
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import com.demo.userprojectmanagement.service.events.ChangeType;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.totals.RowCounts;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.service.totals.TotalsProperties;
+import com.demo.userprojectmanagement.service.writebehind.MembershipOperation;
+import com.demo.userprojectmanagement.service.writebehind.MembershipTicket;
+import com.demo.userprojectmanagement.service.writebehind.MembershipWriteBehind;
+import com.demo.userprojectmanagement.util.SingleFlight;
+import com.demo.userprojectmanagement.util.SingleFlightProperties;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class ProjectServiceTest {
   @Mock private UserRepository userRepository;
   @Mock private ProjectRepository projectRepository;
 
+  @Spy
+  private SingleFlight singleFlight =
+      new SingleFlight(new SingleFlightProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private RowCounts rowCounts = new RowCounts(new TotalsProperties(), new SimpleMeterRegistry());
+
+  @Mock private MembershipWriteBehind writeBehind;
+  @Mock private MembershipIndex membershipIndex;
+  @Mock private FieldQueries fieldQueries;
+  @Mock private ChangeFeed changeFeed;
+  @Mock private ChangeEventBuffer changeEvents;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private ShardTemplate shards =
+      new ShardTemplate(new ShardingProperties(), null, new SimpleMeterRegistry());
+
   @InjectMocks private ProjectService service;
 
   @Test
@@ -87,7 +135,15 @@ public class ProjectServiceTest {
     long projectId = 1L;
     String name = "JEP-390";
     String description = "Warnings for Value-Based Classes";
-    var project = Project.builder().id(projectId).name(name).description(description).build();
+    var user = User.builder().id(2L).name("Jane").email("jane@mail.com").build();
+    var project =
+        Project.builder()
+            .id(projectId)
+            .name(name)
+            .description(description)
+            .users(List.of(user))
+            .build();
+    user.setProjects(Set.of(project));
 
     // When
     when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
@@ -95,7 +151,11 @@ public class ProjectServiceTest {
     // Then
     var actualProject = service.findById(projectId);
 
-    assertEquals(project, actualProject);
+    assertEquals(project.getName(), actualProject.getName());
+    assertNotSame(project, actualProject);
+    assertNotSame(user, actualProject.getUsers().get(0));
+    assertEquals(user.getEmail(), actualProject.getUsers().get(0).getEmail());
+    assertNull(actualProject.getUsers().get(0).getProjects());
     verify(projectRepository, times(1)).findById(projectId);
   }
 
@@ -166,7 +226,7 @@ public class ProjectServiceTest {
         .thenReturn(new PageImpl<>(projectList, pageable, projectList.size()));
 
     // Then
-    Page<ProjectDTO> result = service.findAll(pageable);
+    Page<ProjectDTO> result = service.findAll(pageable, Totals.EXACT);
 
     assertNotNull(result);
     assertEquals(2, result.getTotalElements());
@@ -187,10 +247,54 @@ public class ProjectServiceTest {
     when(projectRepository.findAll(pageable)).thenReturn(new PageImpl<>(projectList, pageable, 0));
 
     // Then
-    assertThrows(ProjectsNotLoadedException.class, () -> service.findAll(pageable));
+    assertThrows(ProjectsNotLoadedException.class, () -> service.findAll(pageable, Totals.EXACT));
     verify(projectRepository, times(1)).findAll(pageable);
   }
 
+  @Test
+  public void testFindAll_approxTotals_Success() {
+    // Given
+    var project = Project.builder().id(1L).name("JEP-409").description("Sealed Classes").build();
+    Pageable pageable = Pageable.ofSize(10);
+    when(projectRepository.findAllBy(pageable)).thenReturn(List.of(project));
+    when(projectRepository.count()).thenReturn(25L);
+
+    // When
+    service.findAll(pageable, Totals.APPROX);
+    Page<ProjectDTO> result = service.findAll(pageable, Totals.APPROX);
+
+    // Then
+    assertEquals(25, result.getTotalElements());
+    assertEquals(3, result.getTotalPages());
+    assertEquals("JEP-409", result.getContent().get(0).getName());
+    verify(projectRepository, times(1)).count();
+    verify(projectRepository, never()).findAll(pageable);
+  }
+
+  @Test
+  public void testFindAll_fieldsAndExpansion_Success() {
+    // Given
+    var pageable = Pageable.ofSize(10);
+    Map<String, Object> loom = new LinkedHashMap<>();
+    loom.put("id", 1L);
+    loom.put("name", "Loom");
+    when(fieldQueries.findPage(Project.class, List.of("id", "name"), pageable))
+        .thenReturn(List.of(loom));
+    when(projectRepository.findUsersOfProjects(List.of(1L)))
+        .thenReturn(List.<Object[]>of(new Object[] {1L, 7L, "Ron", "ron@example.com"}));
+
+    // When
+    var result = service.findAll(pageable, Totals.NONE, "id,name", "users");
+
+    // Then
+    var row = result.getContent().get(0);
+    assertEquals("Loom", row.get("name"));
+    assertEquals(
+        List.of(User.builder().id(7L).name("Ron").email("ron@example.com").build()),
+        row.get("users"));
+    verify(projectRepository, never()).count();
+  }
+
   @Test
   public void testUpdate_Success() {
     // Given
@@ -397,27 +501,41 @@ public class ProjectServiceTest {
     // Given
     long projectId = 1L;
     var project = Project.builder().id(projectId).build();
-    var user1 = new User();
-    var user2 = new User();
-
-    List<User> userList = new ArrayList<>();
-    userList.add(user1);
-    userList.add(user2);
-    project.setUsers(userList);
-
-    Set<Project> projects = new HashSet<>();
-    projects.add(project);
-    user1.setProjects(projects);
-    user2.setProjects(projects);
+    var now = Instant.parse("2024-05-01T10:00:00Z");
 
     // When
+    when(changeFeed.now()).thenReturn(now);
     when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
 
     // Then
     service.delete(projectId);
 
     verify(projectRepository, times(1)).findById(projectId);
-    verify(projectRepository, times(1)).deleteById(projectId);
+    verifyNoMoreInteractions(projectRepository);
+    verify(changeFeed).recordDeletion(EntityType.PROJECT, projectId);
+    verify(membershipIndex).removeProject(projectId);
+    assertEquals(now, project.getDeletedAt());
+  }
+
+  @Test
+  public void deleteAll_reportsNotFoundIds_Success() {
+    // Given
+    var now = Instant.parse("2024-05-01T10:00:00Z");
+    var ids = List.of(4L, 5L, 4L);
+
+    // When
+    when(projectRepository.findExistingIds(List.of(4L, 5L))).thenReturn(List.of(4L));
+    when(changeFeed.now()).thenReturn(now);
+
+    // Then
+    var results = service.deleteAll(ids);
+
+    assertEquals(List.of(204, 404, 204), results.stream().map(PatchResultDTO::getStatus).toList());
+    verify(projectRepository).markDeleted(List.of(4L), now);
+    verify(changeFeed).recordDeletions(EntityType.PROJECT, List.of(4L));
+    verify(membershipIndex).removeProject(4L);
+    verify(changeEvents).publish(ChangeType.PROJECT_DELETED, 4L, List.of(), List.of());
+    verifyNoMoreInteractions(projectRepository);
   }
 
   @Test
@@ -433,4 +551,146 @@ public class ProjectServiceTest {
     verify(projectRepository, times(1)).findById(id);
     verifyNoMoreInteractions(projectRepository);
   }
+
+  @Test
+  public void queueMembershipChange_Success() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 2L);
+    var users = List.of(User.builder().id(1L).build(), User.builder().id(2L).build());
+    var ticket = mock(MembershipTicket.class);
+
+    // When
+    when(projectRepository.existsById(id)).thenReturn(true);
+    when(userRepository.findAllById(userIds)).thenReturn(users);
+    when(writeBehind.submit(id, MembershipOperation.ASSIGN, userIds)).thenReturn(ticket);
+    when(ticket.toDTO())
+        .thenReturn(new MembershipTicketDTO("ticket", id, "ASSIGN", "PENDING", null));
+
+    // Then
+    var change = service.queueMembershipChange(id, userIds, MembershipOperation.ASSIGN);
+
+    assertEquals("PENDING", change.getStatus());
+    verify(writeBehind, times(1)).submit(id, MembershipOperation.ASSIGN, userIds);
+  }
+
+  @Test
+  public void queueMembershipChange_userNotFound_Failed() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 2L);
+
+    // When
+    when(projectRepository.existsById(id)).thenReturn(true);
+    when(userRepository.findAllById(userIds)).thenReturn(List.of(User.builder().id(1L).build()));
+
+    // Then
+    assertThrows(
+        ProjectAssignException.class,
+        () -> service.queueMembershipChange(id, userIds, MembershipOperation.ASSIGN));
+    verifyNoMoreInteractions(writeBehind);
+  }
+
+  @Test
+  public void queueMembershipChange_unassignCheckedWhenWritten_Success() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 2L);
+    var ticket = mock(MembershipTicket.class);
+
+    // When
+    when(projectRepository.existsById(id)).thenReturn(true);
+    when(writeBehind.submit(id, MembershipOperation.UNASSIGN, userIds)).thenReturn(ticket);
+    when(ticket.toDTO())
+        .thenReturn(new MembershipTicketDTO("ticket", id, "UNASSIGN", "PENDING", null));
+
+    // Then
+    assertEquals(
+        "PENDING",
+        service.queueMembershipChange(id, userIds, MembershipOperation.UNASSIGN).getStatus());
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  public void assignUsersToProject_duplicateIds_Success() {
+    // Given
+    long id = 1L;
+    List<Long> userIds = List.of(1L, 1L);
+    var project = new Project(id, "JEP-390", "Warnings for Value-Based Classes");
+    var user = User.builder().id(1L).build();
+
+    // When
+    when(projectRepository.findById(id)).thenReturn(Optional.of(project));
+    when(userRepository.findAllById(userIds)).thenReturn(List.of(user));
+    when(projectRepository.save(project)).thenReturn(project);
+
+    // Then
+    assertEquals(List.of(user), service.assignUsersToProject(id, userIds).getUsers());
+  }
+
+  @Test
+  public void queueMembershipChange_projectNotFound_Failed() {
+    // When
+    when(projectRepository.existsById(1L)).thenReturn(false);
+
+    // Then
+    assertThrows(
+        ProjectNotFoundException.class,
+        () -> service.queueMembershipChange(1L, List.of(1L), MembershipOperation.ASSIGN));
+    verifyNoMoreInteractions(writeBehind);
+  }
+
+  @Test
+  public void patch_Success() {
+    // Given
+    var project1 = new Project(1L, "JEP-121", "Stronger Algorithms");
+    var project2 = new Project(2L, "JEP-390", "Warnings for Value-Based Classes");
+    var patches =
+        List.of(
+            new ProjectPatchDTO(1L, "JEP-121 v2", null),
+            new ProjectPatchDTO(2L, null, "Deprecate wrapper constructors"));
+
+    // When
+    when(projectRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(project1, project2));
+
+    // Then
+    var results = service.patch(patches);
+
+    assertTrue(results.stream().allMatch(PatchResultDTO::isSuccessful));
+    assertEquals("JEP-121 v2", project1.getName());
+    assertEquals("Stronger Algorithms", project1.getDescription());
+    assertEquals("JEP-390", project2.getName());
+    assertEquals("Deprecate wrapper constructors", project2.getDescription());
+    verify(projectRepository, never()).save(any());
+  }
+
+  @Test
+  public void patch_reportsFailedItems_Success() {
+    // Given
+    var project = new Project(1L, "JEP-121", "Stronger Algorithms");
+    var patches =
+        List.of(
+            new ProjectPatchDTO(1L, " ", "ignored"),
+            new ProjectPatchDTO(3L, "JEP-999", null),
+            new ProjectPatchDTO(1L, null, "Password-Based Encryption"));
+
+    // When
+    when(projectRepository.findAllById(Set.of(1L, 3L))).thenReturn(List.of(project));
+
+    // Then
+    var results = service.patch(patches);
+
+    assertEquals(400, results.get(0).getStatus());
+    assertEquals(404, results.get(1).getStatus());
+    assertEquals("project not found", results.get(1).getMessage());
+    assertEquals(200, results.get(2).getStatus());
+    assertEquals("JEP-121", project.getName());
+    assertEquals("Password-Based Encryption", project.getDescription());
+  }
+
+  @Test
+  public void patch_emptyBatch_Failed() {
+    assertThrows(BulkRequestNotValidException.class, () -> service.patch(List.of()));
+    verifyNoMoreInteractions(projectRepository);
+  }
 }
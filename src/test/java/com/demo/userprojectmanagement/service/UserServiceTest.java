@@ -5,9 +5,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.demo.userprojectmanagement.dto.PatchResultDTO;
+import com.demo.userprojectmanagement.dto.ProjectDTO;
+import com.demo.userprojectmanagement.dto.UserPatchDTO;
+import com.demo.userprojectmanagement.exception.FieldsNotValidException;
 import com.demo.userprojectmanagement.exception.UserEmailExistsException;
 import com.demo.userprojectmanagement.exception.UserEmailNotFoundException;
 import com.demo.userprojectmanagement.exception.UserEmailNotValidException;
@@ -15,23 +22,62 @@ import com.demo.userprojectmanagement.exception.UserFieldNotValidException;
 import com.demo.userprojectmanagement.exception.UserIdNotFoundException;
 import com.demo.userprojectmanagement.exception.UserNameNotFoundException;
 import com.demo.userprojectmanagement.exception.UsersNotCreatedException;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
 import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.FieldQueries;
 import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.changes.ChangeFeed;
+import com.demo.userprojectmanagement.service.events.ChangeEventBuffer;
+import com.demo.userprojectmanagement.service.events.ChangeType;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.totals.RowCounts;
+import com.demo.userprojectmanagement.service.totals.Totals;
+import com.demo.userprojectmanagement.service.totals.TotalsProperties;
+import com.demo.userprojectmanagement.util.SingleFlight;
+import com.demo.userprojectmanagement.util.SingleFlightProperties;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
   @Mock private UserRepository repository;
+  @Mock private MembershipIndex membershipIndex;
+  @Mock private FieldQueries fieldQueries;
+  @Mock private ChangeFeed changeFeed;
+  @Mock private ChangeEventBuffer changeEvents;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private SingleFlight singleFlight =
+      new SingleFlight(new SingleFlightProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private RowCounts rowCounts = new RowCounts(new TotalsProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private ShardTemplate shards =
+      new ShardTemplate(new ShardingProperties(), null, new SimpleMeterRegistry());
 
   @InjectMocks private UserService service;
 
@@ -141,13 +187,100 @@ public class UserServiceTest {
     when(repository.findAll(pageable)).thenReturn(expectedPage);
 
     // Then
-    Page<User> result = service.findAll(pageable);
+    Page<User> result = service.findAll(pageable, Totals.EXACT);
 
     verify(repository).findAll(pageable);
 
     assertEquals(expectedPage, result);
   }
 
+  @Test
+  public void findAll_approxTotals_Success() {
+    // Given
+    var user = User.builder().id(1L).name("John Doe").email("john.doe@example.com").build();
+    var pageable = Pageable.ofSize(10).withPage(0);
+
+    // When
+    when(repository.findAllBy(pageable)).thenReturn(List.of(user));
+    when(repository.count()).thenReturn(42L);
+    when(repository.findUserByEmail("ada@example.com")).thenReturn(Optional.empty());
+    when(repository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Then
+    assertEquals(42, service.findAll(pageable, Totals.APPROX).getTotalElements());
+    assertEquals(42, service.findAll(pageable, Totals.APPROX).getTotalElements());
+
+    service.create(User.builder().name("Ada").email("ada@example.com").build());
+
+    assertEquals(43, service.findAll(pageable, Totals.APPROX).getTotalElements());
+    verify(repository, times(1)).count();
+    verify(repository, never()).findAll(pageable);
+  }
+
+  @Test
+  public void findAll_noTotals_Success() {
+    // Given
+    var user = User.builder().id(1L).name("John Doe").email("john.doe@example.com").build();
+    var pageable = Pageable.ofSize(10).withPage(2);
+
+    // When
+    when(repository.findAllBy(pageable)).thenReturn(List.of(user));
+
+    // Then
+    Page<User> result = service.findAll(pageable, Totals.NONE);
+
+    assertEquals(List.of(user), result.getContent());
+    verify(repository, never()).count();
+    verify(repository, never()).findAll(pageable);
+  }
+
+  @Test
+  public void findAll_fieldsAndExpansion_Success() {
+    // Given
+    var pageable = PageRequest.of(0, 10, Sort.by("email"));
+    var ada = row(1L, "Ada", "ada@example.com");
+    var alan = row(2L, "Alan", "alan@example.com");
+
+    // When
+    when(fieldQueries.findPage(User.class, List.of("id", "name", "email"), pageable))
+        .thenReturn(List.of(ada, alan));
+    when(repository.findProjectsOfUsers(List.of(1L, 2L)))
+        .thenReturn(
+            List.<Object[]>of(
+                new Object[] {1L, 10L, "JEP-400", "UTF-8 by Default"},
+                new Object[] {1L, 11L, "JEP-444", "Virtual Threads"}));
+    when(repository.count()).thenReturn(2L);
+
+    // Then
+    var result = service.findAll(pageable, Totals.APPROX, "name", "projects");
+
+    assertEquals(2, result.getTotalElements());
+    assertEquals(
+        List.of("id", "name", "projects"), List.copyOf(result.getContent().get(0).keySet()));
+    assertEquals(
+        List.of(
+            new ProjectDTO(10L, "JEP-400", "UTF-8 by Default"),
+            new ProjectDTO(11L, "JEP-444", "Virtual Threads")),
+        result.getContent().get(0).get("projects"));
+    assertEquals(List.of(), result.getContent().get(1).get("projects"));
+    verify(repository, times(1)).findProjectsOfUsers(List.of(1L, 2L));
+  }
+
+  @Test
+  public void findAll_fieldNotValid_Failed() {
+    // Given
+    var pageable = Pageable.ofSize(10);
+
+    // Then
+    assertThrows(
+        FieldsNotValidException.class,
+        () -> service.findAll(pageable, Totals.APPROX, "name,password", null));
+    assertThrows(
+        FieldsNotValidException.class,
+        () -> service.findAll(pageable, Totals.APPROX, null, "users"));
+    verifyNoMoreInteractions(fieldQueries, repository);
+  }
+
   @Test
   public void findAll_Failed() {
     // Given
@@ -156,7 +289,8 @@ public class UserServiceTest {
     // When
     when(repository.findAll(pageable)).thenReturn(Page.empty());
 
-    Exception e = assertThrows(UsersNotCreatedException.class, () -> service.findAll(pageable));
+    Exception e =
+        assertThrows(UsersNotCreatedException.class, () -> service.findAll(pageable, Totals.EXACT));
 
     // Then
     verify(repository).findAll(pageable);
@@ -300,15 +434,123 @@ public class UserServiceTest {
     String email = "john.doe@example.com";
     var user = User.builder().id(userId).name(name).email(email).build();
 
-    user.setProjects(new HashSet<>());
+    var now = Instant.parse("2024-05-01T10:00:00Z");
 
     // When
+    when(changeFeed.now()).thenReturn(now);
     when(repository.findById(userId)).thenReturn(Optional.of(user));
 
     // Then
     service.delete(userId);
     verify(repository).findById(userId);
-    verify(repository).deleteById(userId);
-    assertTrue(user.getProjects().isEmpty());
+    verifyNoMoreInteractions(repository);
+    verify(changeFeed).recordDeletion(EntityType.USER, userId);
+    verify(membershipIndex).removeUser(userId);
+    assertEquals(now, user.getDeletedAt());
+  }
+
+  @Test
+  public void patch_Success() {
+    // Given
+    var user1 = User.builder().id(1L).name("John Doe").email("john.doe@example.com").build();
+    var user2 = User.builder().id(2L).name("Jane Doe").email("jane.doe@example.com").build();
+    var patches =
+        List.of(
+            new UserPatchDTO(1L, null, "john@example.com"), new UserPatchDTO(2L, "Jane Roe", null));
+
+    // When
+    when(repository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(user1, user2));
+    when(repository.findAllByEmailIn(Set.of("john@example.com"))).thenReturn(List.of());
+
+    // Then
+    var results = service.patch(patches);
+
+    assertTrue(results.stream().allMatch(PatchResultDTO::isSuccessful));
+    assertEquals("john@example.com", user1.getEmail());
+    assertEquals("John Doe", user1.getName());
+    assertEquals("Jane Roe", user2.getName());
+  }
+
+  @Test
+  public void patch_reportsFailedItems_Success() {
+    // Given
+    var user1 = User.builder().id(1L).name("John Doe").email("john.doe@example.com").build();
+    var user2 = User.builder().id(2L).name("Jane Doe").email("jane.doe@example.com").build();
+    var patches =
+        List.of(
+            new UserPatchDTO(1L, null, "jane.doe@example.com"),
+            new UserPatchDTO(2L, null, "not-an-email"),
+            new UserPatchDTO(3L, "Nobody", null),
+            new UserPatchDTO(2L, null, "jane@example.com"),
+            new UserPatchDTO(1L, null, "jane.doe@example.com"));
+
+    // When
+    when(repository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(user1, user2));
+    when(repository.findAllByEmailIn(
+            Set.of("jane.doe@example.com", "not-an-email", "jane@example.com")))
+        .thenReturn(List.of(user2));
+
+    // Then
+    var results = service.patch(patches);
+
+    assertEquals(409, results.get(0).getStatus());
+    assertEquals(400, results.get(1).getStatus());
+    assertEquals(404, results.get(2).getStatus());
+    assertEquals(200, results.get(3).getStatus());
+    assertEquals(200, results.get(4).getStatus());
+    assertEquals("jane.doe@example.com", user1.getEmail());
+    assertEquals("jane@example.com", user2.getEmail());
+  }
+
+  @Test
+  public void deleteAll_reportsNotFoundIds_Success() {
+    // Given
+    var now = Instant.parse("2024-05-01T10:00:00Z");
+    var ids = List.of(1L, 2L, 3L);
+
+    // When
+    when(repository.findExistingIds(ids)).thenReturn(List.of(1L, 3L));
+    when(changeFeed.now()).thenReturn(now);
+
+    // Then
+    var results = service.deleteAll(ids);
+
+    assertEquals(List.of(204, 404, 204), results.stream().map(PatchResultDTO::getStatus).toList());
+    assertTrue(results.get(0).isSuccessful());
+    verify(repository).markDeleted(List.of(1L, 3L), now);
+    verify(changeFeed).recordDeletions(EntityType.USER, List.of(1L, 3L));
+    verify(membershipIndex).removeUser(1L);
+    verify(membershipIndex).removeUser(3L);
+    verify(changeEvents).publish(ChangeType.USER_DELETED, 1L, List.of(), List.of());
+    verify(changeEvents).publish(ChangeType.USER_DELETED, 3L, List.of(), List.of());
+    verifyNoMoreInteractions(changeEvents);
+  }
+
+  @Test
+  public void deleteAll_oneTransactionPerChunk_Success() {
+    // Given
+    var ids = LongStream.rangeClosed(1, 250).boxed().toList();
+
+    // When
+    when(repository.findExistingIds(any())).thenReturn(List.of());
+
+    // Then
+    var results = service.deleteAll(ids);
+
+    assertTrue(results.stream().noneMatch(PatchResultDTO::isSuccessful));
+    verify(repository).findExistingIds(ids.subList(0, 100));
+    verify(repository).findExistingIds(ids.subList(100, 200));
+    verify(repository).findExistingIds(ids.subList(200, 250));
+    verify(transactionManager, times(3)).commit(any());
+    verifyNoMoreInteractions(repository);
+  }
+
+  private static Map<String, Object> row(long id, String name, String email) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("id", id);
+    row.put("name", name);
+    row.put("email", email);
+
+    return row;
   }
 }
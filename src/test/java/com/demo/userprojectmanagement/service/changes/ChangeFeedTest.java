@@ -0,0 +1,141 @@
+package com.demo.userprojectmanagement.service.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.demo.userprojectmanagement.dto.ChangesDTO;
+import com.demo.userprojectmanagement.exception.SyncTokenExpiredException;
+import com.demo.userprojectmanagement.exception.SyncTokenNotValidException;
+import com.demo.userprojectmanagement.model.Tombstone;
+import com.demo.userprojectmanagement.model.Tombstone.EntityType;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.TombstoneRepository;
+import com.demo.userprojectmanagement.service.changes.SyncToken.Position;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeFeedTest {
+  private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+  @Mock private TombstoneRepository tombstoneRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final List<User> users = new ArrayList<>();
+  private ChangeFeed feed;
+
+  @BeforeEach
+  public void setUp() {
+    var meterRegistry = new SimpleMeterRegistry();
+    feed =
+        new ChangeFeed(
+            new ChangeFeedProperties(),
+            tombstoneRepository,
+            new ShardTemplate(new ShardingProperties(), transactionManager, meterRegistry),
+            transactionManager,
+            meterRegistry,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void read_pagesThroughChanges_Success() {
+    // Given
+    var at = NOW.minusSeconds(60);
+    users.add(user(3, at));
+    users.add(user(1, at));
+    users.add(user(2, at.plusMillis(1)));
+    when(tombstoneRepository.findDeletedSince(
+            eq("USER"), ArgumentMatchers.any(), anyLong(), ArgumentMatchers.any(), anyInt()))
+        .thenReturn(List.of());
+
+    // When
+    var first = read(null, 2);
+    var second = read(first.getNext(), 2);
+    var third = read(second.getNext(), 2);
+
+    // Then
+    assertEquals(List.of(1L, 3L), first.getContent().stream().map(User::getId).toList());
+    assertTrue(first.isHasMore());
+    assertEquals(List.of(2L), second.getContent().stream().map(User::getId).toList());
+    assertFalse(second.isHasMore());
+    assertTrue(third.getContent().isEmpty());
+    assertEquals(Position.after(NOW.minusSeconds(1)), SyncToken.parse(third.getNext()).rows());
+  }
+
+  @Test
+  public void read_returnsDeletionsSinceToken_Success() {
+    // Given
+    var since = new SyncToken(Position.START, new Position(NOW.minusSeconds(60), 4)).encode();
+    when(tombstoneRepository.findDeletedSince(
+            "USER", NOW.minusSeconds(60), 4, NOW.minusSeconds(1), 100))
+        .thenReturn(List.of(new Tombstone(5, EntityType.USER, 7, NOW.minusSeconds(30))));
+
+    // When
+    var changes = read(since, null);
+
+    // Then
+    assertEquals(List.of(7L), changes.getDeleted());
+    assertFalse(changes.isHasMore());
+  }
+
+  @Test
+  public void read_tokenNotValid_Failed() {
+    assertThrows(SyncTokenNotValidException.class, () -> read("not-a-token", null));
+  }
+
+  @Test
+  public void read_tokenOlderThanRetention_Failed() {
+    // Given
+    var since =
+        new SyncToken(Position.START, Position.after(NOW.minus(Duration.ofDays(8)))).encode();
+
+    // Then
+    assertThrows(SyncTokenExpiredException.class, () -> read(since, null));
+  }
+
+  private ChangesDTO<User> read(String since, Integer limit) {
+    return feed.read(
+        EntityType.USER,
+        since,
+        limit,
+        "users",
+        (at, id, until, size) ->
+            users.stream()
+                .filter(user -> user.getUpdatedAt().compareTo(until) <= 0)
+                .filter(
+                    user ->
+                        new Position(user.getUpdatedAt(), user.getId())
+                                .compareTo(new Position(at, id))
+                            > 0)
+                .toList(),
+        user -> new Position(user.getUpdatedAt(), user.getId()),
+        user -> user);
+  }
+
+  private static User user(long id, Instant updatedAt) {
+    var user = new User();
+    user.setId(id);
+    user.setUpdatedAt(updatedAt);
+    return user;
+  }
+}
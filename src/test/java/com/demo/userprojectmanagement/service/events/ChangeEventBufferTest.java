@@ -0,0 +1,59 @@
+package com.demo.userprojectmanagement.service.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ChangeEventBufferTest {
+  private SimpleMeterRegistry meterRegistry;
+  private ChangeEventBuffer buffer;
+
+  @BeforeEach
+  public void setUp() {
+    var properties = new ChangeEventProperties();
+    properties.setCapacity(3);
+    meterRegistry = new SimpleMeterRegistry();
+    buffer = new ChangeEventBuffer(properties, meterRegistry);
+  }
+
+  @Test
+  public void publish_assignsOffsets_Success() {
+    // Given
+    buffer.publish(ChangeType.USER_CREATED, 7L, List.of(), List.of());
+
+    // When
+    var event = buffer.publish(ChangeType.USERS_ASSIGNED, 1L, List.of(7L), List.of());
+
+    // Then
+    assertEquals(1, event.offset());
+    assertEquals(event, buffer.get(1));
+    assertEquals(ChangeType.USER_CREATED, buffer.get(0).type());
+    assertNull(buffer.get(2));
+    assertFalse(buffer.isOverrun(2));
+    assertEquals(2, buffer.getNextOffset());
+    assertEquals(2.0, meterRegistry.get("changes.published").counter().count());
+  }
+
+  @Test
+  public void publish_overwritesOldestEvents_Success() {
+    // Given, a capacity of 3 rounded up to 4
+    for (long id = 0; id < 6; id++)
+      buffer.publish(ChangeType.USER_CREATED, id, List.of(), List.of());
+
+    // When
+    var oldest = buffer.getOldestOffset();
+
+    // Then
+    assertEquals(2, oldest);
+    assertNull(buffer.get(1));
+    assertTrue(buffer.isOverrun(1));
+    assertEquals(2L, buffer.get(2).id());
+    assertEquals(5L, buffer.get(5).id());
+  }
+}
@@ -0,0 +1,121 @@
+package com.demo.userprojectmanagement.service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class MembershipIndexTest {
+  @Mock private ProjectRepository projectRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+  private MembershipIndex index;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    index =
+        new MembershipIndex(
+            new MembershipIndexProperties(),
+            projectRepository,
+            new ShardTemplate(new ShardingProperties(), transactionManager, meterRegistry),
+            transactionManager,
+            meterRegistry);
+
+    // Project 1: users 1, 2, 3; project 2: users 2, 3, 4; project 3: no users
+    when(projectRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+    when(projectRepository.streamMemberships())
+        .thenReturn(
+            Stream.of(
+                new Object[] {1L, 1L},
+                new Object[] {1L, 2L},
+                new Object[] {1L, 3L},
+                new Object[] {2L, 2L},
+                new Object[] {2L, 3L},
+                new Object[] {2L, 4L}));
+    index.reload();
+  }
+
+  @Test
+  public void members_combinesProjects_Success() {
+    // Given
+    var projectIds = List.of(1L, 2L);
+    var all = PageRequest.of(0, 10);
+
+    // When
+    var intersection = index.members(SetOperation.INTERSECTION, projectIds, all);
+    var union = index.members(SetOperation.UNION, projectIds, all);
+    var difference = index.members(SetOperation.DIFFERENCE, projectIds, all);
+
+    // Then
+    assertEquals(List.of(2L, 3L), intersection.getContent());
+    assertEquals(List.of(1L, 2L, 3L, 4L), union.getContent());
+    assertEquals(List.of(1L), difference.getContent());
+    assertEquals(6.0, meterRegistry.get("membership.index.memberships").gauge().value());
+  }
+
+  @Test
+  public void members_pagesInIdOrder_Success() {
+    // Given
+    var projectIds = List.of(2L, 1L);
+
+    // When
+    var page = index.members(SetOperation.UNION, projectIds, PageRequest.of(1, 3));
+
+    // Then
+    assertEquals(List.of(4L), page.getContent());
+    assertEquals(4, page.getTotalElements());
+    assertEquals(2, page.getTotalPages());
+  }
+
+  @Test
+  public void overlap_countsSharedMembers_Success() {
+    // Given
+    var projectIds = List.of(1L, 2L, 3L);
+
+    // When
+    var overlap = index.overlap(projectIds);
+
+    // Then
+    assertEquals(Map.of(1L, 3L, 2L, 3L, 3L, 0L), overlap.getMembers());
+    assertEquals(0, overlap.getShared());
+    assertEquals(4, overlap.getTotal());
+  }
+
+  @Test
+  public void changes_keepIndexCurrent_Success() {
+    // Given
+    var projectIds = List.of(1L, 2L);
+    var all = PageRequest.of(0, 10);
+
+    // When
+    index.addMembers(3L, List.of(4L, 5L));
+    index.removeMembers(1L, List.of(1L));
+    index.removeUser(3L);
+    index.removeProject(2L);
+
+    // Then
+    assertEquals(List.of(4L, 5L), index.members(SetOperation.UNION, List.of(3L), all).getContent());
+    assertEquals(List.of(2L), index.members(SetOperation.UNION, List.of(1L), all).getContent());
+    assertThrows(
+        ProjectNotFoundException.class,
+        () -> index.members(SetOperation.INTERSECTION, projectIds, all));
+  }
+}
@@ -0,0 +1,86 @@
+package com.demo.userprojectmanagement.service.purge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class DeletedRowPurgerTest {
+  @Mock private UserRepository userRepository;
+  @Mock private ProjectRepository projectRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private DeletedRowPurger purger;
+
+  @BeforeEach
+  public void setUp() {
+    var properties = new PurgeProperties();
+    properties.setBatchSize(2);
+    properties.setBatchDelay(Duration.ZERO);
+    purger =
+        new DeletedRowPurger(
+            properties,
+            userRepository,
+            projectRepository,
+            new ShardTemplate(new ShardingProperties(), transactionManager, meterRegistry),
+            transactionManager,
+            meterRegistry);
+  }
+
+  @Test
+  public void purge_removesInBatchesUntilDone_Success() {
+    // Given
+    when(userRepository.purgeMembershipsOfDeleted(2)).thenReturn(2, 2, 1);
+    when(projectRepository.purgeMembershipsOfDeleted(2)).thenReturn(0);
+    when(userRepository.purgeDeleted(2)).thenReturn(2, 0);
+    when(projectRepository.purgeDeleted(2)).thenReturn(1);
+    when(userRepository.countDeleted()).thenReturn(0L);
+    when(projectRepository.countDeleted()).thenReturn(0L);
+
+    // When
+    long removed = purger.purge();
+
+    // Then
+    assertEquals(8, removed);
+    verify(userRepository, times(3)).purgeMembershipsOfDeleted(2);
+    verify(userRepository, times(2)).purgeDeleted(2);
+    assertEquals(5, purged("project_by_user"));
+    assertEquals(2, purged("users"));
+    assertEquals(1, purged("projects"));
+    assertEquals(7, meterRegistry.get("purge.batch").timer().count());
+  }
+
+  @Test
+  public void purge_reportsRowsLeft_Success() {
+    // Given
+    when(userRepository.countDeleted()).thenReturn(3L);
+    when(projectRepository.countDeleted()).thenReturn(1L);
+
+    // When
+    long removed = purger.purge();
+
+    // Then
+    assertEquals(0, removed);
+    assertEquals(3, meterRegistry.get("purge.pending").tag("table", "users").gauge().value());
+    assertEquals(1, meterRegistry.get("purge.pending").tag("table", "projects").gauge().value());
+  }
+
+  private double purged(String table) {
+    return meterRegistry.get("purge.rows").tag("table", table).counter().count();
+  }
+}
@@ -0,0 +1,215 @@
+package com.demo.userprojectmanagement.service.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.demo.userprojectmanagement.exception.MembershipQueueFullException;
+import com.demo.userprojectmanagement.model.Project;
+import com.demo.userprojectmanagement.model.User;
+import com.demo.userprojectmanagement.repository.ProjectRepository;
+import com.demo.userprojectmanagement.repository.UserRepository;
+import com.demo.userprojectmanagement.service.index.MembershipIndex;
+import com.demo.userprojectmanagement.service.writebehind.MembershipTicket.Status;
+import com.demo.userprojectmanagement.util.sharding.ShardTemplate;
+import com.demo.userprojectmanagement.util.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class MembershipWriteBehindTest {
+  @Mock private ProjectRepository projectRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private MembershipIndex membershipIndex;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final AtomicLong clock = new AtomicLong();
+  private WriteBehindProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private MembershipWriteBehind writeBehind;
+
+  @BeforeEach
+  public void setUp() {
+    properties = new WriteBehindProperties();
+    properties.setCapacity(3);
+    meterRegistry = new SimpleMeterRegistry();
+    writeBehind =
+        new MembershipWriteBehind(
+            properties,
+            projectRepository,
+            userRepository,
+            new ShardTemplate(new ShardingProperties(), transactionManager, meterRegistry),
+            membershipIndex,
+            transactionManager,
+            meterRegistry,
+            clock::get);
+  }
+
+  @Test
+  public void flush_assignReplacesUsers_Success() {
+    // Given
+    var project = new Project(1L, "JEP-390", "Warnings for Value-Based Classes");
+    var user1 = User.builder().id(1L).name("Duke").build();
+    var user2 = User.builder().id(2L).name("Jane").build();
+    var user3 = User.builder().id(3L).name("John").build();
+    project.setUsers(new ArrayList<>(List.of(user3)));
+
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+    when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(user1, user2));
+
+    // Then
+    var ticket = writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(1L, 2L, 2L));
+    assertEquals(Status.PENDING, ticket.getStatus());
+    assertEquals(2, writeBehind.getPendingCount());
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+    assertEquals(2, writeBehind.flush());
+
+    assertEquals(Status.APPLIED, ticket.getStatus());
+    assertEquals(List.of(user1, user2), project.getUsers());
+    verify(membershipIndex).replaceMembers(1L, Set.of(1L, 2L));
+    assertEquals(0, writeBehind.getPendingCount());
+    assertEquals(
+        50.0, meterRegistry.get("membership.writebehind.lag").timer().max(TimeUnit.MILLISECONDS));
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  public void submit_assignReplacesPendingChanges_Success() {
+    // Given
+    var user1 = User.builder().id(1L).name("Duke").build();
+    var user2 = User.builder().id(2L).name("Jane").build();
+    var project = new Project(1L, "JEP-390", "Warnings for Value-Based Classes");
+    project.setUsers(new ArrayList<>(List.of(user1)));
+
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+    when(userRepository.findAllById(Set.of(2L))).thenReturn(List.of(user2));
+
+    // Then
+    var unassign = writeBehind.submit(1L, MembershipOperation.UNASSIGN, List.of(1L));
+    var assign = writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(2L));
+
+    assertEquals(1, writeBehind.getPendingCount());
+    assertEquals(1, writeBehind.flush());
+    assertEquals(List.of(user2), project.getUsers());
+    assertEquals(Status.APPLIED, unassign.getStatus());
+    assertEquals(Status.APPLIED, assign.getStatus());
+    assertEquals(1.0, meterRegistry.counter("membership.writebehind.merged").count());
+  }
+
+  @Test
+  public void flush_changesAppliedInOrder_Success() {
+    // Given
+    var project = new Project(1L, "JEP-390", "Warnings for Value-Based Classes");
+    project.setUsers(new ArrayList<>());
+
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+
+    // Then: the unassign is valid once the assign before it is applied
+    var assign = writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(1L));
+    var unassign = writeBehind.submit(1L, MembershipOperation.UNASSIGN, List.of(1L));
+
+    assertEquals(2, writeBehind.getPendingCount());
+    assertEquals(2, writeBehind.flush());
+    assertTrue(project.getUsers().isEmpty());
+    assertEquals(Status.APPLIED, assign.getStatus());
+    assertEquals(Status.APPLIED, unassign.getStatus());
+    verify(userRepository, never()).findAllById(any());
+  }
+
+  @Test
+  public void flush_unassignNotMember_Failed() {
+    // Given
+    var user = User.builder().id(1L).name("Duke").build();
+    var project = new Project(1L, "JEP-390", "Warnings for Value-Based Classes");
+    project.setUsers(new ArrayList<>(List.of(user)));
+
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+
+    // Then
+    var ticket = writeBehind.submit(1L, MembershipOperation.UNASSIGN, List.of(1L, 2L));
+    writeBehind.flush();
+
+    assertEquals(Status.FAILED, ticket.getStatus());
+    assertEquals(
+        "users id/s [2] were not found and not unassign from the project",
+        ticket.toDTO().getMessage());
+    assertEquals(List.of(user), project.getUsers());
+  }
+
+  @Test
+  public void flush_projectDeleted_Failed() {
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.empty());
+
+    // Then
+    var ticket = writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(1L));
+    writeBehind.flush();
+
+    assertEquals(Status.FAILED, ticket.getStatus());
+    assertEquals("project not found", ticket.toDTO().getMessage());
+  }
+
+  @Test
+  public void submit_queueFull_Failed() {
+    // Given
+    writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(1L, 2L));
+
+    // Then
+    assertThrows(
+        MembershipQueueFullException.class,
+        () -> writeBehind.submit(2L, MembershipOperation.ASSIGN, List.of(3L, 4L)));
+    assertThrows(
+        MembershipQueueFullException.class,
+        () -> writeBehind.submit(1L, MembershipOperation.UNASSIGN, List.of(1L, 2L)));
+
+    // When the pending changes of the project are replaced
+    writeBehind.submit(1L, MembershipOperation.ASSIGN, List.of(1L, 2L, 3L));
+
+    // Then
+    assertEquals(3, writeBehind.getPendingCount());
+  }
+
+  @Test
+  public void flush_limitedToMaxBatchSize_Success() {
+    // Given
+    properties.setCapacity(10);
+    properties.setMaxBatchSize(2);
+    var project1 = new Project(1L, "JEP-121", "Stronger Algorithms for Password-Based Encryption");
+    var project2 = new Project(2L, "JEP-390", "Warnings for Value-Based Classes");
+    project1.setUsers(new ArrayList<>());
+    project2.setUsers(new ArrayList<>());
+
+    // When
+    when(projectRepository.findById(1L)).thenReturn(Optional.of(project1));
+    when(projectRepository.findById(2L)).thenReturn(Optional.of(project2));
+
+    // Then
+    writeBehind.submit(1L, MembershipOperation.UNASSIGN, List.of(1L, 2L));
+    writeBehind.submit(2L, MembershipOperation.UNASSIGN, List.of(1L));
+
+    assertEquals(2, writeBehind.flush());
+    assertEquals(1, writeBehind.flush());
+    assertEquals(0, writeBehind.flush());
+  }
+}
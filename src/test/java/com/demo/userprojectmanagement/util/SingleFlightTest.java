@@ -0,0 +1,178 @@
+package com.demo.userprojectmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.demo.userprojectmanagement.exception.ProjectNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+  private static final int CALLERS = 8;
+
+  private SimpleMeterRegistry meterRegistry;
+  private SingleFlightProperties properties;
+  private SingleFlight singleFlight;
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    properties = new SingleFlightProperties();
+    singleFlight = new SingleFlight(properties, meterRegistry);
+    executor = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void execute_concurrentSameKey_loadsOnce_Success() throws Exception {
+    // Given
+    var loads = new AtomicInteger();
+    var release = new CountDownLatch(1);
+    var value = new Object();
+
+    // When
+    List<Future<Object>> results = submitCallers(1L, loads, release, () -> value);
+    awaitCoalesced(CALLERS - 1);
+    release.countDown();
+
+    // Then
+    for (Future<Object> result : results) assertSame(value, result.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+    assertEquals(1.0, meterRegistry.counter("singleflight.calls", tags("leader")).count());
+    assertEquals(
+        CALLERS - 1.0, meterRegistry.counter("singleflight.calls", tags("coalesced")).count());
+    assertEquals(
+        CALLERS - 1,
+        meterRegistry.get("singleflight.wait").tag("name", "project.id").timer().count());
+    assertEquals(0.0, meterRegistry.get("singleflight.inflight").gauge().value());
+  }
+
+  @Test
+  public void execute_concurrentSameKey_sharesException_Failed() throws Exception {
+    // Given
+    var loads = new AtomicInteger();
+    var release = new CountDownLatch(1);
+
+    // When
+    List<Future<Object>> results =
+        submitCallers(
+            1L,
+            loads,
+            release,
+            () -> {
+              throw new ProjectNotFoundException();
+            });
+    awaitCoalesced(CALLERS - 1);
+    release.countDown();
+
+    // Then
+    for (Future<Object> result : results) {
+      var e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertEquals(ProjectNotFoundException.class, e.getCause().getClass());
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void execute_leaderOutlastsWaitTimeout_loadsAgain_Success() throws Exception {
+    // Given
+    properties.setWaitTimeout(Duration.ofMillis(50));
+    var release = new CountDownLatch(1);
+    var leaderStarted = new CountDownLatch(1);
+
+    // When
+    Future<Object> leader =
+        executor.submit(
+            () ->
+                singleFlight.execute(
+                    "project.id",
+                    1L,
+                    () -> {
+                      leaderStarted.countDown();
+                      try {
+                        release.await(5, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return "leader";
+                    }));
+    leaderStarted.await(5, TimeUnit.SECONDS);
+    Object follower = singleFlight.execute("project.id", 1L, () -> "follower");
+    release.countDown();
+
+    // Then
+    assertEquals("follower", follower);
+    assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    assertEquals(1.0, meterRegistry.counter("singleflight.calls", tags("timeout")).count());
+  }
+
+  @Test
+  public void execute_sequential_loadsEveryTime_Success() {
+    // Given
+    var loads = new AtomicInteger();
+
+    // Then
+    singleFlight.execute("project.id", 1L, loads::incrementAndGet);
+    singleFlight.execute("project.id", 1L, loads::incrementAndGet);
+    singleFlight.execute("project.name", 1L, loads::incrementAndGet);
+
+    assertEquals(3, loads.get());
+  }
+
+  private List<Future<Object>> submitCallers(
+      Object key, AtomicInteger loads, CountDownLatch release, Supplier<Object> loader) {
+    List<Future<Object>> results = new ArrayList<>();
+
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(
+          executor.submit(
+              () ->
+                  singleFlight.execute(
+                      "project.id",
+                      key,
+                      () -> {
+                        loads.incrementAndGet();
+                        try {
+                          release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                        }
+                        return loader.get();
+                      })));
+    }
+
+    return results;
+  }
+
+  private void awaitCoalesced(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (meterRegistry.counter("singleflight.calls", tags("coalesced")).count() < expected
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static String[] tags(String outcome) {
+    return new String[] {"name", "project.id", "outcome", outcome};
+  }
+}
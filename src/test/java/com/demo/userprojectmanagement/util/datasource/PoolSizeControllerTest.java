@@ -0,0 +1,223 @@
+package com.demo.userprojectmanagement.util.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.demo.userprojectmanagement.util.datasource.PoolSizeController.Decision;
+import com.demo.userprojectmanagement.util.datasource.PoolSizeController.Sample;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PoolSizeControllerTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final PoolSizingProperties properties = new PoolSizingProperties();
+  private HikariDataSource pool;
+
+  @BeforeEach
+  public void setUp() {
+    properties.setMinSize(2);
+    properties.setMaxSize(20);
+
+    pool = new HikariDataSource();
+    pool.setJdbcUrl("jdbc:h2:mem:pool-sizing;DB_CLOSE_DELAY=-1");
+    pool.setUsername("sa");
+    pool.setPoolName("test");
+    pool.setMaximumPoolSize(2);
+    pool.setConnectionTimeout(250);
+    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  public void decide_convergesOnTheDemand_Success() {
+    // Given
+    var controller = new PoolSizeController(pool, properties, meterRegistry);
+
+    // When
+    drive(controller, 12, 16, 20);
+
+    // Then
+    assertEquals(12, controller.getSize());
+    assertEquals(Decision.HOLD, controller.decide(load(controller.getSize(), 12, 16)));
+
+    // When the demand drops, the pool shrinks until half of it is in use
+    drive(controller, 3, 16, 60);
+
+    // Then
+    assertEquals(6, controller.getSize());
+    assertEquals(5, decisions("grow", "wait"));
+    assertEquals(6, decisions("shrink", "idle"));
+  }
+
+  @Test
+  public void decide_undoesGrowthThatSlowsRequests_Success() {
+    // Given
+    properties.setLatencyTolerance(0.1);
+    var controller = new PoolSizeController(pool, properties, meterRegistry);
+
+    // When: past 8 busy connections, the database serves every query slower
+    drive(controller, 30, 8, 40);
+
+    // Then
+    assertEquals(8, controller.getSize());
+    assertEquals(1, decisions("shrink", "latency"));
+    assertTrue(decisions("hold", "latency") > 30);
+  }
+
+  @Test
+  public void decide_staysWithinBounds_Success() {
+    // Given
+    var controller = new PoolSizeController(pool, properties, meterRegistry);
+
+    // When
+    drive(controller, 50, 100, 20);
+
+    // Then
+    assertEquals(20, controller.getSize());
+    assertTrue(decisions("hold", "max") > 0);
+    assertEquals(20.0, meterRegistry.get("datasource.pool.size").gauge().value());
+
+    // When
+    drive(controller, 0, 100, 100);
+
+    // Then
+    assertEquals(2, controller.getSize());
+  }
+
+  @Test
+  public void adjust_resizesPoolUnderLoad_Success() throws Exception {
+    // Given
+    properties.setMaxSize(16);
+    properties.setTargetWait(Duration.ofMillis(1));
+    properties.setShrinkAfter(1);
+    var controller = new PoolSizeController(pool, properties, meterRegistry);
+    var running = new AtomicBoolean(true);
+    List<Thread> clients = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      var client = new Thread(() -> query(running));
+      client.start();
+      clients.add(client);
+    }
+
+    // When
+    for (int i = 0; i < 20; i++) {
+      Thread.sleep(100);
+      controller.adjust();
+    }
+    int loaded = pool.getMaximumPoolSize();
+
+    running.set(false);
+    for (var client : clients) client.join();
+    for (int i = 0; i < 20; i++) {
+      Thread.sleep(50);
+      controller.adjust();
+    }
+
+    // Then
+    assertTrue(loaded >= 8 && loaded <= 10, "pool of " + loaded + " for 8 clients");
+    assertEquals(2, pool.getMaximumPoolSize());
+    assertEquals(2, pool.getMinimumIdle());
+    assertEquals(2, pool.getHikariPoolMXBean().getTotalConnections());
+    assertBorrowsAtMost(2);
+  }
+
+  @Test
+  public void adjust_retiresConnectionsInUseOnceReleased_Success() throws Exception {
+    // Given
+    properties.setTargetWait(Duration.ofSeconds(1));
+    properties.setShrinkAfter(1);
+    pool.setMaximumPoolSize(10);
+    var controller = new PoolSizeController(pool, properties, meterRegistry);
+    List<Connection> borrowed = new ArrayList<>();
+    for (int i = 0; i < 10; i++) borrowed.add(pool.getConnection());
+
+    // When the connections are held without being used, the pool shrinks to its minimum
+    for (int i = 0; i < 8; i++) controller.adjust();
+
+    // Then: connections in use are kept until they are released
+    assertEquals(2, controller.getSize());
+    assertEquals(10, pool.getHikariPoolMXBean().getTotalConnections());
+
+    // When
+    for (int i = 0; i < 5; i++) borrowed.remove(0).close();
+    controller.adjust();
+
+    // Then
+    assertEquals(5, pool.getHikariPoolMXBean().getTotalConnections());
+
+    // When
+    for (var connection : borrowed) connection.close();
+    controller.adjust();
+
+    // Then
+    assertEquals(2, pool.getHikariPoolMXBean().getTotalConnections());
+    assertBorrowsAtMost(2);
+  }
+
+  /** Borrows as many connections as the pool lends at once. */
+  private void assertBorrowsAtMost(int size) throws SQLException {
+    List<Connection> borrowed = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < size; i++) borrowed.add(pool.getConnection());
+      assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+    } finally {
+      for (var connection : borrowed) connection.close();
+    }
+  }
+
+  private void drive(PoolSizeController controller, int demand, int cores, int samples) {
+    for (int i = 0; i < samples; i++) controller.decide(load(controller.getSize(), demand, cores));
+  }
+
+  /**
+   * Load of {@code demand} concurrent queries on a pool of {@code size} connections, with a
+   * database that serves {@code cores} queries at once and slows down beyond.
+   */
+  private static Sample load(int size, int demand, int cores) {
+    int busy = Math.min(size, demand);
+    double service = 10 * Math.max(1, Math.pow((double) busy / cores, 2));
+    double wait = demand > size ? service * (demand - size) / size : 0;
+
+    return new Sample(wait, busy, Math.max(0, demand - size), service + wait);
+  }
+
+  private double decisions(String decision, String reason) {
+    var counter =
+        meterRegistry
+            .find("datasource.pool.decisions")
+            .tag("decision", decision)
+            .tag("reason", reason)
+            .counter();
+
+    return counter == null ? 0 : counter.count();
+  }
+
+  private void query(AtomicBoolean running) {
+    while (running.get()) {
+      try (var connection = pool.getConnection()) {
+        Thread.sleep(5);
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package com.demo.userprojectmanagement.util.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+public class IdempotencyFilterTest {
+  private IdempotencyProperties properties;
+  private IdempotencyFilter filter;
+  private AtomicInteger executions;
+
+  @BeforeEach
+  public void setUp() {
+    properties = new IdempotencyProperties();
+    filter =
+        new IdempotencyFilter(new IdempotencyStore(properties), properties, new ObjectMapper());
+    executions = new AtomicInteger();
+  }
+
+  @Test
+  public void replay_sameKey_Success() throws Exception {
+    // Given
+    FilterChain chain = createdChain(HttpServletResponse.SC_CREATED, null);
+
+    // When
+    var first = perform("POST", "/v1/projects", "key-1", "{\"name\":\"JEP-121\"}", chain);
+    var second = perform("POST", "/v1/projects", "key-1", "{\"name\":\"JEP-121\"}", chain);
+
+    // Then
+    assertEquals(1, executions.get());
+    assertEquals(HttpServletResponse.SC_CREATED, first.getStatus());
+    assertEquals(HttpServletResponse.SC_CREATED, second.getStatus());
+    assertEquals(first.getContentAsString(), second.getContentAsString());
+    assertNull(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    assertEquals("true", second.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+  }
+
+  @Test
+  public void replay_differentBody_Failed() throws Exception {
+    // Given
+    FilterChain chain = createdChain(HttpServletResponse.SC_CREATED, null);
+
+    // When
+    perform("POST", "/v1/projects", "key-1", "{\"name\":\"JEP-121\"}", chain);
+    var second = perform("POST", "/v1/projects", "key-1", "{\"name\":\"JEP-390\"}", chain);
+
+    // Then
+    assertEquals(1, executions.get());
+    assertEquals(422, second.getStatus());
+    assertTrue(second.getContentAsString().contains("idempotency key already used"));
+  }
+
+  @Test
+  public void noKey_executesEveryRequest_Success() throws Exception {
+    // Given
+    FilterChain chain = createdChain(HttpServletResponse.SC_CREATED, null);
+
+    // When
+    perform("POST", "/v1/projects", null, "{\"name\":\"JEP-121\"}", chain);
+    perform("POST", "/v1/projects", null, "{\"name\":\"JEP-121\"}", chain);
+
+    // Then
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void notCoveredEndpoint_executesEveryRequest_Success() throws Exception {
+    // Given
+    FilterChain chain = createdChain(HttpServletResponse.SC_OK, null);
+
+    // When
+    perform("PUT", "/v1/projects/1", "key-1", "{\"name\":\"JEP-121\"}", chain);
+    perform("PUT", "/v1/projects/1", "key-1", "{\"name\":\"JEP-121\"}", chain);
+
+    // Then
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void serverError_notStored_Success() throws Exception {
+    // Given
+    FilterChain chain = createdChain(HttpServletResponse.SC_SERVICE_UNAVAILABLE, null);
+
+    // When
+    perform("PUT", "/v1/projects/1/users/assign", "key-1", "[1,2]", chain);
+    perform("PUT", "/v1/projects/1/users/assign", "key-1", "[1,2]", chain);
+
+    // Then
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void concurrentDuplicates_waitForFirst_Success() throws Exception {
+    // Given
+    var release = new CountDownLatch(1);
+    FilterChain chain = createdChain(HttpServletResponse.SC_OK, release);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      // When
+      Future<MockHttpServletResponse> first =
+          executor.submit(() -> perform("PUT", "/v1/projects/1/users/assign", "k", "[1]", chain));
+      while (executions.get() == 0) Thread.onSpinWait();
+
+      Future<MockHttpServletResponse> second =
+          executor.submit(() -> perform("PUT", "/v1/projects/1/users/assign", "k", "[1]", chain));
+      Future<MockHttpServletResponse> third =
+          executor.submit(() -> perform("PUT", "/v1/projects/1/users/assign", "k", "[1]", chain));
+      release.countDown();
+
+      // Then
+      assertEquals(HttpServletResponse.SC_OK, first.get(5, TimeUnit.SECONDS).getStatus());
+      assertEquals(HttpServletResponse.SC_OK, second.get(5, TimeUnit.SECONDS).getStatus());
+      assertEquals(HttpServletResponse.SC_OK, third.get(5, TimeUnit.SECONDS).getStatus());
+      assertEquals(1, executions.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void readListener_readsCachedBody_Success() throws Exception {
+    // Given
+    var read = new ByteArrayOutputStream();
+    var allDataRead = new AtomicBoolean();
+    FilterChain chain =
+        (ServletRequest request, ServletResponse response) -> {
+          var input = request.getInputStream();
+          input.setReadListener(
+              new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                  while (input.isReady() && !input.isFinished()) read.write(input.read());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                  allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {}
+              });
+          ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_CREATED);
+        };
+
+    // When
+    perform("POST", "/v1/projects", "key-1", "{\"name\":\"JEP-121\"}", chain);
+
+    // Then
+    assertEquals("{\"name\":\"JEP-121\"}", read.toString(StandardCharsets.UTF_8));
+    assertTrue(allDataRead.get());
+  }
+
+  private FilterChain createdChain(int status, CountDownLatch release) {
+    return (ServletRequest request, ServletResponse response) -> {
+      int execution = executions.incrementAndGet();
+      String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+      try {
+        if (release != null) release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      ((HttpServletResponse) response).setStatus(status);
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.getWriter().write("{\"execution\":" + execution + ",\"request\":" + body + "}");
+    };
+  }
+
+  private MockHttpServletResponse perform(
+      String method, String path, String key, String body, FilterChain chain) throws Exception {
+    var request = new MockHttpServletRequest(method, path);
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    if (key != null) request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+
+    var response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+
+    return response;
+  }
+}
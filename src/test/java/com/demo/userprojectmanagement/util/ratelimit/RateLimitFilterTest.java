@@ -0,0 +1,92 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitFilterTest {
+  @Mock private RateLimiter rateLimiter;
+
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  public void setUp() {
+    filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void doFilter_allowed_Success() throws Exception {
+    // Given
+    when(rateLimiter.isEnabled()).thenReturn(true);
+    when(rateLimiter.tryAcquire("admin", EndpointClass.READ)).thenReturn(0L);
+    var chain = new MockFilterChain();
+    var response = new MockHttpServletResponse();
+
+    // Then
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/users"), response, chain);
+
+    assertEquals(200, response.getStatus());
+    assertEquals(200, ((MockHttpServletResponse) chain.getResponse()).getStatus());
+  }
+
+  @Test
+  public void doFilter_limitExceeded_Failed() throws Exception {
+    // Given
+    when(rateLimiter.isEnabled()).thenReturn(true);
+    when(rateLimiter.tryAcquire("admin", EndpointClass.WRITE))
+        .thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+    var chain = new MockFilterChain();
+    var response = new MockHttpServletResponse();
+
+    // Then
+    filter.doFilter(new MockHttpServletRequest("POST", "/v1/projects"), response, chain);
+
+    assertEquals(429, response.getStatus());
+    assertEquals("2", response.getHeader("Retry-After"));
+    assertTrue(response.getContentAsString().contains("too many requests"));
+    assertNull(chain.getRequest());
+  }
+
+  @Test
+  public void doFilter_notApiPath_Success() throws Exception {
+    // Given
+    when(rateLimiter.isEnabled()).thenReturn(true);
+    var chain = new MockFilterChain();
+
+    // Then
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/actuator/health"),
+        new MockHttpServletResponse(),
+        chain);
+
+    verify(rateLimiter, never()).tryAcquire("admin", EndpointClass.READ);
+  }
+}
@@ -0,0 +1,97 @@
+package com.demo.userprojectmanagement.util.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+  private SimpleMeterRegistry meterRegistry;
+  private RateLimiter rateLimiter;
+
+  @BeforeEach
+  public void setUp() {
+    var properties = new RateLimitProperties();
+    properties.setRead(new RateLimitProperties.Limit(3, 1));
+    properties.setWrite(new RateLimitProperties.Limit(1, 2));
+    meterRegistry = new SimpleMeterRegistry();
+    rateLimiter = new RateLimiter(properties, meterRegistry, now::get);
+  }
+
+  @Test
+  public void tryAcquire_burstThenRefill_Success() {
+    // Then
+    for (int i = 0; i < 3; i++)
+      assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.READ));
+
+    long wait = rateLimiter.tryAcquire("admin", EndpointClass.READ);
+    assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.READ));
+    assertEquals(1.0, meterRegistry.counter("ratelimit.rejected", "class", "read").count());
+  }
+
+  @Test
+  public void tryAcquire_bucketsPerPrincipalAndClass_Success() {
+    // Given
+    assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.WRITE));
+
+    // Then
+    assertTrue(rateLimiter.tryAcquire("admin", EndpointClass.WRITE) > 0);
+    assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.READ));
+    assertEquals(0, rateLimiter.tryAcquire("batch", EndpointClass.WRITE));
+  }
+
+  @Test
+  public void updateLimit_appliesToExistingBuckets_Success() {
+    // Given
+    assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.WRITE));
+    assertTrue(rateLimiter.tryAcquire("admin", EndpointClass.WRITE) > 0);
+
+    // When
+    rateLimiter.updateLimit(EndpointClass.WRITE, 5, 2);
+
+    // Then
+    assertEquals(0, rateLimiter.tryAcquire("admin", EndpointClass.WRITE));
+    assertEquals(5, rateLimiter.getLimit(EndpointClass.WRITE).getCapacity());
+  }
+
+  @Test
+  public void updateLimit_notValid_Failed() {
+    assertThrows(
+        IllegalArgumentException.class, () -> rateLimiter.updateLimit(EndpointClass.READ, 0, 1));
+    assertThrows(
+        IllegalArgumentException.class, () -> rateLimiter.updateLimit(EndpointClass.READ, 1, 0));
+  }
+
+  @Test
+  public void tryAcquire_concurrent_neverExceedsCapacity_Success() throws Exception {
+    // Given
+    rateLimiter.updateLimit(EndpointClass.READ, 100, 0.001);
+    var allowed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    // When
+    for (int i = 0; i < 1000; i++) {
+      executor.execute(
+          () -> {
+            if (rateLimiter.tryAcquire("admin", EndpointClass.READ) == 0) allowed.incrementAndGet();
+          });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    // Then
+    assertEquals(100, allowed.get());
+  }
+}
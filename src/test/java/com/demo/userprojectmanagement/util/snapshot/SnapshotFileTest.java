@@ -0,0 +1,152 @@
+package com.demo.userprojectmanagement.util.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SnapshotFileTest {
+  /** Tables as created by Hibernate. */
+  public static final List<String> SCHEMA =
+      List.of(
+          "CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+              + " deleted_at TIMESTAMP(6) WITH TIME ZONE, email VARCHAR(255) NOT NULL,"
+              + " name VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6) WITH TIME ZONE)",
+          "CREATE TABLE projects (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+              + " deleted_at TIMESTAMP(6) WITH TIME ZONE, description VARCHAR(255),"
+              + " name VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6) WITH TIME ZONE)",
+          "CREATE TABLE project_by_user (project_id BIGINT NOT NULL REFERENCES projects,"
+              + " user_id BIGINT NOT NULL REFERENCES users)",
+          "CREATE TABLE tombstones (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+              + " deleted_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, entity_id BIGINT NOT NULL,"
+              + " entity_type VARCHAR(255) NOT NULL)");
+
+  @TempDir private Path directory;
+
+  private Connection source;
+  private Connection target;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    source = database("snapshot-source");
+    target = database("snapshot-target");
+  }
+
+  @AfterEach
+  public void tearDown() throws SQLException {
+    source.close();
+    target.close();
+  }
+
+  @Test
+  public void restore_copiesEveryTable_Success() throws Exception {
+    // Given
+    execute(
+        source,
+        "INSERT INTO users (name, email, updated_at) VALUES"
+            + " ('Ada', 'ada@sun.com', TIMESTAMP WITH TIME ZONE '2024-05-01 10:00:00.123456Z'),"
+            + " ('Žofia', 'zofia@sun.com', NULL)",
+        "INSERT INTO projects (name, description) VALUES ('JEP-444', NULL)",
+        "INSERT INTO project_by_user VALUES (1, 1), (1, 2)",
+        "INSERT INTO tombstones (entity_type, entity_id, deleted_at) VALUES"
+            + " ('USER', 9, CURRENT_TIMESTAMP)");
+    var path = directory.resolve("taskdb.snapshot");
+
+    // When
+    var written = SnapshotFile.write(source, path);
+    target.setAutoCommit(false);
+    var restored = SnapshotFile.restore(path, target, 1);
+
+    // Then
+    assertEquals(
+        Map.of("users", 2L, "projects", 1L, "project_by_user", 2L, "tombstones", 1L), written);
+    assertEquals(written, restored);
+    for (var table : SnapshotFile.Table.values()) {
+      var query = "SELECT * FROM " + table.getTableName() + " ORDER BY 1, 2";
+      assertEquals(rows(source, query), rows(target, query));
+    }
+
+    execute(target, "INSERT INTO users (name, email) VALUES ('Alan', 'alan@sun.com')");
+    assertEquals(List.of(List.of("3")), rows(target, "SELECT id FROM users WHERE name = 'Alan'"));
+  }
+
+  @Test
+  public void restore_moreRowsThanAStatement_Success() throws Exception {
+    // Given
+    execute(
+        source,
+        "INSERT INTO users (name, email, updated_at) SELECT 'User ' || X, 'user' || X || '@sun.com',"
+            + " CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 1234)");
+    var path = directory.resolve("taskdb.snapshot");
+    SnapshotFile.write(source, path);
+
+    // When
+    target.setAutoCommit(false);
+    var restored = SnapshotFile.restore(path, target, 500);
+
+    // Then
+    assertEquals(1234L, restored.get("users"));
+    var query = "SELECT * FROM users ORDER BY id";
+    assertEquals(rows(source, query), rows(target, query));
+  }
+
+  @Test
+  public void restore_corruptedFile_Failed() throws Exception {
+    // Given
+    execute(source, "INSERT INTO users (name, email) VALUES ('Ada', 'ada@sun.com')");
+    var path = directory.resolve("taskdb.snapshot");
+    SnapshotFile.write(source, path);
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), 30);
+    }
+
+    // Then
+    assertThrows(IOException.class, () -> SnapshotFile.restore(path, target, 100));
+    assertEquals(List.of(List.of("0")), rows(target, "SELECT COUNT(*) FROM users"));
+  }
+
+  private static Connection database(String name) throws SQLException {
+    var connection = DriverManager.getConnection("jdbc:h2:mem:" + name);
+    execute(connection, SCHEMA.toArray(String[]::new));
+    return connection;
+  }
+
+  private static void execute(Connection connection, String... statements) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      for (String sql : statements) statement.execute(sql);
+    }
+    if (!connection.getAutoCommit()) connection.commit();
+  }
+
+  private static List<List<String>> rows(Connection connection, String query) throws SQLException {
+    List<List<String>> rows = new ArrayList<>();
+
+    try (var statement = connection.createStatement();
+        var result = statement.executeQuery(query)) {
+      int columns = result.getMetaData().getColumnCount();
+
+      while (result.next()) {
+        List<String> row = new ArrayList<>();
+        for (int i = 1; i <= columns; i++) row.add(result.getString(i));
+        rows.add(row);
+      }
+    }
+
+    return rows;
+  }
+}
@@ -0,0 +1,72 @@
+package com.demo.userprojectmanagement.util.timing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ServerTimingFilterTest {
+
+  @Test
+  public void doFilter_sampled_Success() throws Exception {
+    // Given
+    var properties = new ServerTimingProperties();
+    properties.setSampleRate(1);
+    var filter = new ServerTimingFilter(properties);
+    Filter handler =
+        (request, response, chain) -> {
+          var timings = RequestTimings.current();
+          timings.securityPassed();
+          timings.addRepository(3_000_000);
+          timings.addStatement(1_000_000);
+          timings.addStatement(1_500_000);
+          timings.addSerialization(500_000);
+          response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+          response.flushBuffer();
+        };
+    var response = new MockHttpServletResponse();
+
+    // Then
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/v1/users"),
+        response,
+        new MockFilterChain(new HttpServlet() {}, handler));
+
+    var header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+    assertTrue(header.startsWith("security;dur="));
+    assertTrue(header.contains("repo;dur=3.000"));
+    assertTrue(header.contains("db;dur=2.500;desc=\"2 statements\""));
+    assertTrue(header.contains("ser;dur=0.500"));
+    assertTrue(header.contains("total;dur="));
+    assertEquals("{}", response.getContentAsString());
+    assertNull(RequestTimings.current());
+  }
+
+  @Test
+  public void doFilter_notSampled_Success() throws Exception {
+    // Given
+    var properties = new ServerTimingProperties();
+    properties.setSampleRate(0);
+    var filter = new ServerTimingFilter(properties);
+    var seen = new AtomicReference<RequestTimings>();
+    Filter handler = (request, response, chain) -> seen.set(RequestTimings.current());
+    var response = new MockHttpServletResponse();
+
+    // Then
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/v1/users"),
+        response,
+        new MockFilterChain(new HttpServlet() {}, handler));
+
+    assertNull(seen.get());
+    assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+  }
+}